@@ -1,7 +1,10 @@
 // 🌐 API Configuration - This is our bridge to the backend!
 console.log("🔗 API helper loaded!");
 
-const API_BASE_URL = 'http://localhost:8080/api';
+// Same origin when the app serves the pages; opened from disk, the app is assumed on localhost:8080
+const API_BASE_URL = window.location.protocol.startsWith('http')
+    ? window.location.origin + '/api'
+    : 'http://localhost:8080/api';
 
 // 🎫 Get JWT token from browser storage
 function getToken() {
@@ -37,8 +40,39 @@ function isLibrarian() {
     return isLib;
 }
 
+// 🔄 Swap the refresh token for a new pair when the short-lived access token expires
+// Concurrent 401s share one refresh; resolves to false when the session is over
+let refreshInFlight = null;
+
+function refreshSession() {
+    const refreshToken = localStorage.getItem('refresh-token');
+    if (!refreshToken) {
+        return Promise.resolve(false);
+    }
+    if (!refreshInFlight) {
+        console.log('🔄 Refreshing access token');
+        refreshInFlight = fetch(`${API_BASE_URL}/auth/refresh`, {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken: refreshToken })
+        }).then(async response => {
+            if (!response.ok) {
+                localStorage.removeItem('refresh-token');
+                return false;
+            }
+            const tokens = await response.json();
+            localStorage.setItem('jwt-token', tokens.token);
+            localStorage.setItem('refresh-token', tokens.refreshToken);
+            return true;
+        }).catch(() => false).finally(() => {
+            refreshInFlight = null;
+        });
+    }
+    return refreshInFlight;
+}
+
 // 🚀 Main API call function - This talks to your Spring Boot backend!
-async function apiCall(endpoint, method = 'GET', data = null, includeAuth = true) {
+async function apiCall(endpoint, method = 'GET', data = null, includeAuth = true, retry = true) {
     console.log(`🚀 API Call: ${method} ${API_BASE_URL}${endpoint}`);
     
     const headers = {
@@ -66,7 +100,10 @@ async function apiCall(endpoint, method = 'GET', data = null, includeAuth = true
         const response = await fetch(`${API_BASE_URL}${endpoint}`, config);
         console.log(`📥 Response status: ${response.status}`);
         
-        // Handle authentication errors
+        // Handle authentication errors - an expired access token gets one refresh and retry
+        if (response.status === 401 && includeAuth && retry && await refreshSession()) {
+            return apiCall(endpoint, method, data, includeAuth, false);
+        }
         if (response.status === 401) {
             console.log('🚫 Authentication failed - redirecting to login');
             logout();
@@ -89,6 +126,43 @@ async function apiCall(endpoint, method = 'GET', data = null, includeAuth = true
     }
 }
 
+// 🔗 GraphQL query - one round trip for pages that need several lists and counts
+// Returns the data object; field errors (e.g. librarian-only fields) are logged and those fields come back null
+async function graphqlQuery(query, variables = {}, retry = true) {
+    console.log('🔗 GraphQL query');
+
+    const headers = {
+        'Content-Type': 'application/json'
+    };
+    if (getToken()) {
+        headers['Authorization'] = `Bearer ${getToken()}`;
+    }
+
+    const response = await fetch(`${API_BASE_URL}/graphql`, {
+        method: 'POST',
+        headers: headers,
+        body: JSON.stringify({ query: query, variables: variables })
+    });
+
+    if (response.status === 401 && retry && await refreshSession()) {
+        return graphqlQuery(query, variables, false);
+    }
+    if (response.status === 401) {
+        console.log('🚫 Authentication failed - redirecting to login');
+        logout();
+        return null;
+    }
+
+    const result = await response.json();
+    if (result.errors) {
+        console.warn('⚠️ GraphQL errors:', result.errors);
+    }
+    if (!result.data) {
+        throw new Error(result.errors?.[0]?.message || 'Something went wrong!');
+    }
+    return result.data;
+}
+
 // 🚨 Show error message to user
 function showError(elementId, message) {
     console.log(`🚨 Showing error on ${elementId}:`, message);
@@ -29,6 +29,7 @@ async function login() {
             
             // Store the magic JWT token
             localStorage.setItem('jwt-token', response.token);
+            localStorage.setItem('refresh-token', response.refreshToken);
             localStorage.setItem('user-info', JSON.stringify({
                 username: response.username,
                 fullName: response.fullName,
@@ -126,7 +127,25 @@ function showLoginForm() {
 // 🚪 Logout function - See you later!
 function logout() {
     console.log("👋 User logging out...");
+
+    // Revoke the access token and the refresh token's session on the server (best effort)
+    const token = localStorage.getItem('jwt-token');
+    const refreshToken = localStorage.getItem('refresh-token');
+    if (token || refreshToken) {
+        const headers = { 'Content-Type': 'application/json' };
+        if (token) {
+            headers['Authorization'] = `Bearer ${token}`;
+        }
+        fetch(`${API_BASE_URL}/auth/logout`, {
+            method: 'POST',
+            headers: headers,
+            body: JSON.stringify({ refreshToken: refreshToken }),
+            keepalive: true
+        }).catch(() => {});
+    }
+
     localStorage.removeItem('jwt-token');
+    localStorage.removeItem('refresh-token');
     localStorage.removeItem('user-info');
     alert("👋 Logged out successfully! See you next time!");
     window.location.href = 'index.html';
@@ -235,6 +235,35 @@ function changeItemsPerPage(newItemsPerPage) {
     displayBooks(allBooksData);
 }
 
+// 💡 Type-ahead suggestions from the server-side prefix index (debounced)
+let suggestTimer = null;
+let lastSuggestQuery = '';
+
+function suggestBooks() {
+    clearTimeout(suggestTimer);
+    suggestTimer = setTimeout(async () => {
+        const query = document.getElementById('searchBooks').value.trim();
+        if (query.length < 2 || query === lastSuggestQuery) {
+            return;
+        }
+        lastSuggestQuery = query;
+
+        try {
+            const suggestions = await apiCall(`/books/suggest?q=${encodeURIComponent(query)}&limit=8`, 'GET', null, false);
+            const list = document.getElementById('bookSuggestions');
+            list.innerHTML = '';
+            (suggestions || []).forEach(suggestion => {
+                const option = document.createElement('option');
+                option.value = suggestion.text;
+                option.label = suggestion.type === 'author' ? '✍️ Author' : '📖 Title';
+                list.appendChild(option);
+            });
+        } catch (error) {
+            console.error("❌ Error loading suggestions:", error);
+        }
+    }, 150);
+}
+
 // 🔍 Filter books based on search and filters
 function filterBooks() {
     const searchTerm = document.getElementById('searchBooks').value.toLowerCase();
@@ -172,56 +172,56 @@ async function addNewBook() {
     }
 }
 
+// 📊 Dashboard query - counts come from the server, only the last 10 loans are fetched
+const DASHBOARD_QUERY = `
+    query Dashboard($userId: ID) {
+        bookCount
+        userCount
+        loanCounts { active overdue }
+        recent: transactions(userId: $userId, limit: 10) {
+            id transactionDate dueDate returnDate
+            book { title author }
+            user { fullName username }
+        }
+    }`;
+
 // 📊 Load dashboard data - MAIN FUNCTION
 async function loadDashboardData() {
     console.log("📊 Loading dashboard data...");
     
     try {
-        // Load all data
-        const [books, users, transactions] = await Promise.all([
-            apiCall('/books').catch(e => { console.warn("Books error:", e); return []; }),
-            apiCall('/users').catch(e => { console.warn("Users error:", e); return []; }),
-            apiCall('/transactions').catch(e => { console.warn("Transactions error:", e); return []; })
-        ]);
+        // Members only see their own loans; userCount and loanCounts come back null for them
+        const user = getUser();
+        const variables = user && user.role !== 'LIBRARIAN' ? { userId: user.id } : {};
+        const data = await graphqlQuery(DASHBOARD_QUERY, variables);
+        if (!data) return;
         
         // Update statistics
-        updateDashboardStats(books, users, transactions);
+        updateDashboardStats(data);
         
-        // Load recent activity
-        loadRecentActivity();
+        // Show recent activity
+        showRecentActivity(data.recent || []);
         
         console.log("✅ Dashboard data loaded successfully");
         
     } catch (error) {
         console.error("❌ Error loading dashboard data:", error);
+        showNoRecentActivity("Error loading transactions");
+        hideRecentActivityLoading();
         // Don't show error to user, just log it
         console.warn("Dashboard will show default values");
     }
 }
 
 // 📊 Update dashboard statistics
-function updateDashboardStats(books, users, transactions) {
+function updateDashboardStats(data) {
     console.log("📊 Updating dashboard stats...");
     
     try {
-        // Books statistics
-        const totalBooks = books.length;
-        
-        // Users statistics
-        const totalUsers = users.length;
-        
-        // Transactions statistics - Active loans = not returned
-        const activeLoans = transactions.filter(t => !t.returnDate).length;
-        
-        // Calculate overdue books
-        const today = new Date();
-        const overdueBooks = transactions.filter(t => {
-            if (t.returnDate) return false; // Already returned
-            if (!t.dueDate) return false; // No due date
-            
-            const dueDate = new Date(t.dueDate);
-            return dueDate < today;
-        }).length;
+        const totalBooks = data.bookCount ?? 0;
+        const totalUsers = data.userCount ?? 0;
+        const activeLoans = data.loanCounts?.active ?? 0;
+        const overdueBooks = data.loanCounts?.overdue ?? 0;
         
         // Update DOM elements - MATCHING YOUR HTML IDs
         const updateElement = (id, value) => {
@@ -247,58 +247,20 @@ function updateDashboardStats(books, users, transactions) {
     }
 }
 
-// 📊 Load recent activity - FIXED TO USE YOUR API FIELDS
-async function loadRecentActivity() {
-    console.log("📊 Loading recent activity...");
-    
-    try {
-        // Get recent transactions
-        const transactions = await apiCall('/transactions');
-        
-        console.log("🔍 ALL TRANSACTIONS:", transactions); // Debug
-        console.log("🔍 Transaction count:", transactions?.length || 0); // Debug
-        
-        if (transactions && transactions.length > 0) {
-            console.log("🔍 First transaction structure:", transactions[0]); // Debug
-            
-            // Sort by transactionDate (not borrowDate!) and take last 10
-            const recentTransactions = transactions
-                .filter(t => {
-                    console.log("🔍 Checking transaction:", t.id, "Date:", t.transactionDate); // Debug
-                    return t.transactionDate; // Use transactionDate field
-                })
-                .sort((a, b) => {
-                    try {
-                        const dateA = new Date(a.transactionDate); // Use transactionDate
-                        const dateB = new Date(b.transactionDate); // Use transactionDate
-                        return dateB - dateA; // Newest first
-                    } catch (error) {
-                        console.error("Error sorting dates:", error);
-                        return 0;
-                    }
-                })
-                .slice(0, 10);
-            
-            console.log("🔍 Filtered recent transactions:", recentTransactions); // Debug
-            
-            if (recentTransactions.length > 0) {
-                displayRecentActivity(recentTransactions);
-            } else {
-                showNoRecentActivity("No recent transactions found");
-            }
-        } else {
-            showNoRecentActivity("No transactions in database");
-        }
-        
-    } catch (error) {
-        console.error("❌ Error loading recent activity:", error);
-        showNoRecentActivity("Error loading transactions");
-    } finally {
-        // Hide loading spinner
-        const loadingElement = document.getElementById('recentActivityLoading');
-        if (loadingElement) {
-            loadingElement.style.display = 'none';
-        }
+// 📊 Show recent activity - already newest first from the server
+function showRecentActivity(transactions) {
+    if (transactions.length > 0) {
+        displayRecentActivity(transactions);
+    } else {
+        showNoRecentActivity("No recent transactions found");
+    }
+    hideRecentActivityLoading();
+}
+
+function hideRecentActivityLoading() {
+    const loadingElement = document.getElementById('recentActivityLoading');
+    if (loadingElement) {
+        loadingElement.style.display = 'none';
     }
 }
 
@@ -49,37 +49,45 @@ function setupRoleBasedUI() {
     }
 }
 
+// 📊 Transactions page query - loans with their book and member, plus the borrow modal lists
+const TRANSACTIONS_PAGE_QUERY = `
+    query TransactionsPage($userId: ID, $withUsers: Boolean!) {
+        transactions(userId: $userId) {
+            id transactionDate dueDate returnDate
+            book { id title author }
+            user { id fullName username }
+        }
+        books { id title author availableCopies }
+        users @include(if: $withUsers) { id fullName username }
+    }`;
+
+// GraphQL IDs arrive as strings; the page compares them with numeric ids
+function withNumericId(item) {
+    return item ? { ...item, id: Number(item.id) } : item;
+}
+
 // 📊 Load all page data
 async function loadPageData() {
     console.log("📊 Loading page data...");
     
     try {
         const user = getUser();
+        const isLib = user.role === 'LIBRARIAN';
         
-        // Load data based on role
-        let transactionsPromise;
-        
-        if (user.role === 'LIBRARIAN') {
-            // Librarians can see all transactions
-            transactionsPromise = apiCall('/transactions');
-        } else {
-            // Members can only see their own transactions
-            transactionsPromise = apiCall(`/transactions/user/${user.id}`);
-        }
-        
-        // Load users and books (needed for dropdowns and display)
-        const usersPromise = user.role === 'LIBRARIAN' ? apiCall('/users') : Promise.resolve([user]);
-        const booksPromise = apiCall('/books');
-        
-        const [transactions, users, books] = await Promise.all([
-            transactionsPromise.catch(e => { console.warn("Transactions error:", e); return []; }),
-            usersPromise.catch(e => { console.warn("Users error:", e); return []; }),
-            booksPromise.catch(e => { console.warn("Books error:", e); return []; })
-        ]);
-        
-        allTransactions = transactions || [];
-        allUsers = users || [];
-        allBooks = books || [];
+        // Librarians see all transactions; members only their own (and no user list)
+        const data = await graphqlQuery(TRANSACTIONS_PAGE_QUERY, {
+            userId: isLib ? null : user.id,
+            withUsers: isLib
+        });
+        if (!data) return;
+        
+        allTransactions = (data.transactions || []).map(t => ({
+            ...withNumericId(t),
+            book: withNumericId(t.book),
+            user: withNumericId(t.user)
+        }));
+        allUsers = isLib ? (data.users || []).map(withNumericId) : [user];
+        allBooks = (data.books || []).map(withNumericId);
         
         displayTransactions(allTransactions);
         updateTransactionStats(allTransactions);
@@ -1,10 +1,12 @@
 // 👥 Users Management Functions
 console.log("👥 Users page loading...");
 
-let allUsers = []; // Store all users for filtering
-let filteredUsers = []; // Store filtered users for pagination
+let allUsers = []; // Users on the current directory page
 let currentPage = 1;
 let usersPerPage = 3; // Show 3 users per page (better for testing with fewer users)
+let pageCursors = [null]; // Cursor that starts each page visited so far ("after" parameter)
+let nextCursor = null; // Cursor for the page after this one, null on the last page
+let searchTimer = null;
 
 // 🔒 Check authentication when page loads
 document.addEventListener('DOMContentLoaded', function() {
@@ -24,18 +26,34 @@ function displayUserInfo() {
     }
 }
 
-// 👥 Load all users from API
+// 👥 Load the role counts and the first directory page (after changes, too)
 async function loadUsers() {
-    console.log("👥 Loading users from API...");
+    pageCursors = [null];
+    currentPage = 1;
+    await Promise.all([loadUserStats(), loadDirectoryPage()]);
+}
+
+// 👥 Load one page of the user directory; search, filters and paging all happen on the server
+async function loadDirectoryPage() {
+    console.log(`👥 Loading users page ${currentPage} from API...`);
+    
+    const params = new URLSearchParams({ sort: 'FULL_NAME', size: usersPerPage });
+    const searchTerm = document.getElementById('searchUsers').value.trim();
+    const roleFilter = document.getElementById('roleFilter').value;
+    const statusFilter = document.getElementById('statusFilter').value;
+    if (searchTerm) params.append('q', searchTerm);
+    if (roleFilter) params.append('role', roleFilter);
+    if (statusFilter === 'with-books') params.append('withLoans', 'true');
+    if (pageCursors[currentPage - 1]) params.append('after', pageCursors[currentPage - 1]);
     
     try {
-        const users = await apiCall('/users');
+        const page = await apiCall(`/users/directory?${params}`);
         
-        if (users && Array.isArray(users)) {
-            allUsers = users;
-            displayUsers(users);
-            updateUserStats(users);
-            console.log(`✅ Loaded ${users.length} users`);
+        if (page && Array.isArray(page.users)) {
+            allUsers = page.users;
+            nextCursor = page.nextCursor || null;
+            displayUsers(allUsers);
+            console.log(`✅ Loaded ${allUsers.length} users`);
         } else {
             console.log("👥 No users found or invalid response");
             showNoUsersMessage();
@@ -51,51 +69,45 @@ async function loadUsers() {
 }
 
 // 📊 Update user statistics
-function updateUserStats(users) {
-    const totalUsers = users.length;
-    const members = users.filter(u => u.role === 'MEMBER').length;
-    const librarians = users.filter(u => u.role === 'LIBRARIAN').length;
-    
-    document.getElementById('totalUsers').textContent = totalUsers;
-    document.getElementById('totalMembers').textContent = members;
-    document.getElementById('totalLibrarians').textContent = librarians;
-    
-    console.log(`📊 Stats: ${totalUsers} total (${members} members, ${librarians} librarians)`);
+async function loadUserStats() {
+    try {
+        const counts = await apiCall('/users/directory/counts');
+        if (!counts) return;
+        
+        const members = counts.MEMBER || 0;
+        const librarians = counts.LIBRARIAN || 0;
+        const totalUsers = members + librarians;
+        
+        document.getElementById('totalUsers').textContent = totalUsers;
+        document.getElementById('totalMembers').textContent = members;
+        document.getElementById('totalLibrarians').textContent = librarians;
+        
+        console.log(`📊 Stats: ${totalUsers} total (${members} members, ${librarians} librarians)`);
+    } catch (error) {
+        console.log("⚠️ Could not load user stats:", error.message);
+    }
 }
 
-// 📊 Display users with pagination and elegant styling
+// 📊 Display one page of users with elegant styling
 function displayUsers(users) {
-    filteredUsers = users || [];
-    const totalUsers = filteredUsers.length;
-    
-    // Calculate pagination
-    const totalPages = Math.ceil(totalUsers / usersPerPage);
-    const startIndex = (currentPage - 1) * usersPerPage;
-    const endIndex = startIndex + usersPerPage;
-    const currentUsers = filteredUsers.slice(startIndex, endIndex);
-    
     const usersContainer = document.getElementById('usersContainer');
     const noUsersDiv = document.getElementById('noUsersFound');
     
-    if (currentUsers.length === 0) {
+    if (!users || users.length === 0) {
         showNoUsersMessage();
         return;
     }
     
     // Build elegant user list
     let usersHTML = '';
-    currentUsers.forEach(user => {
+    users.forEach(user => {
         const roleBadge = user.role === 'LIBRARIAN' 
             ? '<span class="badge bg-gradient-warning text-dark px-3 py-2"><i class="fas fa-user-tie me-1"></i>Librarian</span>'
             : '<span class="badge bg-gradient-primary px-3 py-2"><i class="fas fa-user me-1"></i>Member</span>';
             
-        const joinDate = user.createdAt 
-            ? new Date(user.createdAt).toLocaleDateString('en-US', { 
-                year: 'numeric', 
-                month: 'short', 
-                day: 'numeric' 
-              })
-            : 'N/A';
+        const booksBadge = user.activeLoans > 0
+            ? `<span class="badge bg-success text-white px-3 py-2"><i class="fas fa-book me-1"></i>${user.activeLoans} Active Books</span>`
+            : '<span class="badge bg-light text-muted border px-3 py-2"><i class="fas fa-book me-1"></i>No Active Books</span>';
         
         usersHTML += `
             <div class="col-12 mb-3">
@@ -129,10 +141,6 @@ function displayUsers(users) {
                                         <i class="fas fa-phone text-success me-2"></i>
                                         <span class="small">${user.phoneNumber || 'Not provided'}</span>
                                     </div>
-                                    <div class="info-item">
-                                        <i class="fas fa-calendar-alt text-info me-2"></i>
-                                        <span class="small">Joined ${joinDate}</span>
-                                    </div>
                                 </div>
                             </div>
                             
@@ -141,9 +149,7 @@ function displayUsers(users) {
                                 <div class="d-flex justify-content-between align-items-center">
                                     <div class="user-stats">
                                         <div class="stat-item">
-                                            <span class="badge bg-light text-dark border px-3 py-2" id="userBooks${user.id}">
-                                                <i class="fas fa-spinner fa-spin me-1"></i>Loading...
-                                            </span>
+                                            ${booksBadge}
                                         </div>
                                     </div>
                                     
@@ -174,156 +180,82 @@ function displayUsers(users) {
     noUsersDiv.style.display = 'none';
     
     // Update pagination controls
-    updatePaginationControls(totalPages);
+    updatePaginationControls();
     
     // Update users count display
     updateUsersCount();
     
-    // Load active books for each user
-    loadUserActiveBooks(currentUsers);
-    
-    console.log(`👥 Displaying ${currentUsers.length} users (Page ${currentPage}/${totalPages})`);
+    console.log(`👥 Displaying ${users.length} users (Page ${currentPage})`);
 }
 
-// 📄 Update pagination controls
-function updatePaginationControls(totalPages) {
+// 📄 Update pagination controls (keyset pages: previous/next only)
+function updatePaginationControls() {
     const paginationContainer = document.getElementById('paginationContainer');
     
-    if (totalPages <= 1) {
+    if (currentPage === 1 && !nextCursor) {
         paginationContainer.innerHTML = '';
         return;
     }
     
-    let paginationHTML = '<nav><ul class="pagination justify-content-center">';
-    
-    // Previous button
-    paginationHTML += `
-        <li class="page-item ${currentPage === 1 ? 'disabled' : ''}">
-            <a class="page-link" href="#" onclick="changePage(${currentPage - 1})">
-                <i class="fas fa-chevron-left"></i> Previous
-            </a>
-        </li>
-    `;
-    
-    // Page numbers (show max 5 pages)
-    const startPage = Math.max(1, currentPage - 2);
-    const endPage = Math.min(totalPages, startPage + 4);
-    
-    for (let i = startPage; i <= endPage; i++) {
-        paginationHTML += `
-            <li class="page-item ${i === currentPage ? 'active' : ''}">
-                <a class="page-link" href="#" onclick="changePage(${i})">${i}</a>
+    paginationContainer.innerHTML = `
+        <nav><ul class="pagination justify-content-center">
+            <li class="page-item ${currentPage === 1 ? 'disabled' : ''}">
+                <a class="page-link" href="#" onclick="changePage(${currentPage - 1}); return false;">
+                    <i class="fas fa-chevron-left"></i> Previous
+                </a>
             </li>
-        `;
-    }
-    
-    // Next button
-    paginationHTML += `
-        <li class="page-item ${currentPage === totalPages ? 'disabled' : ''}">
-            <a class="page-link" href="#" onclick="changePage(${currentPage + 1})">
-                Next <i class="fas fa-chevron-right"></i>
-            </a>
-        </li>
+            <li class="page-item active">
+                <span class="page-link">${currentPage}</span>
+            </li>
+            <li class="page-item ${nextCursor ? '' : 'disabled'}">
+                <a class="page-link" href="#" onclick="changePage(${currentPage + 1}); return false;">
+                    Next <i class="fas fa-chevron-right"></i>
+                </a>
+            </li>
+        </ul></nav>
     `;
-    
-    paginationHTML += '</ul></nav>';
-    paginationContainer.innerHTML = paginationHTML;
 }
 
-// 📄 Change page
+// 📄 Change page: forward with the last page's cursor, back with a remembered one
 function changePage(page) {
-    if (page < 1 || page > Math.ceil(filteredUsers.length / usersPerPage)) {
+    if (page < 1 || page > currentPage + 1 || (page === currentPage + 1 && !nextCursor)) {
         return;
     }
+    if (page === currentPage + 1) {
+        pageCursors[currentPage] = nextCursor;
+    }
     currentPage = page;
-    displayUsers(filteredUsers);
+    loadDirectoryPage();
 }
 
 // 📄 Change users per page
 function changeUsersPerPage() {
-    const newUsersPerPage = parseInt(document.getElementById('usersPerPageSelect').value);
-    usersPerPage = newUsersPerPage;
+    usersPerPage = parseInt(document.getElementById('usersPerPageSelect').value);
+    pageCursors = [null];
     currentPage = 1; // Reset to first page
-    displayUsers(filteredUsers);
+    loadDirectoryPage();
     console.log(`📄 Changed to ${usersPerPage} users per page`);
 }
 
 // 📊 Update users count display
 function updateUsersCount() {
-    const totalUsers = filteredUsers.length;
     const startIndex = (currentPage - 1) * usersPerPage + 1;
-    const endIndex = Math.min(currentPage * usersPerPage, totalUsers);
+    const endIndex = startIndex + allUsers.length - 1;
     
     const countDisplay = document.getElementById('usersCount');
     if (countDisplay) {
-        if (totalUsers === 0) {
-            countDisplay.textContent = 'No users found';
-        } else {
-            countDisplay.textContent = `Showing ${startIndex}-${endIndex} of ${totalUsers} users`;
-        }
-    }
-}
-
-// 📚 Load active books count for each user
-async function loadUserActiveBooks(users) {
-    for (const user of users) {
-        try {
-            // Get transactions for this user
-            const transactions = await apiCall(`/transactions/user/${user.id}`);
-            
-            if (transactions && Array.isArray(transactions)) {
-                const activeBooks = transactions.filter(t => 
-                    t.status === 'BORROWED' || t.returnDate === null
-                ).length;
-                
-                const badgeElement = document.getElementById(`userBooks${user.id}`);
-                if (badgeElement) {
-                    if (activeBooks > 0) {
-                        badgeElement.innerHTML = `<i class="fas fa-book me-1"></i>${activeBooks} Active Books`;
-                        badgeElement.className = 'badge bg-success text-white px-3 py-2';
-                    } else {
-                        badgeElement.innerHTML = `<i class="fas fa-book me-1"></i>No Active Books`;
-                        badgeElement.className = 'badge bg-light text-muted border px-3 py-2';
-                    }
-                }
-            }
-        } catch (error) {
-            console.log(`⚠️ Could not load books for user ${user.id}:`, error.message);
-            const badgeElement = document.getElementById(`userBooks${user.id}`);
-            if (badgeElement) {
-                badgeElement.innerHTML = `<i class="fas fa-question me-1"></i>Unknown`;
-                badgeElement.className = 'badge bg-secondary text-white px-3 py-2';
-            }
-        }
+        countDisplay.textContent = `Showing ${startIndex}-${endIndex}${nextCursor ? ' (more on the next page)' : ''}`;
     }
 }
 
-// 🔍 Filter users based on search and filters
+// 🔍 Filter users: prefix search on name, username or email, plus role and status, on the server
 function filterUsers() {
-    const searchTerm = document.getElementById('searchUsers').value.toLowerCase();
-    const roleFilter = document.getElementById('roleFilter').value;
-    const statusFilter = document.getElementById('statusFilter').value;
-    
-    let filtered = allUsers.filter(user => {
-        const matchesSearch = !searchTerm || 
-            user.fullName.toLowerCase().includes(searchTerm) ||
-            user.username.toLowerCase().includes(searchTerm) ||
-            user.email.toLowerCase().includes(searchTerm);
-            
-        const matchesRole = !roleFilter || user.role === roleFilter;
-        
-        // For status filter, we'd need to implement active books logic
-        const matchesStatus = !statusFilter || true; // Simplified for now
-            
-        return matchesSearch && matchesRole && matchesStatus;
-    });
-    
-    // Reset to first page when filtering
-    currentPage = 1;
-    
-    displayUsers(filtered);
-    updateUserStats(filtered);
-    console.log(`🔍 Filtered ${filtered.length} users from ${allUsers.length} total`);
+    clearTimeout(searchTimer);
+    searchTimer = setTimeout(() => {
+        pageCursors = [null];
+        currentPage = 1;
+        loadDirectoryPage();
+    }, 250);
 }
 
 // 🚫 Show no users message
@@ -536,7 +468,7 @@ async function deleteUser(userId) {
 
 // 🎯 Demo function to show pagination scaling
 function showPaginationDemo() {
-    const currentTotal = allUsers.length;
+    const currentTotal = parseInt(document.getElementById('totalUsers').textContent) || allUsers.length;
     const scenarios = [
         { users: 50, pages: Math.ceil(50 / usersPerPage) },
         { users: 100, pages: Math.ceil(100 / usersPerPage) },
@@ -551,7 +483,7 @@ function showPaginationDemo() {
         demoText += `• ${scenario.users} users → ${scenario.pages} pages\n`;
     });
     
-    demoText += `\n✨ The pagination automatically adjusts!\n`;
+    demoText += `\n✨ Each page is fetched from the server, so page 500 loads as fast as page 1!\n`;
     demoText += `Try changing "users per page" to see different layouts.`;
     
     alert(demoText);
@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Startup time and resident memory of the production build in four variants:
+#   jar       plain executable jar
+#   cds       extracted jar + AppCDS archive from a training run
+#   aot+cds   the same with Spring AOT initializers (-Dspring.aot.enabled=true)
+#   native    GraalVM native image, if target/library-management-system exists
+#             (build it with: ./mvnw -Pprod,native native:compile)
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Runs against in-memory H2 by default so the database isn't part of the measurement; set
+# BENCH_DB_ARGS to point at a real MySQL instead.
+set -euo pipefail
+
+RUNS=${1:-5}
+cd "$(dirname "$0")/.."
+JAR=target/library-management-system-0.0.1-SNAPSHOT.jar
+WORK=target/startup-benchmark
+DB_ARGS=${BENCH_DB_ARGS:-"--spring.datasource.url=jdbc:h2:mem:bench --spring.datasource.driver-class-name=org.h2.Driver \
+--spring.datasource.username=sa --spring.datasource.password= \
+--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect \
+--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect --spring.jpa.hibernate.ddl-auto=create"}
+APP_ARGS="--spring.profiles.active=prod --server.port=0 --library.notifications.enabled=false $DB_ARGS"
+
+./mvnw -B -q -Pprod -DskipTests package
+
+rm -rf "$WORK" && mkdir -p "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" >/dev/null
+EXTRACTED=$WORK/app/$(basename "$JAR")
+
+# Training runs: start the context, then exit and dump the loaded classes
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh -jar "$EXTRACTED" $APP_ARGS >/dev/null
+java -XX:ArchiveClassesAtExit="$WORK/app-aot.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$EXTRACTED" $APP_ARGS >/dev/null
+
+# Start once, wait for the "Started" line, record seconds and VmRSS (MB), stop it
+measure() {
+    local log=$WORK/run.log
+    "$@" $APP_ARGS >"$log" 2>&1 &
+    local pid=$!
+    for _ in $(seq 1 600); do
+        if grep -q "Started LibraryManagementSystemApplication" "$log"; then
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "failed to start: $*" >&2; tail -20 "$log" >&2; exit 1
+        fi
+        sleep 0.1
+    done
+    local seconds rss
+    seconds=$(grep -o "Started LibraryManagementSystemApplication in [0-9.]*" "$log" | awk '{print $NF}')
+    rss=$(awk '/VmRSS/ {printf "%.0f", $2 / 1024}' "/proc/$pid/status")
+    kill "$pid" && wait "$pid" 2>/dev/null || true
+    echo "$seconds $rss"
+}
+
+report() {
+    local name=$1; shift
+    local results=()
+    for _ in $(seq 1 "$RUNS"); do
+        results+=("$(measure "$@")")
+    done
+    printf '%s\n' "${results[@]}" | sort -n | awk -v name="$name" -v runs="$RUNS" '
+        { seconds[NR] = $1; rss += $2 }
+        END { printf "%-10s median %6.2f s   best %6.2f s   rss %5.0f MB   (%d runs)\n",
+                     name, seconds[int((NR + 1) / 2)], seconds[1], rss / NR, runs }'
+}
+
+report jar java -jar "$JAR"
+report cds java -XX:SharedArchiveFile="$WORK/app.jsa" -jar "$EXTRACTED"
+report aot+cds java -XX:SharedArchiveFile="$WORK/app-aot.jsa" -Dspring.aot.enabled=true -jar "$EXTRACTED"
+if [ -x target/library-management-system ]; then
+    report native target/library-management-system
+fi
@@ -0,0 +1,211 @@
+package com.library.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.library.model.CacheRegion;
+import com.library.service.CacheInvalidationListener;
+import com.library.service.TrendingService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Finished JSON for the public catalog reads (GET /api/books, /api/books/{id},
+// /api/books/category/{category}, /api/books/available), kept as bytes and, from
+// library.response-cache.gzip-min-bytes, also gzipped. A hit is one write of those bytes: no
+// JPA load, no serialization, no compression per request.
+//
+// Runs after the security filters, so CORS headers and rate limits still apply. The JSON doesn't
+// depend on who asks, so signed-in requests share entries with anonymous ones; other formats
+// (CBOR, Smile) are not cached. Any book change, on this instance or another (see
+// CacheInvalidationBus), bumps the catalog generation and empties the cache, because a title can
+// appear in every list. A response rendered while the generation moved is not stored. Entries
+// are bounded by total bytes; when full, arbitrary entries make room.
+@Component
+public class CatalogResponseCache extends OncePerRequestFilter implements CacheInvalidationListener {
+
+    public static final String CACHE_HEADER = "X-Response-Cache";
+
+    private static final Pattern BOOK_BY_ID = Pattern.compile("/api/books/(\\d+)");
+    private static final Pattern BOOKS_BY_CATEGORY = Pattern.compile("/api/books/category/[^/]+");
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Value("${library.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${library.response-cache.gzip-min-bytes:2048}")
+    private int gzipMinBytes;
+
+    private final ConcurrentHashMap<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CatalogResponseCache(MeterRegistry meterRegistry) {
+        this.hits = meterRegistry.counter("cache.gets", "cache", "catalog-responses", "result", "hit");
+        this.misses = meterRegistry.counter("cache.gets", "cache", "catalog-responses", "result", "miss");
+        meterRegistry.gauge("cache.bytes", Tags.of("cache", "catalog-responses"), cachedBytes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || !cacheableRoute(request.getRequestURI())
+                || !acceptsJson(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getQueryString() == null ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        CachedResponse entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            recordView(request.getRequestURI());
+            write(request, response, entry);
+            return;
+        }
+        misses.increment();
+
+        long renderGeneration = generation.get();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        filterChain.doFilter(request, wrapper);
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && contentType != null
+                && contentType.startsWith("application/json")) {
+            byte[] body = wrapper.getContentAsByteArray();
+            store(key, new CachedResponse(contentType, body, body.length >= gzipMinBytes ? gzip(body) : null), renderGeneration);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    // Every catalog list may show a changed title
+    @Override
+    public void onInvalidate(CacheRegion region, Set<Long> ids, boolean remote) {
+        if (region == CacheRegion.BOOK) {
+            clear();
+        }
+    }
+
+    @Override
+    public void onReset() {
+        clear();
+    }
+
+    // Only the thread whose remove succeeds gives the bytes back, as in store(), so an entry
+    // evicted there at the same moment isn't subtracted twice
+    public void clear() {
+        generation.incrementAndGet();
+        for (Map.Entry<String, CachedResponse> entry : entries.entrySet()) {
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                cachedBytes.addAndGet(-entry.getValue().size());
+            }
+        }
+    }
+
+    // Over the budget, arbitrary entries make room; one response may take at most a quarter of it
+    private void store(String key, CachedResponse entry, long renderGeneration) {
+        long size = entry.size();
+        if (size > maxBytes / 4) {
+            return;
+        }
+        while (cachedBytes.get() + size > maxBytes && !entries.isEmpty()) {
+            Iterator<Map.Entry<String, CachedResponse>> any = entries.entrySet().iterator();
+            if (any.hasNext()) {
+                Map.Entry<String, CachedResponse> evicted = any.next();
+                if (entries.remove(evicted.getKey(), evicted.getValue())) {
+                    cachedBytes.addAndGet(-evicted.getValue().size());
+                }
+            }
+        }
+        if (entries.putIfAbsent(key, entry) == null) {
+            cachedBytes.addAndGet(size);
+            if (generation.get() != renderGeneration && entries.remove(key, entry)) {
+                cachedBytes.addAndGet(-size);
+            }
+        }
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, CachedResponse entry) throws IOException {
+        byte[] body = entry.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setHeader(CACHE_HEADER, "HIT");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzipped() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = entry.gzipped();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // A cached title page still counts as a view for the trending list
+    private void recordView(String uri) {
+        Matcher matcher = BOOK_BY_ID.matcher(uri);
+        if (matcher.matches()) {
+            trendingService.recordView(Long.valueOf(matcher.group(1)));
+        }
+    }
+
+    private static boolean cacheableRoute(String uri) {
+        return uri.equals("/api/books") || uri.equals("/api/books/available")
+                || BOOK_BY_ID.matcher(uri).matches() || BOOKS_BY_CATEGORY.matcher(uri).matches();
+    }
+
+    private static boolean acceptsJson(String accept) {
+        return accept == null || accept.isEmpty()
+                || ((accept.contains("application/json") || accept.contains("*/*"))
+                    && !accept.contains("cbor") && !accept.contains("smile"));
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.contains("gzip") && !acceptEncoding.contains("gzip;q=0");
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private record CachedResponse(String contentType, byte[] body, byte[] gzipped) {
+
+        long size() {
+            return body.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+}
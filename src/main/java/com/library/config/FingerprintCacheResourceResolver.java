@@ -0,0 +1,134 @@
+package com.library.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Picks Cache-Control per resource rather than per handler: a URL carrying the content hash
+// (js/api-<md5>.js) names those bytes for good, while the plain URL (js/api.js) is still served
+// for old pages and hand-written links and changes with every deploy. Sits just before the
+// VersionResourceResolver, which resolves a hashed URL to a file of another name.
+//
+// The header travels with the resource, so the handler sets none of its own; a 304 then carries
+// no Cache-Control and the browser keeps the one it stored with the 200.
+class FingerprintCacheResourceResolver extends AbstractResourceResolver {
+
+    private final String fingerprinted;
+    private final String unversioned;
+
+    FingerprintCacheResourceResolver(CacheControl fingerprinted, CacheControl unversioned) {
+        this.fingerprinted = fingerprinted.getHeaderValue();
+        this.unversioned = unversioned.getHeaderValue();
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null) {
+            return null;
+        }
+        boolean hashed = !StringUtils.getFilename(requestPath).equals(resource.getFilename());
+        return new CacheControlledResource(resource, hashed ? fingerprinted : unversioned);
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    // The resolved resource plus a Cache-Control header; keeps the headers it already had (the ETag)
+    private static class CacheControlledResource extends AbstractResource implements HttpResource {
+
+        private final Resource original;
+        private final String cacheControl;
+
+        CacheControlledResource(Resource original, String cacheControl) {
+            this.original = original;
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = original instanceof HttpResource httpResource
+                    ? httpResource.getResponseHeaders() : new HttpHeaders();
+            headers.setCacheControl(cacheControl);
+            return headers;
+        }
+
+        @Override
+        public boolean exists() {
+            return original.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return original.isReadable();
+        }
+
+        @Override
+        public boolean isFile() {
+            return original.isFile();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return original.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return original.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return original.getFile();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return original.getInputStream();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return original.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return original.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return original.createRelative(relativePath);
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return original.getDescription();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.library.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+// The frontend pages, scripts and stylesheet, packaged from frontend/ into classpath:/static.
+//
+// Scripts and the stylesheet are addressed by a hash of their content (js/api-<md5>.js), so a
+// browser or CDN may keep them for a year without asking again; a changed file gets a new URL.
+// The same files under their plain names (js/api.js) must be revalidated on every use, since
+// those URLs outlive any one deploy. The build puts gzip (and brotli, where available) copies
+// next to them, which are sent as-is to clients that accept them. Pages are cached for
+// library.frontend.page-max-age-seconds, so a deploy is picked up within that, and their script
+// and stylesheet links are rewritten to the hashed URLs as they are served.
+@Configuration
+public class FrontendConfig implements WebMvcConfigurer {
+
+    private static final String[] ASSET_DIRECTORIES = {"css", "js"};
+
+    @Value("${library.frontend.page-max-age-seconds:60}")
+    private long pageMaxAgeSeconds;
+
+    @Value("${library.frontend.asset-max-age-days:365}")
+    private long assetMaxAgeDays;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        CacheControl immutable = CacheControl.maxAge(Duration.ofDays(assetMaxAgeDays))
+                .cachePublic()
+                .immutable();
+        CacheControl revalidate = CacheControl.noCache().mustRevalidate();
+        for (String directory : ASSET_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new FingerprintCacheResourceResolver(immutable, revalidate))
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+
+        registry.addResourceHandler("/*.html")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofSeconds(pageMaxAgeSeconds))
+                        .cachePublic()
+                        .mustRevalidate())
+                .resourceChain(true)
+                .addTransformer(new HtmlLinkResourceTransformer());
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.resource.ResourceTransformerChain;
+import org.springframework.web.servlet.resource.ResourceTransformerSupport;
+import org.springframework.web.servlet.resource.TransformedResource;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Points a page's own <script src> and <link href> at the content-hashed URLs from FrontendConfig.
+// Links to other sites, to pages and to anything not served with a hash are left as written.
+// The rewritten page is cached by the resource chain, so this runs once per page.
+class HtmlLinkResourceTransformer extends ResourceTransformerSupport {
+
+    private static final Pattern ASSET_LINK =
+            Pattern.compile("(<(?:script|link)\\b[^>]*?\\b(?:src|href)=\")([^\"#?:]+\\.(?:js|css))(\")");
+
+    @Override
+    public Resource transform(HttpServletRequest request, Resource resource,
+                              ResourceTransformerChain transformerChain) throws IOException {
+        resource = transformerChain.transform(request, resource);
+        String filename = resource.getFilename();
+        if (filename == null || !filename.endsWith(".html")) {
+            return resource;
+        }
+
+        String page = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+        Matcher matcher = ASSET_LINK.matcher(page);
+        StringBuilder rewritten = new StringBuilder(page.length() + 256);
+        boolean changed = false;
+        while (matcher.find()) {
+            String link = matcher.group(2);
+            String hashed = link.startsWith("//") ? null
+                    : resolveUrlPath(toAbsolutePath(link, request), request, resource, transformerChain);
+            if (hashed != null && !hashed.equals(link)) {
+                changed = true;
+                link = hashed;
+            }
+            matcher.appendReplacement(rewritten, Matcher.quoteReplacement(matcher.group(1) + link + matcher.group(3)));
+        }
+        if (!changed) {
+            return resource;
+        }
+        matcher.appendTail(rewritten);
+        return new TransformedResource(resource, rewritten.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,43 @@
+package com.library.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.library.model.Role;
+
+// Borrowing rules bound from library.loans.* in application.properties
+@Component
+@ConfigurationProperties(prefix = "library.loans")
+public class LoanPolicyProperties {
+
+    // Maximum active loans per role (MEMBER, LIBRARIAN); roles not listed get defaultLimit
+    private Map<String, Integer> limits = new HashMap<>();
+
+    private int defaultLimit = 5;
+
+    // Borrowing is blocked once unpaid fines exceed this amount
+    private double maxUnpaidFine = 10.0;
+
+    // Borrowing is blocked while the member has an overdue loan
+    private boolean blockWhenOverdue = true;
+
+    public int limitFor(Role role) {
+        Integer limit = role != null ? limits.get(role.name()) : null;
+        return limit != null ? limit : defaultLimit;
+    }
+
+    public Map<String, Integer> getLimits() { return limits; }
+    public void setLimits(Map<String, Integer> limits) { this.limits = limits; }
+
+    public int getDefaultLimit() { return defaultLimit; }
+    public void setDefaultLimit(int defaultLimit) { this.defaultLimit = defaultLimit; }
+
+    public double getMaxUnpaidFine() { return maxUnpaidFine; }
+    public void setMaxUnpaidFine(double maxUnpaidFine) { this.maxUnpaidFine = maxUnpaidFine; }
+
+    public boolean isBlockWhenOverdue() { return blockWhenOverdue; }
+    public void setBlockWhenOverdue(boolean blockWhenOverdue) { this.blockWhenOverdue = blockWhenOverdue; }
+}
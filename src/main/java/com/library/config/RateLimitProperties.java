@@ -0,0 +1,61 @@
+package com.library.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Token bucket policies bound from rate-limit.* in application.properties.
+// Route groups are applied per client IP before authentication, roles per user after it.
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // How often fully refilled (idle) buckets are dropped
+    private long evictionIntervalMs = 60_000;
+
+    // auth, catalog, api
+    private Map<String, Policy> groups = new HashMap<>();
+
+    // MEMBER, LIBRARIAN
+    private Map<String, Policy> roles = new HashMap<>();
+
+    public static class Policy {
+        // Requests allowed in a burst from a full bucket
+        private int capacity = 60;
+
+        // Sustained refill rate
+        private int requestsPerMinute = 300;
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public int getRequestsPerMinute() { return requestsPerMinute; }
+        public void setRequestsPerMinute(int requestsPerMinute) { this.requestsPerMinute = requestsPerMinute; }
+
+        // Nanoseconds between two tokens
+        public long emissionIntervalNanos() {
+            return 60_000_000_000L / Math.max(1, requestsPerMinute);
+        }
+
+        // How far ahead of "now" a bucket may be scheduled before it is empty
+        public long burstToleranceNanos() {
+            return emissionIntervalNanos() * Math.max(1, capacity);
+        }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getEvictionIntervalMs() { return evictionIntervalMs; }
+    public void setEvictionIntervalMs(long evictionIntervalMs) { this.evictionIntervalMs = evictionIntervalMs; }
+
+    public Map<String, Policy> getGroups() { return groups; }
+    public void setGroups(Map<String, Policy> groups) { this.groups = groups; }
+
+    public Map<String, Policy> getRoles() { return roles; }
+    public void setRoles(Map<String, Policy> roles) { this.roles = roles; }
+}
@@ -0,0 +1,83 @@
+package com.library.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.library.repository.CatalogBookRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+// Optional non-blocking read path for the public catalog (library.reactive-catalog.enabled).
+//
+// Catalog reads under /api/books/reactive run over R2DBC: while a query is in flight the
+// request holds neither a servlet thread nor a JDBC connection, and rows are streamed with the
+// client's demand. Writes and every other endpoint stay on JPA and the servlet stack.
+//
+// The R2DBC pool is deliberately not a ConnectionFactory bean: Boot would take that as the
+// application's database and back off the JDBC DataSource (R2dbcAutoConfiguration is excluded
+// in application.properties for the same reason).
+@Configuration
+@ConditionalOnProperty(name = "library.reactive-catalog.enabled", havingValue = "true")
+@EnableR2dbcRepositories(basePackageClasses = CatalogBookRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = CatalogBookRepository.class),
+        entityOperationsRef = "catalogEntityTemplate")
+public class ReactiveCatalogConfig implements DisposableBean {
+
+    private ConnectionPool pool;
+
+    @Bean
+    public R2dbcEntityTemplate catalogEntityTemplate(
+            @Value("${library.reactive-catalog.url}") String url,
+            @Value("${library.reactive-catalog.username:${spring.datasource.username:}}") String username,
+            @Value("${library.reactive-catalog.password:${spring.datasource.password:}}") String password,
+            @Value("${library.reactive-catalog.pool.initial-size:2}") int initialSize,
+            @Value("${library.reactive-catalog.pool.max-size:10}") int maxSize,
+            @Value("${library.reactive-catalog.pool.max-idle-time-ms:1800000}") long maxIdleTimeMs,
+            MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("catalog")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .build());
+
+        Gauge.builder("catalog.r2dbc.connections.acquired", pool,
+                        p -> p.getMetrics().map(m -> m.acquiredSize()).orElse(0))
+                .description("R2DBC connections in use by catalog reads")
+                .register(meterRegistry);
+        Gauge.builder("catalog.r2dbc.connections.pending", pool,
+                        p -> p.getMetrics().map(m -> m.pendingAcquireSize()).orElse(0))
+                .description("Catalog reads waiting for an R2DBC connection")
+                .register(meterRegistry);
+
+        return new R2dbcEntityTemplate(DatabaseClient.create(pool), DialectResolver.getDialect(pool));
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.library.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+// Database usage of the current HTTP request: how long pool connections were checked out,
+// and (when statement counting is on) how many statements ran and how long they took.
+//
+// Every DataSource bean is wrapped so connections handed out during a request add their
+// checkout-to-close time to the request's totals, and their statements count each execute
+// call. RequestDbStatsFilter opens and reports the totals; connections used outside a request
+// (scheduled jobs) aren't attributed and show up only in Hikari's own usage metric.
+@Component
+public class RequestDbStats implements BeanPostProcessor {
+
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    // Totals for one request
+    public static final class Usage {
+        private final boolean countStatements;
+        private long holdNanos;
+        private int connections;
+        private long statementNanos;
+        private int statements;
+
+        Usage(boolean countStatements) {
+            this.countStatements = countStatements;
+        }
+
+        public long getHoldNanos() {
+            return holdNanos;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public long getStatementNanos() {
+            return statementNanos;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+    }
+
+    public static Usage begin(boolean countStatements) {
+        Usage usage = new Usage(countStatements);
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof TrackingDataSource)) {
+            return new TrackingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    // Unwraps to the pool, so Boot's Hikari metrics and health checks still find it
+    static final class TrackingDataSource extends DelegatingDataSource {
+
+        TrackingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return track(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return track(super.getConnection(username, password));
+        }
+
+        private static Connection track(Connection connection) {
+            Usage usage = CURRENT.get();
+            if (usage == null) {
+                return connection;
+            }
+            long checkedOut = System.nanoTime();
+            boolean[] closed = new boolean[1];
+            return proxy(Connection.class, connection, (proxy, method, args) -> {
+                if ("close".equals(method.getName()) && !closed[0]) {
+                    closed[0] = true;
+                    usage.holdNanos += System.nanoTime() - checkedOut;
+                    usage.connections++;
+                }
+                Object result = invoke(connection, method, args);
+                if (usage.countStatements && result instanceof Statement statement) {
+                    return countStatements(method.getReturnType(), statement, usage);
+                }
+                return result;
+            });
+        }
+
+        // createStatement, prepareStatement and prepareCall: time every execute* call
+        private static Object countStatements(Class<?> type, Statement statement, Usage usage) {
+            return proxy(type, statement, (proxy, method, args) -> {
+                if (!method.getName().startsWith("execute")) {
+                    return invoke(statement, method, args);
+                }
+                long started = System.nanoTime();
+                try {
+                    return invoke(statement, method, args);
+                } finally {
+                    usage.statementNanos += System.nanoTime() - started;
+                    usage.statements++;
+                }
+            });
+        }
+
+        private static <T> T proxy(Class<?> type, Object target, InvocationHandler handler) {
+            @SuppressWarnings("unchecked")
+            T proxy = (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (self, method, args) -> {
+                switch (method.getName()) {
+                    case "equals":
+                        return self == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    default:
+                        return handler.invoke(self, method, args);
+                }
+            });
+            return proxy;
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
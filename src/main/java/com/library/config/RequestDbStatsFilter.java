@@ -0,0 +1,125 @@
+package com.library.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Reports the database usage of each request, by method and route:
+// - http.server.requests.connection.hold / .connections: time connections were checked out
+//   of the pool, and how many
+// - with library.db-stats.enabled (off in prod): http.server.requests.db.statements and
+//   .db.time, the X-DB-Statements / X-DB-Time-Ms response headers, and a warning for requests
+//   over the statement or DB time threshold
+// Runs outermost so the security filters' lookups are included.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDbStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-DB-Statements";
+    public static final String DB_TIME_HEADER = "X-DB-Time-Ms";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestDbStatsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${library.db-stats.enabled:true}")
+    private boolean statementsEnabled;
+
+    @Value("${library.db-stats.warn-statements:20}")
+    private int warnStatements;
+
+    @Value("${library.db-stats.warn-db-time-ms:500}")
+    private long warnDbTimeMs;
+
+    public RequestDbStatsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestDbStats.Usage usage = RequestDbStats.begin(statementsEnabled);
+        HttpServletResponse target = response;
+        if (statementsEnabled) {
+            // Headers have to be in place before the body starts going out
+            target = new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    addHeaders(response, usage);
+                }
+            };
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            RequestDbStats.end();
+            if (statementsEnabled && !response.isCommitted()) {
+                addHeaders(response, usage);
+            }
+            record(request, usage);
+        }
+    }
+
+    private void addHeaders(HttpServletResponse response, RequestDbStats.Usage usage) {
+        response.setHeader(STATEMENTS_HEADER, Integer.toString(usage.getStatements()));
+        response.setHeader(DB_TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(usage.getStatementNanos())));
+    }
+
+    private void record(HttpServletRequest request, RequestDbStats.Usage usage) {
+        if (usage.getConnections() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        Timer.builder("http.server.requests.connection.hold")
+                .description("Time a request held JDBC connections checked out of the pool")
+                .tags("method", method, "uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(usage.getHoldNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("http.server.requests.connections")
+                .description("JDBC connections checked out per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(usage.getConnections());
+        if (!statementsEnabled) {
+            return;
+        }
+
+        DistributionSummary.builder("http.server.requests.db.statements")
+                .description("SQL statements executed per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(usage.getStatements());
+        Timer.builder("http.server.requests.db.time")
+                .description("Time a request spent executing SQL statements")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(usage.getStatementNanos(), TimeUnit.NANOSECONDS);
+
+        long dbTimeMs = TimeUnit.NANOSECONDS.toMillis(usage.getStatementNanos());
+        if (usage.getStatements() > warnStatements || dbTimeMs > warnDbTimeMs) {
+            logger.warn("{} {} ran {} SQL statements taking {} ms on {} connection(s)",
+                    method, request.getRequestURI(), usage.getStatements(), dbTimeMs, usage.getConnections());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.library.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -20,6 +21,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.library.security.JwtAuthenticationEntryPoint;
 import com.library.security.JwtAuthenticationFilter;
+import com.library.security.RateLimitFilter;
+import com.library.security.UserRateLimitFilter;
 
 import java.util.Arrays;
 
@@ -28,12 +31,21 @@ import java.util.Arrays;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    // The frontend itself (see FrontendConfig); it signs in through /api/auth
+    private static final String[] FRONTEND_PATHS = {"/", "/*.html", "/css/**", "/js/**"};
+
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private UserRateLimitFilter userRateLimitFilter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -74,8 +86,13 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/books/**").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers(HttpMethod.GET, FRONTEND_PATHS).permitAll()
+                .requestMatchers(HttpMethod.HEAD, FRONTEND_PATHS).permitAll()
                 .requestMatchers("/api/books/**").hasRole("LIBRARIAN")
                 .requestMatchers("/api/users/**").hasRole("LIBRARIAN")
+                .requestMatchers("/api/reports/**").hasRole("LIBRARIAN")
+                .requestMatchers("/api/purge-tasks/**").hasRole("LIBRARIAN")
+                .requestMatchers("/api/audit/**").hasRole("LIBRARIAN")
                 .requestMatchers("/api/transactions/**").hasAnyRole("LIBRARIAN", "MEMBER")
                 .anyRequest().authenticated()
             )
@@ -83,7 +100,26 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Cheap per-IP rejection before JWT parsing, per-user limits once the principal is known
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
+        http.addFilterAfter(userRateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
+
+    // The rate-limit filters belong in the security chain only; as @Components Boot would also
+    // register them as servlet filters
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<UserRateLimitFilter> userRateLimitFilterRegistration(UserRateLimitFilter filter) {
+        FilterRegistrationBean<UserRateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -0,0 +1,34 @@
+package com.library.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.model.AuditAction;
+import com.library.model.AuditRecord;
+import com.library.service.AuditLog;
+
+// Security audit trail (table sink); records show up once the audit writer has flushed them
+@RestController
+@RequestMapping("/api/audit")
+@CrossOrigin(origins = "*")
+public class AuditController {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    // Most recent records first, optionally of one action
+    @GetMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<List<AuditRecord>> getRecentRecords(@RequestParam(required = false) AuditAction action,
+                                                              @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(auditLog.getRecent(action, Math.max(1, Math.min(limit, 500))));
+    }
+}
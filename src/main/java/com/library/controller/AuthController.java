@@ -2,6 +2,7 @@ package com.library.controller;
 
 import com.library.dto.AuthResponse;
 import com.library.dto.LoginRequest;
+import com.library.dto.RefreshRequest;
 import com.library.dto.RegisterRequest;
 import com.library.service.AuthService;
 import jakarta.validation.Valid;
@@ -33,6 +34,21 @@ public class AuthController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
     
+    // New access token (and a new refresh token) for a refresh token; each refresh token works once
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+    
+    // Revoke the bearer access token and the given refresh token's family
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                       @RequestBody(required = false) RefreshRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+    
     // Test endpoint to verify authentication is working
     @GetMapping("/test")
     public ResponseEntity<String> test() {
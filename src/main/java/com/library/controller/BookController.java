@@ -1,6 +1,9 @@
 package com.library.controller;
 
+import java.net.URI;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -16,11 +19,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
+import com.library.dto.BookSuggestion;
+import com.library.dto.FacetedBrowseResponse;
+import com.library.dto.RelatedBook;
+import com.library.dto.TrendingBook;
+import com.library.exception.ResourceNotFoundException;
 import com.library.model.Book;
+import com.library.model.PurgeTask;
 import com.library.service.BookService;
+import com.library.service.BookSuggestService;
+import com.library.service.CatalogFacetService;
+import com.library.service.CatalogFacetService.Facet;
+import com.library.service.RelatedBooksService;
+import com.library.service.TrendingService;
 import jakarta.validation.Valid;
 
 @RestController
@@ -32,6 +47,18 @@ public class BookController {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private CatalogFacetService catalogFacetService;
+
+    @Autowired
+    private BookSuggestService bookSuggestService;
+
+    @Autowired
+    private RelatedBooksService relatedBooksService;
+
+    @Autowired
+    private TrendingService trendingService;
+
     //Create new Book
     @PostMapping
     @PreAuthorize("hasRole('LIBRARIAN')")
@@ -56,6 +83,7 @@ public class BookController {
     public ResponseEntity<?> getBookById(@PathVariable Long id){
         Optional<Book> book = bookService.getBookById(id);
         if (book.isPresent()){
+            trendingService.recordView(id);
             return new ResponseEntity<>(book.get(),HttpStatus.OK);
         }
         return new ResponseEntity<>("Book not found",HttpStatus.NOT_FOUND);
@@ -66,6 +94,7 @@ public class BookController {
     public ResponseEntity<?> getBookByIsbn(@PathVariable String isbn){
         Optional<Book> book = bookService.getBookByIsbn(isbn);
         if (book.isPresent()){
+            trendingService.recordView(book.get().getId());
             return new ResponseEntity<>(book.get(),HttpStatus.OK);
         }
         return new ResponseEntity<>("Book not found",HttpStatus.NOT_FOUND);
@@ -99,6 +128,51 @@ public class BookController {
         return new ResponseEntity<>(books, HttpStatus.OK);
     }
     
+    // Faceted browse: page of books plus counts per category, author, publisher, decade and availability
+    @GetMapping("/browse")
+    public ResponseEntity<FacetedBrowseResponse> browseBooks(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String publisher,
+            @RequestParam(required = false) String decade,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "10") int facetLimit) {
+        if (page < 0 || size < 1 || size > 100 || facetLimit < 1) {
+            throw new IllegalArgumentException("page must be >= 0, size between 1 and 100, facetLimit >= 1");
+        }
+        Map<Facet, String> filters = new EnumMap<>(Facet.class);
+        putIfPresent(filters, Facet.CATEGORY, category);
+        putIfPresent(filters, Facet.AUTHOR, author);
+        putIfPresent(filters, Facet.PUBLISHER, publisher);
+        putIfPresent(filters, Facet.DECADE, decade);
+        if (available != null) {
+            filters.put(Facet.AVAILABILITY, available ? CatalogFacetService.AVAILABLE : CatalogFacetService.UNAVAILABLE);
+        }
+        return ResponseEntity.ok(catalogFacetService.browse(filters, page, size, facetLimit));
+    }
+
+    // Type-ahead suggestions for the search box, ranked by popularity
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestion>> suggestBooks(@RequestParam("q") String query,
+                                                             @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(bookSuggestService.suggest(query, Math.max(1, Math.min(limit, BookSuggestService.MAX_LIMIT))));
+    }
+
+    // "Members also borrowed": titles most often borrowed by members who borrowed this one
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedBook>> getRelatedBooks(@PathVariable Long id,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(relatedBooksService.related(id, limit));
+    }
+
+    // Titles with the most borrows and detail views over the last week
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingBook>> getTrendingBooks(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.leaderboard(limit));
+    }
+
     //Update book
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('LIBRARIAN')")
@@ -111,16 +185,23 @@ public class BookController {
         }
     }
 
-    //Delete book
+    //Delete book; Location points at the purge of its copies
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('LIBRARIAN')")
     public ResponseEntity<?> deleteBook(@PathVariable Long id){
         try {
-            bookService.deleteBook(id);
-            return new ResponseEntity<>("book deleted successfully",HttpStatus.OK);
-        } catch (RuntimeException e) {
+            PurgeTask task = bookService.deleteBook(id);
+            return ResponseEntity.ok()
+                    .location(URI.create("/api/purge-tasks/" + task.getId()))
+                    .body("book deleted successfully");
+        } catch (ResourceNotFoundException e) {
             return new ResponseEntity<>(e.getMessage(),HttpStatus.NOT_FOUND);
         }
     }
 
+    private static void putIfPresent(Map<Facet, String> filters, Facet facet, String value) {
+        if (value != null && !value.isBlank()) {
+            filters.put(facet, value);
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package com.library.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.model.BookCopy;
+import com.library.model.CopyStatus;
+import com.library.service.CopyInventoryService;
+
+@RestController
+@RequestMapping("/api/copies")
+@CrossOrigin(origins = "*")
+public class CopyController {
+
+    @Autowired
+    private CopyInventoryService copyInventoryService;
+
+    // Look up a scanned copy - LIBRARIAN only
+    @GetMapping("/{barcode}")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<BookCopy> getCopy(@PathVariable String barcode) {
+        return ResponseEntity.ok(copyInventoryService.getByBarcode(barcode));
+    }
+
+    // All copies of a title - LIBRARIAN only
+    @GetMapping("/book/{bookId}")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<List<BookCopy>> getCopies(@PathVariable Long bookId) {
+        return ResponseEntity.ok(copyInventoryService.getCopies(bookId));
+    }
+
+    // Add a copy; a barcode is generated when none is given - LIBRARIAN only
+    @PostMapping("/book/{bookId}")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<BookCopy> addCopy(@PathVariable Long bookId,
+                                            @RequestParam(required = false) String barcode,
+                                            @RequestParam(required = false) String location) {
+        return new ResponseEntity<>(copyInventoryService.addCopy(bookId, barcode, location), HttpStatus.CREATED);
+    }
+
+    // Mark a copy LOST, WITHDRAWN or AVAILABLE again - LIBRARIAN only
+    @PutMapping("/{barcode}/status")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<BookCopy> updateStatus(@PathVariable String barcode, @RequestParam CopyStatus status) {
+        return ResponseEntity.ok(copyInventoryService.updateStatus(barcode, status));
+    }
+}
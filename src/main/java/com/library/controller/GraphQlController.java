@@ -0,0 +1,115 @@
+package com.library.controller;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+
+import com.library.model.Book;
+import com.library.model.Transaction;
+import com.library.model.TransactionStatus;
+import com.library.model.User;
+import com.library.service.BookService;
+import com.library.service.TransactionService;
+import com.library.service.UserService;
+
+import reactor.core.publisher.Mono;
+
+// GraphQL read API (schema in resources/graphql/schema.graphqls).
+//
+// Transaction.book and Transaction.user go through per-request data loaders: the ids asked
+// for while resolving one level of the query are loaded with a single IN query per type, and
+// an id already loaded in the request is served from the loader's cache.
+@Controller
+public class GraphQlController {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    public GraphQlController(BatchLoaderRegistry registry) {
+        registry.forTypePair(Long.class, Book.class)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() -> booksById(ids)));
+        registry.forTypePair(Long.class, User.class)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() -> usersById(ids)));
+    }
+
+    @QueryMapping
+    public List<Book> books() {
+        return bookService.getAllBooks();
+    }
+
+    @QueryMapping
+    public Book book(@Argument Long id) {
+        return bookService.getBookById(id).orElse(null);
+    }
+
+    @QueryMapping
+    public long bookCount() {
+        return bookService.countBooks();
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public List<User> users() {
+        return userService.getAllUsers();
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public long userCount() {
+        return userService.countUsers();
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public Map<String, Long> loanCounts() {
+        return Map.of("active", transactionService.countActiveLoans(),
+                      "overdue", transactionService.countOverdueLoans());
+    }
+
+    @QueryMapping
+    @PreAuthorize("hasRole('LIBRARIAN') or (hasRole('MEMBER') and #userId != null and #userId == authentication.principal.id)")
+    public List<Transaction> transactions(@Argument Long userId, @Argument TransactionStatus status,
+                                          @Argument Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        return transactionService.searchTransactions(userId, status, limit);
+    }
+
+    // The lazy proxies only hand out their ids here; the loaders fetch the rows
+    @SchemaMapping(typeName = "Transaction")
+    public CompletableFuture<Book> book(Transaction transaction, DataLoader<Long, Book> loader) {
+        return loader.load(transaction.getBook().getId());
+    }
+
+    @SchemaMapping(typeName = "Transaction")
+    public CompletableFuture<User> user(Transaction transaction, DataLoader<Long, User> loader) {
+        return loader.load(transaction.getUser().getId());
+    }
+
+    private Map<Long, Book> booksById(Collection<Long> ids) {
+        return bookService.getBooksByIds(ids).stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    private Map<Long, User> usersById(Collection<Long> ids) {
+        return userService.getUsersByIds(ids).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+}
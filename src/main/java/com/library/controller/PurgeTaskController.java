@@ -0,0 +1,46 @@
+package com.library.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.model.PurgeTask;
+import com.library.service.PurgeService;
+
+// Progress of the background purges queued by book and member deletion
+@RestController
+@RequestMapping("/api/purge-tasks")
+@CrossOrigin(origins = "*")
+public class PurgeTaskController {
+
+    @Autowired
+    private PurgeService purgeService;
+
+    // The 50 most recent tasks, newest first
+    @GetMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<List<PurgeTask>> getRecentTasks() {
+        return ResponseEntity.ok(purgeService.getRecentTasks());
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<PurgeTask> getTask(@PathVariable Long id) {
+        return ResponseEntity.ok(purgeService.getTask(id));
+    }
+
+    // Resume a FAILED task from the phase it stopped in
+    @PostMapping("/{id}/retry")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<PurgeTask> retryTask(@PathVariable Long id) {
+        return ResponseEntity.ok(purgeService.retry(id));
+    }
+}
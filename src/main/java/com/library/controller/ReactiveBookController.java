@@ -0,0 +1,80 @@
+package com.library.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.model.CatalogBook;
+import com.library.service.ReactiveCatalogService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking versions of the BookController reads (library.reactive-catalog.enabled).
+// Lists stream as newline-delimited JSON, one book per line, as the rows arrive; the servlet
+// thread is released while the query runs and the next row is only requested once the
+// previous one has been written.
+@RestController
+@RequestMapping("/api/books/reactive")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "library.reactive-catalog.enabled", havingValue = "true")
+public class ReactiveBookController {
+
+    @Autowired
+    private ReactiveCatalogService reactiveCatalogService;
+
+    //Get all books
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CatalogBook> getAllBooks() {
+        return reactiveCatalogService.getAllBooks();
+    }
+
+    //Get Book by ID
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getBookById(@PathVariable Long id) {
+        return found(reactiveCatalogService.getBookById(id));
+    }
+
+    //Get Book by ISBN
+    @GetMapping("/isbn/{isbn}")
+    public Mono<ResponseEntity<?>> getBookByIsbn(@PathVariable String isbn) {
+        return found(reactiveCatalogService.getBookByIsbn(isbn));
+    }
+
+    //get books by title
+    @GetMapping(value = "/title/{title}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CatalogBook> getBooksByTitle(@PathVariable String title) {
+        return reactiveCatalogService.getBooksByTitle(title);
+    }
+
+    //get books by author
+    @GetMapping(value = "/author/{author}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CatalogBook> getBooksByAuthor(@PathVariable String author) {
+        return reactiveCatalogService.getBooksByAuthor(author);
+    }
+
+    // Get books by category
+    @GetMapping(value = "/category/{category}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CatalogBook> getBooksByCategory(@PathVariable String category) {
+        return reactiveCatalogService.getBooksByCategory(category);
+    }
+
+    // Get available books only
+    @GetMapping(value = "/available", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CatalogBook> getAvailableBooks() {
+        return reactiveCatalogService.getAvailableBooks();
+    }
+
+    // Same 404 body as BookController
+    private Mono<ResponseEntity<?>> found(Mono<CatalogBook> book) {
+        return book.<ResponseEntity<?>>map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>("Book not found", HttpStatus.NOT_FOUND));
+    }
+}
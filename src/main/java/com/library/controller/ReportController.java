@@ -0,0 +1,34 @@
+package com.library.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.library.dto.CirculationReport;
+import com.library.service.CirculationRollupService;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private CirculationRollupService circulationRollupService;
+
+    // Borrows, returns and fines between two dates (inclusive), summed from the daily rollups
+    @GetMapping("/circulation")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<CirculationReport> getCirculationReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(circulationRollupService.report(from, to));
+    }
+}
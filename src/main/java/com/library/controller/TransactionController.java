@@ -14,7 +14,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.library.model.MemberLoanStats;
 import com.library.model.Transaction;
+import com.library.service.MemberLoanService;
 import com.library.service.TransactionService;
 
 @RestController
@@ -24,6 +26,9 @@ public class TransactionController {
     
     @Autowired
     private TransactionService transactionService;
+
+    @Autowired
+    private MemberLoanService memberLoanService;
     
     // Both LIBRARIAN and MEMBER can borrow books
     @PostMapping("/borrow")
@@ -41,6 +46,22 @@ public class TransactionController {
         return ResponseEntity.ok(transaction);
     }
     
+    // Desk checkout by copy barcode - LIBRARIAN only
+    @PostMapping("/borrow/scan")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<Transaction> borrowByBarcode(@RequestParam Long userId, @RequestParam String barcode) {
+        Transaction transaction = transactionService.borrowByBarcode(userId, barcode);
+        return new ResponseEntity<>(transaction, HttpStatus.CREATED);
+    }
+    
+    // Desk check-in by copy barcode - LIBRARIAN only
+    @PostMapping("/return/scan")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<Transaction> returnByBarcode(@RequestParam String barcode) {
+        Transaction transaction = transactionService.returnByBarcode(barcode);
+        return ResponseEntity.ok(transaction);
+    }
+    
     // Only LIBRARIAN can view all transactions
     @GetMapping
     @PreAuthorize("hasRole('LIBRARIAN')")
@@ -57,6 +78,20 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
     
+    // Loan counters and unpaid fines - LIBRARIAN for anyone, MEMBER for themselves
+    @GetMapping("/user/{userId}/loan-status")
+    @PreAuthorize("hasRole('LIBRARIAN') or (hasRole('MEMBER') and #userId == authentication.principal.id)")
+    public ResponseEntity<MemberLoanStats> getLoanStatus(@PathVariable Long userId) {
+        return ResponseEntity.ok(memberLoanService.getStats(userId));
+    }
+    
+    // Record a fine payment - LIBRARIAN only
+    @PostMapping("/user/{userId}/fines/settle")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<MemberLoanStats> settleFines(@PathVariable Long userId, @RequestParam double amount) {
+        return ResponseEntity.ok(memberLoanService.settleFines(userId, amount));
+    }
+    
     // Get book's transaction history - LIBRARIAN only
     @GetMapping("/book/{bookId}")
     @PreAuthorize("hasRole('LIBRARIAN')")
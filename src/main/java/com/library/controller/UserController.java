@@ -1,6 +1,8 @@
 package com.library.controller;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,8 +20,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.library.dto.UserDirectoryPage;
 import com.library.exception.ResourceNotFoundException;
+import com.library.model.AuditAction;
+import com.library.model.PurgeTask;
 import com.library.model.User;
+import com.library.model.UserDirectorySort;
+import com.library.service.AuditLog;
 import com.library.service.UserService;
 import com.library.model.Role;
 import jakarta.validation.Valid;
@@ -32,6 +39,9 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private AuditLog auditLog;
+    
     // Only LIBRARIAN can view all users
     @GetMapping
     @PreAuthorize("hasRole('LIBRARIAN')")
@@ -40,6 +50,30 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
     
+    // Directory for LIBRARIAN: prefix search over username, full name and email, role and
+    // on-loan filters, keyset paging (pass the previous page's nextCursor as "after")
+    @GetMapping("/directory")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<UserDirectoryPage> getUserDirectory(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<Role> role,
+            @RequestParam(defaultValue = "false") boolean withLoans,
+            @RequestParam(defaultValue = "FULL_NAME") UserDirectorySort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > 100) {
+            throw new IllegalArgumentException("size must be between 1 and 100");
+        }
+        return ResponseEntity.ok(userService.getDirectory(q, role, withLoans, sort, after, size));
+    }
+
+    // Members per role, for the directory header
+    @GetMapping("/directory/counts")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    public ResponseEntity<Map<Role, Long>> getUserCounts() {
+        return ResponseEntity.ok(userService.countUsersByRole());
+    }
+    
     // LIBRARIAN can view any user, MEMBER can only view their own profile
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('LIBRARIAN') or (hasRole('MEMBER') and #id == authentication.principal.id)")
@@ -73,8 +107,8 @@ public class UserController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('LIBRARIAN')")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+        PurgeTask task = userService.deleteUser(id);
+        return ResponseEntity.noContent().location(URI.create("/api/purge-tasks/" + task.getId())).build();
     }
     
     // Search users by username (LIBRARIAN only)
@@ -107,9 +141,11 @@ public class UserController {
             }
             
             User user = userOptional.get();
+            Role previousRole = user.getRole();
             user.setRole(Role.valueOf(role)); // Use Role directly, not User.Role
             
             User updatedUser = userService.updateUser(id, user);
+            auditLog.record(AuditAction.ROLE_CHANGED, id, null, previousRole + " -> " + role);
             return ResponseEntity.ok(updatedUser);
             
         } catch (Exception e) {
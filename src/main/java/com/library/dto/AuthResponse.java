@@ -6,6 +6,9 @@ public class AuthResponse {
     
     private String token;
     private String type = "Bearer";
+    // Seconds until the access token expires; use the refresh token for a new pair before then
+    private long expiresIn;
+    private String refreshToken;
     private String username;
     private String fullName;
     private String email;
@@ -29,6 +32,12 @@ public class AuthResponse {
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
     
+    public long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(long expiresIn) { this.expiresIn = expiresIn; }
+    
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
     
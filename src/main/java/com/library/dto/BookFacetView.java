@@ -0,0 +1,28 @@
+package com.library.dto;
+
+// Just the columns the facet index needs (JPQL constructor expression, no proxy per row)
+public class BookFacetView {
+    private final Long id;
+    private final String category;
+    private final String author;
+    private final String publisher;
+    private final Integer publicationYear;
+    private final Integer availableCopies;
+
+    public BookFacetView(Long id, String category, String author, String publisher,
+                         Integer publicationYear, Integer availableCopies) {
+        this.id = id;
+        this.category = category;
+        this.author = author;
+        this.publisher = publisher;
+        this.publicationYear = publicationYear;
+        this.availableCopies = availableCopies;
+    }
+
+    public Long getId() { return id; }
+    public String getCategory() { return category; }
+    public String getAuthor() { return author; }
+    public String getPublisher() { return publisher; }
+    public Integer getPublicationYear() { return publicationYear; }
+    public Integer getAvailableCopies() { return availableCopies; }
+}
@@ -0,0 +1,18 @@
+package com.library.dto;
+
+// Just the columns the suggest index needs (JPQL constructor expression, no proxy per row)
+public class BookSuggestView {
+    private final Long id;
+    private final String title;
+    private final String author;
+
+    public BookSuggestView(Long id, String title, String author) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getAuthor() { return author; }
+}
@@ -0,0 +1,30 @@
+package com.library.dto;
+
+public class BookSuggestion {
+    private String text;
+    private String type; // "title" or "author"
+    private Long bookId;
+    private int popularity;
+
+    public BookSuggestion() {}
+
+    public BookSuggestion(String text, String type, Long bookId, int popularity) {
+        this.text = text;
+        this.type = type;
+        this.bookId = bookId;
+        this.popularity = popularity;
+    }
+
+    // Getters and Setters
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public int getPopularity() { return popularity; }
+    public void setPopularity(int popularity) { this.popularity = popularity; }
+}
@@ -0,0 +1,40 @@
+package com.library.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Circulation over a date range: totals, per category (busiest first) and per day
+public class CirculationReport {
+    private LocalDate from;
+    private LocalDate to;
+    private CirculationSummary total;
+    private List<CirculationSummary> byCategory;
+    private List<CirculationSummary> byDay; // days with activity, in date order
+
+    public CirculationReport() {}
+
+    public CirculationReport(LocalDate from, LocalDate to, CirculationSummary total,
+                             List<CirculationSummary> byCategory, List<CirculationSummary> byDay) {
+        this.from = from;
+        this.to = to;
+        this.total = total;
+        this.byCategory = byCategory;
+        this.byDay = byDay;
+    }
+
+    // Getters and Setters
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+
+    public CirculationSummary getTotal() { return total; }
+    public void setTotal(CirculationSummary total) { this.total = total; }
+
+    public List<CirculationSummary> getByCategory() { return byCategory; }
+    public void setByCategory(List<CirculationSummary> byCategory) { this.byCategory = byCategory; }
+
+    public List<CirculationSummary> getByDay() { return byDay; }
+    public void setByDay(List<CirculationSummary> byDay) { this.byDay = byDay; }
+}
@@ -0,0 +1,34 @@
+package com.library.dto;
+
+// Circulation totals for one category, one day, or a whole report range
+public class CirculationSummary {
+    private String label;
+    private long borrows;
+    private long returns;
+    private double fines; // charged on returns
+
+    public CirculationSummary() {}
+
+    public CirculationSummary(String label) {
+        this.label = label;
+    }
+
+    public void add(long borrows, long returns, double fines) {
+        this.borrows += borrows;
+        this.returns += returns;
+        this.fines += fines;
+    }
+
+    // Getters and Setters
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public long getBorrows() { return borrows; }
+    public void setBorrows(long borrows) { this.borrows = borrows; }
+
+    public long getReturns() { return returns; }
+    public void setReturns(long returns) { this.returns = returns; }
+
+    public double getFines() { return fines; }
+    public void setFines(double fines) { this.fines = fines; }
+}
@@ -0,0 +1,41 @@
+package com.library.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.library.model.Book;
+
+public class FacetedBrowseResponse {
+    private List<Book> books;
+    private long totalElements;
+    private int page;
+    private int size;
+    private Map<String, List<FacetCount>> facets;
+
+    public FacetedBrowseResponse() {}
+
+    public FacetedBrowseResponse(List<Book> books, long totalElements, int page, int size,
+                                 Map<String, List<FacetCount>> facets) {
+        this.books = books;
+        this.totalElements = totalElements;
+        this.page = page;
+        this.size = size;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<Book> getBooks() { return books; }
+    public void setBooks(List<Book> books) { this.books = books; }
+
+    public long getTotalElements() { return totalElements; }
+    public void setTotalElements(long totalElements) { this.totalElements = totalElements; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public Map<String, List<FacetCount>> getFacets() { return facets; }
+    public void setFacets(Map<String, List<FacetCount>> facets) { this.facets = facets; }
+}
@@ -0,0 +1,30 @@
+package com.library.dto;
+
+import java.time.LocalDateTime;
+
+// An active loan with the member and title needed to render a reminder (JPQL constructor expression)
+public class LoanDueView {
+    private final Long transactionId;
+    private final LocalDateTime dueDate;
+    private final Long userId;
+    private final String email;
+    private final String fullName;
+    private final String bookTitle;
+
+    public LoanDueView(Long transactionId, LocalDateTime dueDate, Long userId, String email,
+                       String fullName, String bookTitle) {
+        this.transactionId = transactionId;
+        this.dueDate = dueDate;
+        this.userId = userId;
+        this.email = email;
+        this.fullName = fullName;
+        this.bookTitle = bookTitle;
+    }
+
+    public Long getTransactionId() { return transactionId; }
+    public LocalDateTime getDueDate() { return dueDate; }
+    public Long getUserId() { return userId; }
+    public String getEmail() { return email; }
+    public String getFullName() { return fullName; }
+    public String getBookTitle() { return bookTitle; }
+}
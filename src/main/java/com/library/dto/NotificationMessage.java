@@ -0,0 +1,25 @@
+package com.library.dto;
+
+public class NotificationMessage {
+    private String to;
+    private String subject;
+    private String body;
+
+    public NotificationMessage() {}
+
+    public NotificationMessage(String to, String subject, String body) {
+        this.to = to;
+        this.subject = subject;
+        this.body = body;
+    }
+
+    // Getters and Setters
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+}
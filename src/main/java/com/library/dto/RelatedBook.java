@@ -0,0 +1,31 @@
+package com.library.dto;
+
+// A title borrowed by members who also borrowed the requested one
+public class RelatedBook {
+    private Long bookId;
+    private String title;
+    private String author;
+    private int coBorrowers; // members who borrowed both titles
+
+    public RelatedBook() {}
+
+    public RelatedBook(Long bookId, String title, String author, int coBorrowers) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.coBorrowers = coBorrowers;
+    }
+
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public int getCoBorrowers() { return coBorrowers; }
+    public void setCoBorrowers(int coBorrowers) { this.coBorrowers = coBorrowers; }
+}
@@ -0,0 +1,31 @@
+package com.library.dto;
+
+// A leaderboard entry: weighted borrows and detail views over the trending window
+public class TrendingBook {
+    private Long bookId;
+    private String title;
+    private String author;
+    private int score; // count-min estimate, may slightly overcount
+
+    public TrendingBook() {}
+
+    public TrendingBook(Long bookId, String title, String author, int score) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public int getScore() { return score; }
+    public void setScore(int score) { this.score = score; }
+}
@@ -0,0 +1,28 @@
+package com.library.dto;
+
+import java.util.List;
+
+// A page of the user directory; pass nextCursor back as "after" for the following page
+public class UserDirectoryPage {
+    private List<UserSummary> users;
+    private String nextCursor;
+    private int size;
+
+    public UserDirectoryPage() {}
+
+    public UserDirectoryPage(List<UserSummary> users, String nextCursor, int size) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+        this.size = size;
+    }
+
+    // Getters and Setters
+    public List<UserSummary> getUsers() { return users; }
+    public void setUsers(List<UserSummary> users) { this.users = users; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
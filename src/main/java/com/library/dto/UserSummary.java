@@ -0,0 +1,54 @@
+package com.library.dto;
+
+import com.library.model.Role;
+
+// One line of the user directory: contact details and loan count, no credentials
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String email;
+    private String phoneNumber;
+    private Role role;
+    private boolean enabled;
+    private int activeLoans;
+
+    public UserSummary() {}
+
+    public UserSummary(Long id, String username, String fullName, String email, String phoneNumber,
+                       Role role, boolean enabled, int activeLoans) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.email = email;
+        this.phoneNumber = phoneNumber;
+        this.role = role;
+        this.enabled = enabled;
+        this.activeLoans = activeLoans;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+    public Role getRole() { return role; }
+    public void setRole(Role role) { this.role = role; }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getActiveLoans() { return activeLoans; }
+    public void setActiveLoans(int activeLoans) { this.activeLoans = activeLoans; }
+}
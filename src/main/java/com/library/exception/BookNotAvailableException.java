@@ -1,6 +1,6 @@
 package com.library.exception;
 
-public class BookNotAvailableException extends RuntimeException {
+public class BookNotAvailableException extends LibraryException {
     public BookNotAvailableException(String message){
         super(message);
     }
@@ -0,0 +1,77 @@
+package com.library.exception;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.springframework.http.HttpStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Counts every error response by exception type and status (library.errors) but logs expected
+// client errors sparingly: the first few of each type per minute, then one line with how many
+// were left out. A 404 flood costs a counter increment per request instead of a log write.
+class ClientErrorLog {
+
+    private static final long WINDOW_MS = 60_000;
+
+    private final Logger logger;
+    private final MeterRegistry meterRegistry;
+    private final int perMinute;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    ClientErrorLog(Logger logger, MeterRegistry meterRegistry, int perMinute) {
+        this.logger = logger;
+        this.meterRegistry = meterRegistry;
+        this.perMinute = perMinute;
+    }
+
+    void count(HttpStatus status, Throwable ex) {
+        String type = ex.getClass().getSimpleName();
+        counters.computeIfAbsent(type + "|" + status.value(), key -> Counter.builder("library.errors")
+                .tag("type", type)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)).increment();
+    }
+
+    // Count and, unless this type has used up its lines for the minute, log at INFO
+    void record(HttpStatus status, Throwable ex, String path) {
+        count(status, ex);
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        String type = ex.getClass().getSimpleName();
+        Window window = windows.computeIfAbsent(type, key -> new Window());
+        long suppressed;
+        synchronized (window) {
+            long now = System.currentTimeMillis();
+            if (now - window.startedAt >= WINDOW_MS) {
+                suppressed = window.suppressed;
+                window.startedAt = now;
+                window.logged = 0;
+                window.suppressed = 0;
+            } else {
+                suppressed = 0;
+            }
+            if (window.logged >= perMinute) {
+                window.suppressed++;
+                return;
+            }
+            window.logged++;
+        }
+        if (suppressed > 0) {
+            logger.info("{} {} on {}: {} ({} more in the last minute not logged)",
+                    status.value(), type, path, ex.getMessage(), suppressed);
+        } else {
+            logger.info("{} {} on {}: {}", status.value(), type, path, ex.getMessage());
+        }
+    }
+
+    private static class Window {
+        long startedAt = System.currentTimeMillis();
+        int logged;
+        long suppressed;
+    }
+}
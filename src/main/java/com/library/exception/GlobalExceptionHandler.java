@@ -3,8 +3,10 @@ package com.library.exception;
 
 import com.library.dto.ErrorResponse;
 import com.library.dto.ValidationError;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -13,85 +15,90 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.ArrayList;
 import java.util.List;
+
+// Expected client errors (unknown ids, unavailable titles, bad input, failed logins) are counted
+// and logged at INFO through a per-type rate limit; ERROR with a stack trace is kept for faults.
 @RestControllerAdvice
 public class GlobalExceptionHandler {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Status, title and (for responses that never vary) message of each kind of error response
+    private static final ErrorTemplate NOT_FOUND = new ErrorTemplate(HttpStatus.NOT_FOUND, "Not Found", null);
+    private static final ErrorTemplate CONFLICT = new ErrorTemplate(HttpStatus.CONFLICT, "Conflict", null);
+    private static final ErrorTemplate BAD_REQUEST = new ErrorTemplate(HttpStatus.BAD_REQUEST, "Bad Request", null);
+    private static final ErrorTemplate VALIDATION_FAILED =
+            new ErrorTemplate(HttpStatus.BAD_REQUEST, "validation Failed", "Invalid input provided");
+    private static final ErrorTemplate UNAUTHORIZED = new ErrorTemplate(HttpStatus.UNAUTHORIZED, "Unauthorized", null);
+    private static final ErrorTemplate BAD_LOGIN =
+            new ErrorTemplate(HttpStatus.UNAUTHORIZED, "Unauthorized", "Invalid username or password");
+    private static final ErrorTemplate RUNTIME_FAULT =
+            new ErrorTemplate(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", null);
+    private static final ErrorTemplate UNEXPECTED_FAULT = new ErrorTemplate(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Internal Server Error", "An unexpected error occurred. Please contact support.");
+
+    private final ClientErrorLog clientErrorLog;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry,
+                                  @Value("${library.errors.log-per-minute:10}") int logPerMinute) {
+        this.clientErrorLog = new ClientErrorLog(logger, meterRegistry, logPerMinute);
+    }
+
     //Handle resource not found exception
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
         ResourceNotFoundException ex , WebRequest request){
-        logger.error("Resource not Found : {}", ex.getMessage());
-
-        ErrorResponse errorResponse = new ErrorResponse(
-            HttpStatus.NOT_FOUND.value(),
-            "Not Found",
-            ex.getMessage(),
-            request.getDescription(false).replace("uri=","")
-        );
-        return new ResponseEntity<>(errorResponse,HttpStatus.NOT_FOUND);
+        return clientError(NOT_FOUND, ex, request);
     }
 
     //HAndle resource already exists exception
     @ExceptionHandler(ResourceAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleResourceAlreadyExistsException(
         ResourceAlreadyExistsException ex, WebRequest request){
-            logger.error("Resource already exists:{}",ex.getMessage());
-            ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.CONFLICT.value(),
-                "Conflict",
-                ex.getMessage(),
-                request.getDescription(false).replace("url=","")
-            );
-            return new ResponseEntity<>(errorResponse,HttpStatus.CONFLICT);
+            return clientError(CONFLICT, ex, request);
         }
 
     // Handle Book not available Exception
     @ExceptionHandler(BookNotAvailableException.class)
     public ResponseEntity<ErrorResponse> handleBookNotAvailableException(
         BookNotAvailableException ex,WebRequest request){
-            logger.error("Book Not available",ex.getMessage());
-            ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
-                "Bad Request",
-                ex.getMessage(),
-                request.getDescription(false).replace("url=","")
-            );
-            return new ResponseEntity<>(errorResponse,HttpStatus.BAD_REQUEST);
+            return clientError(BAD_REQUEST, ex, request);
+        }
+
+    // Handle borrowing limit / fine block
+    @ExceptionHandler(BorrowingLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleBorrowingLimitExceededException(
+        BorrowingLimitExceededException ex, WebRequest request){
+            return clientError(CONFLICT, ex, request);
         }
-    
+
     //Handle Transaction Not found exception
     @ExceptionHandler(TransactionNotAvailableException.class)
     public ResponseEntity<ErrorResponse> handleTransactionNotAvailableException(
-        TransactionNotAvailableException ex, WebRequest request){   
-            logger.error("Transaction not available", ex.getMessage());
-
-            ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.NOT_FOUND.value(),
-                "Not Found",
-                ex.getMessage(),
-                request.getDescription(false).replace("url=","")
-                );
-            return new ResponseEntity<>(errorResponse,HttpStatus.NOT_FOUND);
+        TransactionNotAvailableException ex, WebRequest request){
+            return clientError(NOT_FOUND, ex, request);
+        }
+
+    // Handle an unknown, expired, revoked or reused refresh token
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTokenException(
+        InvalidTokenException ex, WebRequest request){
+            return clientError(UNAUTHORIZED, ex, request);
         }
 
     //handle validation errors
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleArgumentNotValidExceptions(
         MethodArgumentNotValidException ex, WebRequest request){
-            logger.error("Validation failed {}",ex.getMessage());
-
-            ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
-                "validation Failed",
-                "Invalid input provided",
-                request.getDescription(false).replace("url=","")
-            );
+            String path = path(request);
+            clientErrorLog.record(HttpStatus.BAD_REQUEST, ex, path);
+
+            ErrorResponse errorResponse = VALIDATION_FAILED.response(null, path);
             List<ValidationError> validationErrors = new ArrayList<>();
             ex.getBindingResult().getAllErrors().forEach((error)-> {
                 String fieldName = ((FieldError) error).getField();
@@ -103,90 +110,73 @@ public class GlobalExceptionHandler {
 
             return new ResponseEntity<>(errorResponse,HttpStatus.BAD_REQUEST);
         }
-    
+
     // Handle IllegalArgumentException
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
             IllegalArgumentException ex, WebRequest request) {
-        
-        logger.error("Illegal argument: {}", ex.getMessage());
-        
-        ErrorResponse errorResponse = new ErrorResponse(
-            HttpStatus.BAD_REQUEST.value(),
-            "Bad Request",
-            ex.getMessage(),
-            request.getDescription(false).replace("uri=", "")
-        );
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return clientError(BAD_REQUEST, ex, request);
     }
-    
+
     // Handle Generic Runtime Exception
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(
             RuntimeException ex, WebRequest request) {
-        
+
         logger.error("Runtime exception occurred: {}", ex.getMessage(), ex);
-        
-        ErrorResponse errorResponse = new ErrorResponse(
-            HttpStatus.INTERNAL_SERVER_ERROR.value(),
-            "Internal Server Error",
-            "An unexpected error occurred: " + ex.getMessage(),
-            request.getDescription(false).replace("uri=", "")
-        );
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        clientErrorLog.count(HttpStatus.INTERNAL_SERVER_ERROR, ex);
+
+        return RUNTIME_FAULT.respond("An unexpected error occurred: " + ex.getMessage(), path(request));
     }
-    
+
     // Handle Generic Exception (catch-all)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, WebRequest request) {
-        
+
         logger.error("Unexpected exception occurred: {}", ex.getMessage(), ex);
-        
-        ErrorResponse errorResponse = new ErrorResponse(
-            HttpStatus.INTERNAL_SERVER_ERROR.value(),
-            "Internal Server Error",
-            "An unexpected error occurred. Please contact support.",
-            request.getDescription(false).replace("uri=", "")
-        );
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+        clientErrorLog.count(HttpStatus.INTERNAL_SERVER_ERROR, ex);
+
+        return UNEXPECTED_FAULT.respond(null, path(request));
     }
-    
+
     // Handle Bad Credentials (wrong password)
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ErrorResponse> handleBadCredentialsException(
             BadCredentialsException ex, WebRequest request) {
-        
-        logger.error("Authentication failed: {}", ex.getMessage());
-        
-        ErrorResponse errorResponse = new ErrorResponse(
-            HttpStatus.UNAUTHORIZED.value(),
-            "Unauthorized",
-            "Invalid username or password",
-            request.getDescription(false).replace("uri=", "")
-        );
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+        return clientError(BAD_LOGIN, ex, request);
     }
-    
+
     // Handle Username Not Found
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUsernameNotFoundException(
             UsernameNotFoundException ex, WebRequest request) {
-        
-        logger.error("User not found: {}", ex.getMessage());
-        
-        ErrorResponse errorResponse = new ErrorResponse(
-            HttpStatus.UNAUTHORIZED.value(),
-            "Unauthorized",
-            "Invalid username or password",
-            request.getDescription(false).replace("uri=", "")
-        );
-        
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+        return clientError(BAD_LOGIN, ex, request);
+    }
+
+    private ResponseEntity<ErrorResponse> clientError(ErrorTemplate template, Exception ex, WebRequest request) {
+        String path = path(request);
+        clientErrorLog.record(template.status(), ex, path);
+        return template.respond(ex.getMessage(), path);
     }
-}
 
+    // The request URI, without building the "uri=...;client=..." description string
+    private static String path(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
+
+    // A fixed message, when set, replaces the exception's
+    private record ErrorTemplate(HttpStatus status, String error, String message) {
+
+        ErrorResponse response(String detail, String path) {
+            return new ErrorResponse(status.value(), error, message != null ? message : detail, path);
+        }
+
+        ResponseEntity<ErrorResponse> respond(String detail, String path) {
+            return new ResponseEntity<>(response(detail, path), status);
+        }
+    }
+}
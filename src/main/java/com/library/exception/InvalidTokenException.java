@@ -0,0 +1,7 @@
+package com.library.exception;
+
+public class InvalidTokenException extends LibraryException {
+    public InvalidTokenException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.library.exception;
+
+// Base for the exceptions that report an expected outcome to the client: an unknown id, a title
+// with no copy on the shelf, a borrowing limit. They are thrown on ordinary request paths, often
+// in floods (bots probing ids), so they skip the stack trace - the message says all there is.
+public abstract class LibraryException extends RuntimeException {
+
+    protected LibraryException(String message) {
+        super(message, null, false, false);
+    }
+}
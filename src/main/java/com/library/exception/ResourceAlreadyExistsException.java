@@ -1,6 +1,6 @@
 package com.library.exception;
 
-public class ResourceAlreadyExistsException  extends RuntimeException{
+public class ResourceAlreadyExistsException extends LibraryException {
     public ResourceAlreadyExistsException(String message){
         super(message);
     }
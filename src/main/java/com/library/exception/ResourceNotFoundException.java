@@ -1,6 +1,6 @@
 package com.library.exception;
 
-public class ResourceNotFoundException extends RuntimeException{
+public class ResourceNotFoundException extends LibraryException {
     public ResourceNotFoundException(String message){
         super(message);
     }
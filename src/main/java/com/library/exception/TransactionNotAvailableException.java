@@ -1,6 +1,6 @@
 package com.library.exception;
 
-public class TransactionNotAvailableException extends RuntimeException{
+public class TransactionNotAvailableException extends LibraryException {
     public TransactionNotAvailableException(String message){
         super(message);
     }
@@ -0,0 +1,12 @@
+package com.library.model;
+
+public enum AuditAction {
+    LOGIN,
+    LOGIN_FAILED,
+    LOGOUT,
+    // A used refresh token came back: its family is revoked
+    REFRESH_TOKEN_REUSED,
+    ROLE_CHANGED,
+    BOOK_BORROWED,
+    BOOK_RETURNED
+}
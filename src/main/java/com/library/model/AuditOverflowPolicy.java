@@ -0,0 +1,9 @@
+package com.library.model;
+
+// What publishing an audit record does when the buffer is full
+public enum AuditOverflowPolicy {
+    // Drop the new record and count it
+    DROP,
+    // Wait up to library.audit.block-timeout-ms for the writer, then drop
+    BLOCK
+}
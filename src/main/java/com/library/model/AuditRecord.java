@@ -0,0 +1,80 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One security-relevant action. Append-only: rows are inserted in batches by the audit writer
+// (see AuditLog) and never updated.
+@Entity
+@Table(name = "audit_log", indexes = {
+    @Index(name = "idx_audit_log_occurred", columnList = "occurred_at")
+})
+public class AuditRecord {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditAction action;
+    
+    // Who did it: the signed-in username, or the name tried at login
+    @Column(length = 100)
+    private String actor;
+    
+    // The member and book the action concerns, when there is one
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "book_id")
+    private Long bookId;
+    
+    @Column(length = 500)
+    private String detail;
+    
+    @Column(name = "client_ip", length = 64)
+    private String clientIp;
+    
+    // Constructors
+    public AuditRecord() {}
+    
+    public AuditRecord(AuditAction action, String actor, Long userId, Long bookId, String detail, String clientIp) {
+        this.occurredAt = LocalDateTime.now();
+        this.action = action;
+        this.actor = actor;
+        this.userId = userId;
+        this.bookId = bookId;
+        this.detail = detail;
+        this.clientIp = clientIp;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+    
+    public AuditAction getAction() { return action; }
+    public void setAction(AuditAction action) { this.action = action; }
+    
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+    
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+    
+    public String getDetail() { return detail; }
+    public void setDetail(String detail) { this.detail = detail; }
+    
+    public String getClientIp() { return clientIp; }
+    public void setClientIp(String clientIp) { this.clientIp = clientIp; }
+}
@@ -7,11 +7,15 @@ import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+// Deleted books stay as tombstones until the purge job has removed their copies, and for as
+// long as loans name them. Catalog queries (BookRepository) skip them by deleted_at; loan
+// history still loads them, so members keep their past loans.
 @Entity
 @Table(name = "books")
-@JsonIgnoreProperties({"hibernateLazyIntializer", "handler"})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Book {
     
     @Id
@@ -51,6 +55,10 @@ public class Book {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -118,4 +126,7 @@ public class Book {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
 }
@@ -0,0 +1,76 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+// A physical item of a title, identified by the barcode on its label
+@Entity
+@Table(name = "book_copies", indexes = {
+    @Index(name = "uk_book_copies_barcode", columnList = "barcode", unique = true),
+    @Index(name = "idx_book_copies_book_status", columnList = "book_id, status")
+})
+public class BookCopy {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+    
+    @NotBlank(message = "Barcode is required")
+    @Column(nullable = false, length = 64)
+    private String barcode;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CopyStatus status = CopyStatus.AVAILABLE;
+    
+    // Shelf or branch, free text
+    private String location;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public BookCopy() {}
+    
+    public BookCopy(Book book, String barcode, String location) {
+        this.book = book;
+        this.barcode = barcode;
+        this.location = location;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Book getBook() { return book; }
+    public void setBook(Book book) { this.book = book; }
+    
+    // Reading the id of the lazy book doesn't load it
+    public Long getBookId() { return book != null ? book.getId() : null; }
+    
+    public String getBarcode() { return barcode; }
+    public void setBarcode(String barcode) { this.barcode = barcode; }
+    
+    public CopyStatus getStatus() { return status; }
+    public void setStatus(CopyStatus status) { this.status = status; }
+    
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
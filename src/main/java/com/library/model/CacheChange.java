@@ -0,0 +1,59 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One changed entity, written in the transaction that changed it. The id is the change
+// sequence every instance reads in order (see CacheInvalidationBus); rows are deleted once
+// all instances have had time to see them.
+@Entity
+@Table(name = "cache_changes", indexes = {
+    @Index(name = "idx_cache_changes_created", columnList = "created_at")
+})
+public class CacheChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CacheRegion region;
+    
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    
+    // Instance that made the change; it has applied it already
+    @Column(nullable = false, length = 36)
+    private String origin;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public CacheChange() {}
+    
+    public CacheChange(CacheRegion region, Long entityId, String origin) {
+        this.region = region;
+        this.entityId = entityId;
+        this.origin = origin;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public CacheRegion getRegion() { return region; }
+    public void setRegion(CacheRegion region) { this.region = region; }
+    
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+    
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,9 @@
+package com.library.model;
+
+// What a cache_changes row invalidates; the entity id is the key
+public enum CacheRegion {
+    // A title: its cached row, catalog indexes and shelf count
+    BOOK,
+    // A member or librarian: their cached principal
+    USER
+}
@@ -0,0 +1,67 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// One day of circulation for one category and transaction type (see CirculationRollupService).
+// Reports sum these rows instead of scanning transactions.
+@Entity
+@Table(name = "circulation_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_circulation_daily", columnNames = {"activity_date", "category", "transaction_type"})
+})
+public class CirculationDaily {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+    
+    // The book's category at the time, '' for books without one
+    @Column(nullable = false)
+    private String category;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 20)
+    private TransactionType transactionType;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+    
+    // Fines charged on the day's returns
+    @Column(nullable = false)
+    private double fines;
+    
+    // Constructors
+    public CirculationDaily() {}
+    
+    public CirculationDaily(LocalDate activityDate, String category, TransactionType transactionType,
+                            long transactionCount, double fines) {
+        this.activityDate = activityDate;
+        this.category = category;
+        this.transactionType = transactionType;
+        this.transactionCount = transactionCount;
+        this.fines = fines;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public LocalDate getActivityDate() { return activityDate; }
+    public void setActivityDate(LocalDate activityDate) { this.activityDate = activityDate; }
+    
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    
+    public TransactionType getTransactionType() { return transactionType; }
+    public void setTransactionType(TransactionType transactionType) { this.transactionType = transactionType; }
+    
+    public long getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(long transactionCount) { this.transactionCount = transactionCount; }
+    
+    public double getFines() { return fines; }
+    public void setFines(double fines) { this.fines = fines; }
+}
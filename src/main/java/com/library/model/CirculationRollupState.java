@@ -0,0 +1,43 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// The single row that splits circulation_daily between its two writers: days from liveFrom
+// on are counted from relayed events, earlier days are backfilled from transactions.
+@Entity
+@Table(name = "circulation_rollup_state")
+public class CirculationRollupState {
+    
+    public static final int ID = 1;
+    
+    @Id
+    private Integer id;
+    
+    @Column(name = "live_from", nullable = false)
+    private LocalDate liveFrom;
+    
+    // Null until the backfill of the days before liveFrom has completed
+    @Column(name = "backfilled_at")
+    private LocalDateTime backfilledAt;
+    
+    // Constructors
+    public CirculationRollupState() {}
+    
+    public CirculationRollupState(LocalDate liveFrom) {
+        this.id = ID;
+        this.liveFrom = liveFrom;
+    }
+    
+    // Getters and Setters
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    
+    public LocalDate getLiveFrom() { return liveFrom; }
+    public void setLiveFrom(LocalDate liveFrom) { this.liveFrom = liveFrom; }
+    
+    public LocalDateTime getBackfilledAt() { return backfilledAt; }
+    public void setBackfilledAt(LocalDateTime backfilledAt) { this.backfilledAt = backfilledAt; }
+}
@@ -0,0 +1,8 @@
+package com.library.model;
+
+public enum CopyStatus {
+    AVAILABLE,
+    ON_LOAN,
+    LOST,
+    WITHDRAWN
+}
@@ -0,0 +1,58 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One row per reminder sent for a loan. The unique key makes a second notice for the same
+// loan, kind and window impossible, even when two notifier runs overlap.
+@Entity
+@Table(name = "loan_notices", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_loan_notice_window", columnNames = {"transaction_id", "kind", "window_key"})
+})
+public class LoanNotice {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private NoticeKind kind;
+    
+    // DUE_SOON: the due date; OVERDUE: which repeat interval since the due date
+    @Column(name = "window_key", nullable = false, length = 32)
+    private String windowKey;
+    
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+    
+    // Constructors
+    public LoanNotice() {}
+    
+    public LoanNotice(Long transactionId, NoticeKind kind, String windowKey) {
+        this.transactionId = transactionId;
+        this.kind = kind;
+        this.windowKey = windowKey;
+        this.sentAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getTransactionId() { return transactionId; }
+    public void setTransactionId(Long transactionId) { this.transactionId = transactionId; }
+    
+    public NoticeKind getKind() { return kind; }
+    public void setKind(NoticeKind kind) { this.kind = kind; }
+    
+    public String getWindowKey() { return windowKey; }
+    public void setWindowKey(String windowKey) { this.windowKey = windowKey; }
+    
+    public LocalDateTime getSentAt() { return sentAt; }
+    public void setSentAt(LocalDateTime sentAt) { this.sentAt = sentAt; }
+}
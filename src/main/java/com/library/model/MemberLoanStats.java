@@ -0,0 +1,52 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+// Denormalized per-member loan counters, kept in step with borrow/return in the same
+// transaction so eligibility checks never have to scan the transactions table.
+@Entity
+@Table(name = "member_loan_stats")
+public class MemberLoanStats {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "active_loans", nullable = false)
+    private int activeLoans;
+    
+    @Column(name = "overdue_loans", nullable = false)
+    private int overdueLoans;
+    
+    // Fines ever charged and fines settled; the difference is what the member still owes
+    @Column(name = "total_fines", nullable = false)
+    private double totalFines;
+    
+    @Column(name = "fines_paid", nullable = false)
+    private double finesPaid;
+    
+    // Constructors
+    public MemberLoanStats() {}
+    
+    public MemberLoanStats(Long userId) {
+        this.userId = userId;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    
+    public int getActiveLoans() { return activeLoans; }
+    public void setActiveLoans(int activeLoans) { this.activeLoans = activeLoans; }
+    
+    public int getOverdueLoans() { return overdueLoans; }
+    public void setOverdueLoans(int overdueLoans) { this.overdueLoans = overdueLoans; }
+    
+    public double getTotalFines() { return totalFines; }
+    public void setTotalFines(double totalFines) { this.totalFines = totalFines; }
+    
+    public double getFinesPaid() { return finesPaid; }
+    public void setFinesPaid(double finesPaid) { this.finesPaid = finesPaid; }
+    
+    public double getUnpaidFines() { return totalFines - finesPaid; }
+}
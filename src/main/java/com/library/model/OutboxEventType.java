@@ -0,0 +1,6 @@
+package com.library.model;
+
+public enum OutboxEventType {
+    BOOK_BORROWED,
+    BOOK_RETURNED
+}
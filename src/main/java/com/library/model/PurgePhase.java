@@ -0,0 +1,12 @@
+package com.library.model;
+
+// Steps of a purge, in order. A book goes COPIES -> TOMBSTONE; a member goes
+// NOTICES -> LOANS -> STATS -> TOMBSTONE.
+public enum PurgePhase {
+    COPIES,
+    NOTICES,
+    LOANS,
+    STATS,
+    TOMBSTONE,
+    DONE
+}
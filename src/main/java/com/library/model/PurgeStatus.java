@@ -0,0 +1,7 @@
+package com.library.model;
+
+public enum PurgeStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
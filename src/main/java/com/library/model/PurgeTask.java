@@ -0,0 +1,112 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Background removal of what a deleted book or member leaves behind (see PurgeService).
+// Progress is saved after every chunk, so a purge picks up where it stopped after a restart.
+@Entity
+@Table(name = "purge_tasks", indexes = {
+    @Index(name = "idx_purge_tasks_status", columnList = "status, id")
+})
+public class PurgeTask {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 16)
+    private PurgeTarget targetType;
+    
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PurgeStatus status = PurgeStatus.PENDING;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PurgePhase phase;
+    
+    @Column(name = "rows_purged", nullable = false)
+    private long rowsPurged;
+    
+    @Column(nullable = false)
+    private int chunks;
+    
+    // Failed chunks in a row; reset by progress
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    // Constructors
+    public PurgeTask() {}
+    
+    public PurgeTask(PurgeTarget targetType, Long targetId) {
+        this.targetType = targetType;
+        this.targetId = targetId;
+        this.phase = targetType == PurgeTarget.BOOK ? PurgePhase.COPIES : PurgePhase.NOTICES;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public PurgeTarget getTargetType() { return targetType; }
+    public void setTargetType(PurgeTarget targetType) { this.targetType = targetType; }
+    
+    public Long getTargetId() { return targetId; }
+    public void setTargetId(Long targetId) { this.targetId = targetId; }
+    
+    public PurgeStatus getStatus() { return status; }
+    public void setStatus(PurgeStatus status) { this.status = status; }
+    
+    public PurgePhase getPhase() { return phase; }
+    public void setPhase(PurgePhase phase) { this.phase = phase; }
+    
+    public long getRowsPurged() { return rowsPurged; }
+    public void setRowsPurged(long rowsPurged) { this.rowsPurged = rowsPurged; }
+    
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -5,28 +5,37 @@ import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_status_due", columnList = "status, due_date"),
+    @Index(name = "idx_transactions_copy_status", columnList = "copy_id, status")
+})
 public class Transaction {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Lazy: queries that return loans to the API fetch user and book with an entity graph
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
-    @JsonIgnoreProperties({"hibernateLazyIntializer", "handler"})
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private User user;
     
     @NotNull
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id")
-    @JsonIgnoreProperties({"hibernateLazyIntializer", "handler"})
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Book book;
     
+    // The physical copy lent out; null for loans made before copy-level inventory
+    @Column(name = "copy_id")
+    private Long copyId;
+    
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
     
@@ -44,6 +53,11 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionStatus status;
     
+    // Set once the overdue scan has counted this loan in the member's overdue counter
+    @JsonIgnore
+    @Column(name = "overdue_flagged", nullable = false)
+    private boolean overdueFlagged = false;
+    
     @PrePersist
     protected void onCreate() {
         transactionDate = LocalDateTime.now();
@@ -72,6 +86,9 @@ public class Transaction {
     public Book getBook() { return book; }
     public void setBook(Book book) { this.book = book; }
     
+    public Long getCopyId() { return copyId; }
+    public void setCopyId(Long copyId) { this.copyId = copyId; }
+    
     public TransactionType getTransactionType() { return transactionType; }
     public void setTransactionType(TransactionType transactionType) { this.transactionType = transactionType; }
     
@@ -89,4 +106,7 @@ public class Transaction {
     
     public TransactionStatus getStatus() { return status; }
     public void setStatus(TransactionStatus status) { this.status = status; }
+    
+    public boolean isOverdueFlagged() { return overdueFlagged; }
+    public void setOverdueFlagged(boolean overdueFlagged) { this.overdueFlagged = overdueFlagged; }
 }
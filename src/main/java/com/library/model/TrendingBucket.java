@@ -0,0 +1,60 @@
+package com.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Saved state of one time bucket of the trending counters (see TrendingService), so the
+// leaderboard survives restarts. The sketch is the bucket's count-min cells as big-endian ints.
+@Entity
+@Table(name = "trending_buckets")
+public class TrendingBucket {
+    
+    // Bucket start as epoch millis / bucket length
+    @Id
+    @Column(name = "bucket_index")
+    private Long bucketIndex;
+    
+    // Rows from a different bucket length or sketch size are ignored on load
+    @Column(name = "bucket_minutes", nullable = false)
+    private int bucketMinutes;
+    
+    @Lob
+    @Column(nullable = false, length = 16777215)
+    private byte[] sketch;
+    
+    // Candidate book ids (big-endian longs) at the time of the save
+    @Lob
+    @Column(length = 16777215)
+    private byte[] candidates;
+    
+    @Column(name = "saved_at", nullable = false)
+    private LocalDateTime savedAt;
+    
+    // Constructors
+    public TrendingBucket() {}
+    
+    public TrendingBucket(Long bucketIndex, int bucketMinutes, byte[] sketch, byte[] candidates) {
+        this.bucketIndex = bucketIndex;
+        this.bucketMinutes = bucketMinutes;
+        this.sketch = sketch;
+        this.candidates = candidates;
+        this.savedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getBucketIndex() { return bucketIndex; }
+    public void setBucketIndex(Long bucketIndex) { this.bucketIndex = bucketIndex; }
+    
+    public int getBucketMinutes() { return bucketMinutes; }
+    public void setBucketMinutes(int bucketMinutes) { this.bucketMinutes = bucketMinutes; }
+    
+    public byte[] getSketch() { return sketch; }
+    public void setSketch(byte[] sketch) { this.sketch = sketch; }
+    
+    public byte[] getCandidates() { return candidates; }
+    public void setCandidates(byte[] candidates) { this.candidates = candidates; }
+    
+    public LocalDateTime getSavedAt() { return savedAt; }
+    public void setSavedAt(LocalDateTime savedAt) { this.savedAt = savedAt; }
+}
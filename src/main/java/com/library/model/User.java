@@ -1,17 +1,29 @@
 package com.library.model;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
+// Deleted members are anonymized on the spot and kept as tombstones, hidden from every JPA
+// query, until the purge job has removed their loans
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_full_name", columnList = "full_name"),
+    @Index(name = "idx_users_role_username", columnList = "role, username")
+})
+@SQLRestriction("deleted_at is null")
 public class User implements UserDetails {
     
     @Id
@@ -22,6 +34,8 @@ public class User implements UserDetails {
     @NotBlank(message = "Username is required")
     private String username;
     
+    // Accepted when creating a user, never sent back
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     @NotBlank(message = "Password is required")
     private String password;
@@ -54,6 +68,10 @@ public class User implements UserDetails {
     @Column(name = "enabled", nullable = false)
     private boolean enabled = true;
     
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+    
     // Constructors
     public User() {
         // Initialize boolean fields to prevent null values
@@ -127,6 +145,9 @@ public class User implements UserDetails {
     public Role getRole() { return role; }
     public void setRole(Role role) { this.role = role; }
     
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+    
     // Setters for UserDetails boolean fields
     public void setAccountNonExpired(boolean accountNonExpired) {
         this.accountNonExpired = accountNonExpired;
@@ -0,0 +1,9 @@
+package com.library.model;
+
+// Orders the librarian user directory can be read in
+public enum UserDirectorySort {
+    USERNAME,
+    FULL_NAME,
+    EMAIL,
+    NEWEST
+}
@@ -0,0 +1,21 @@
+package com.library.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.AuditAction;
+import com.library.model.AuditRecord;
+
+// Reads only; records are written in batches by JdbcAuditSink
+@Repository
+public interface AuditRecordRepository extends JpaRepository<AuditRecord, Long> {
+
+    // Newest first; a null action lists every kind
+    @Query("select a from AuditRecord a where :action is null or a.action = :action order by a.id desc")
+    List<AuditRecord> findRecent(@Param("action") AuditAction action, Pageable page);
+}
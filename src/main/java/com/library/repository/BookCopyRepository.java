@@ -0,0 +1,82 @@
+package com.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.BookCopy;
+import com.library.model.CopyStatus;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    // Unique index lookup, the desk scan path
+    Optional<BookCopy> findByBarcode(String barcode);
+
+    boolean existsByBarcode(String barcode);
+
+    List<BookCopy> findByBook_IdOrderById(Long bookId);
+
+    long countByBook_IdAndStatusNot(Long bookId, CopyStatus status);
+
+    // Lock one shelf copy of the title; concurrent borrowers skip each other's rows and take different copies
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select c from BookCopy c where c.book.id = :bookId and c.status = :status order by c.id")
+    List<BookCopy> lockByBookAndStatus(@Param("bookId") Long bookId, @Param("status") CopyStatus status, Pageable pageable);
+
+    // Lock one lent copy of the title that no outstanding loan names, for returning a loan made
+    // before copy records; copies named by other loans are never taken
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select c from BookCopy c where c.book.id = :bookId and c.status = com.library.model.CopyStatus.ON_LOAN " +
+           "and not exists (select t.id from Transaction t where t.copyId = c.id " +
+           "and t.status <> com.library.model.TransactionStatus.RETURNED) order by c.id")
+    List<BookCopy> lockUnassignedOnLoan(@Param("bookId") Long bookId, Pageable pageable);
+
+    // Compare-and-set on the copy row; 0 means the copy was not in the expected state
+    @Modifying
+    @Query("update BookCopy c set c.status = :to where c.id = :id and c.status = :from")
+    int transition(@Param("id") Long id, @Param("from") CopyStatus from, @Param("to") CopyStatus to);
+
+    // [bookId, copies on the shelf] for every title with at least one available copy
+    @Query("select c.book.id, count(c) from BookCopy c where c.status = com.library.model.CopyStatus.AVAILABLE group by c.book.id")
+    List<Object[]> countAvailableByBook();
+
+    // The same for some titles
+    @Query("select c.book.id, count(c) from BookCopy c where c.book.id in :bookIds "
+            + "and c.status = com.library.model.CopyStatus.AVAILABLE group by c.book.id")
+    List<Object[]> countAvailableByBooks(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("select count(c) from BookCopy c where c.book.id = :bookId and c.status = com.library.model.CopyStatus.AVAILABLE")
+    long countAvailable(@Param("bookId") Long bookId);
+
+    @Query("select count(c) from BookCopy c where c.book.id = :bookId and c.status = :status")
+    long countByBookAndStatus(@Param("bookId") Long bookId, @Param("status") CopyStatus status);
+
+    // Take every shelf copy of a title out of circulation, e.g. when it is deleted
+    @Modifying
+    @Query("update BookCopy c set c.status = com.library.model.CopyStatus.WITHDRAWN " +
+           "where c.book.id = :bookId and c.status = com.library.model.CopyStatus.AVAILABLE")
+    int withdrawShelfCopies(@Param("bookId") Long bookId);
+
+    // Next chunk of a title's copies for the purge job
+    @Query("select c.id from BookCopy c where c.book.id = :bookId order by c.id")
+    List<Long> findIdsByBook(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from BookCopy c where c.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
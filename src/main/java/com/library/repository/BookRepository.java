@@ -1,26 +1,82 @@
 package com.library.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.library.dto.BookFacetView;
+import com.library.dto.BookSuggestView;
 import com.library.model.Book;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book,Long>{
-    Optional<Book> findByIsbn(String isbn);
+    // Catalog reads: deleted books (tombstones) are left out. The inherited findById/findAllById
+    // still return tombstones, for the loans that name them.
+    List<Book> findByDeletedAtIsNull();
 
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    Optional<Book> findByIdAndDeletedAtIsNull(Long id);
 
-    List<Book> findByAuthorContainingIgnoreCase(String author);
+    List<Book> findByIdInAndDeletedAtIsNull(Collection<Long> ids);
 
-    List<Book> findByCategory(String category);
+    boolean existsByIdAndDeletedAtIsNull(Long id);
 
+    long countByDeletedAtIsNull();
+
+    Optional<Book> findByIsbnAndDeletedAtIsNull(String isbn);
+
+    List<Book> findByTitleContainingIgnoreCaseAndDeletedAtIsNull(String title);
+
+    List<Book> findByAuthorContainingIgnoreCaseAndDeletedAtIsNull(String author);
+
+    List<Book> findByCategoryAndDeletedAtIsNull(String category);
+
+    // Tombstones included: their ISBNs carry a suffix and never match
     boolean existsByIsbn(String isbn);
 
-    List<Book> findByAvailableCopiesGreaterThan(Integer copies);
-}
-    
+    List<Book> findByAvailableCopiesGreaterThanAndDeletedAtIsNull(Integer copies);
+
+    @Query("select new com.library.dto.BookFacetView(b.id, b.category, b.author, b.publisher, "
+            + "b.publicationYear, b.availableCopies) from Book b where b.deletedAt is null")
+    List<BookFacetView> findAllFacetViews();
 
+    @Query("select new com.library.dto.BookSuggestView(b.id, b.title, b.author) from Book b " +
+           "where b.deletedAt is null order by b.id")
+    List<BookSuggestView> findAllSuggestViews();
+
+    @Query("select new com.library.dto.BookSuggestView(b.id, b.title, b.author) from Book b " +
+           "where b.id in :ids and b.deletedAt is null")
+    List<BookSuggestView> findSuggestViewsByIds(@Param("ids") Collection<Long> ids);
+
+    // Tombstone the title; the ISBN gets the id appended so it can be catalogued again
+    @Modifying
+    @Query("update Book b set b.deletedAt = :now, b.isbn = concat(b.isbn, '~', cast(b.id as String)) " +
+           "where b.id = :id and b.deletedAt is null")
+    int markDeleted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Remove the tombstone once nothing refers to it
+    @Modifying
+    @Query(value = "delete from books where id = :id and deleted_at is not null", nativeQuery = true)
+    int deleteTombstone(@Param("id") Long id);
+
+    // [bookId, category]
+    @Query("select b.id, b.category from Book b where b.id in :ids")
+    List<Object[]> findCategoriesByIds(@Param("ids") Collection<Long> ids);
+
+    // Titles that predate copy-level inventory; not tombstones, whose copies have been purged
+    @Query("select b from Book b where b.deletedAt is null and not exists (select c.id from BookCopy c where c.book = b)")
+    List<Book> findBooksWithoutCopies();
+
+    // Recount availability from the copy rows without touching the rest of the row. Counted in
+    // the statement, so concurrent writers on other instances can't overwrite each other's count.
+    @Modifying
+    @Query("update Book b set b.availableCopies = (select count(c) from BookCopy c where c.book.id = b.id " +
+           "and c.status = com.library.model.CopyStatus.AVAILABLE) where b.id in :ids")
+    int recountAvailableCopies(@Param("ids") Collection<Long> ids);
+}
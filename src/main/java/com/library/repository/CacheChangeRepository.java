@@ -0,0 +1,33 @@
+package com.library.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.CacheChange;
+
+@Repository
+public interface CacheChangeRepository extends JpaRepository<CacheChange, Long> {
+
+    // Primary key range scan; empty on a quiet system
+    @Query("select c from CacheChange c where c.id > :after order by c.id")
+    List<CacheChange> findAfter(@Param("after") long after, Pageable pageable);
+
+    // Sequence numbers skipped by an earlier poll, in case their transactions commit late
+    @Query("select c from CacheChange c where c.id in :ids order by c.id")
+    List<CacheChange> findByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select coalesce(max(c.id), 0) from CacheChange c")
+    long findMaxId();
+
+    @Modifying
+    @Query("delete from CacheChange c where c.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
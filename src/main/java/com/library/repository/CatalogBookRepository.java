@@ -0,0 +1,29 @@
+package com.library.repository;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.CatalogBook;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Reactive counterparts of the BookRepository finders, over R2DBC. Only enabled with
+// library.reactive-catalog.enabled (see ReactiveCatalogConfig). Every finder skips deleted
+// books, as the BookRepository catalog finders do.
+@Repository
+public interface CatalogBookRepository extends R2dbcRepository<CatalogBook, Long> {
+    Flux<CatalogBook> findByDeletedAtIsNull();
+
+    Mono<CatalogBook> findByIdAndDeletedAtIsNull(Long id);
+
+    Mono<CatalogBook> findByIsbnAndDeletedAtIsNull(String isbn);
+
+    Flux<CatalogBook> findByTitleContainingIgnoreCaseAndDeletedAtIsNull(String title);
+
+    Flux<CatalogBook> findByAuthorContainingIgnoreCaseAndDeletedAtIsNull(String author);
+
+    Flux<CatalogBook> findByCategoryAndDeletedAtIsNull(String category);
+
+    Flux<CatalogBook> findByAvailableCopiesGreaterThanAndDeletedAtIsNull(Integer copies);
+}
@@ -0,0 +1,38 @@
+package com.library.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.CirculationDaily;
+import com.library.model.TransactionType;
+
+@Repository
+public interface CirculationDailyRepository extends JpaRepository<CirculationDaily, Long> {
+
+    // 0 rows means the day has no row for this category and type yet
+    @Modifying
+    @Query("update CirculationDaily d set d.transactionCount = d.transactionCount + :count, d.fines = d.fines + :fines " +
+           "where d.activityDate = :day and d.category = :category and d.transactionType = :type")
+    int increment(@Param("day") LocalDate day, @Param("category") String category, @Param("type") TransactionType type,
+                  @Param("count") long count, @Param("fines") double fines);
+
+    @Modifying
+    @Query("delete from CirculationDaily d where d.activityDate < :before")
+    int deleteBefore(@Param("before") LocalDate before);
+
+    // [category, type, transactions, fines] over a date range
+    @Query("select d.category, d.transactionType, sum(d.transactionCount), sum(d.fines) from CirculationDaily d " +
+           "where d.activityDate between :from and :to group by d.category, d.transactionType")
+    List<Object[]> sumByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // [day, type, transactions, fines] over a date range
+    @Query("select d.activityDate, d.transactionType, sum(d.transactionCount), sum(d.fines) from CirculationDaily d " +
+           "where d.activityDate between :from and :to group by d.activityDate, d.transactionType")
+    List<Object[]> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
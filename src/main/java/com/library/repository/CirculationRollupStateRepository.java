@@ -0,0 +1,22 @@
+package com.library.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.CirculationRollupState;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface CirculationRollupStateRepository extends JpaRepository<CirculationRollupState, Integer> {
+
+    // Held by the backfill while it replaces the days before liveFrom
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CirculationRollupState s where s.id = :id")
+    Optional<CirculationRollupState> findForUpdate(@Param("id") Integer id);
+}
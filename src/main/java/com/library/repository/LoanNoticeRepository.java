@@ -0,0 +1,30 @@
+package com.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.LoanNotice;
+
+@Repository
+public interface LoanNoticeRepository extends JpaRepository<LoanNotice, Long> {
+
+    // [transactionId, kind, windowKey] of notices already sent for these loans
+    @Query("select n.transactionId, n.kind, n.windowKey from LoanNotice n where n.transactionId in :transactionIds")
+    List<Object[]> findSentKeys(@Param("transactionIds") Collection<Long> transactionIds);
+
+    // Next chunk of the notices sent for a member's loans, for the purge job
+    @Query("select n.id from LoanNotice n where n.transactionId in " +
+           "(select t.id from Transaction t where t.user.id = :userId) order by n.id")
+    List<Long> findIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from LoanNotice n where n.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
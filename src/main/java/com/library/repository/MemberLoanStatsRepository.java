@@ -0,0 +1,52 @@
+package com.library.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.MemberLoanStats;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface MemberLoanStatsRepository extends JpaRepository<MemberLoanStats, Long> {
+
+    // Check the limits and take the loan in one statement; 0 rows means the member is not eligible
+    @Modifying
+    @Query("update MemberLoanStats s set s.activeLoans = s.activeLoans + 1 " +
+           "where s.userId = :userId and s.activeLoans < :maxActiveLoans " +
+           "and s.overdueLoans <= :maxOverdueLoans and s.totalFines - s.finesPaid <= :maxUnpaidFine")
+    int tryReserveLoan(@Param("userId") Long userId, @Param("maxActiveLoans") int maxActiveLoans,
+                       @Param("maxOverdueLoans") int maxOverdueLoans, @Param("maxUnpaidFine") double maxUnpaidFine);
+
+    // Zeroed counters for a member who has none; a no-op when another transaction got there first
+    @Modifying
+    @Query(value = "insert into member_loan_stats (user_id, active_loans, overdue_loans, total_fines, fines_paid) " +
+           "values (:userId, 0, 0, 0, 0) on duplicate key update user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("update MemberLoanStats s set s.activeLoans = s.activeLoans - 1, " +
+           "s.overdueLoans = s.overdueLoans - :overdue, s.totalFines = s.totalFines + :fine " +
+           "where s.userId = :userId and s.activeLoans > 0")
+    int releaseLoan(@Param("userId") Long userId, @Param("overdue") int overdue, @Param("fine") double fine);
+
+    @Modifying
+    @Query("update MemberLoanStats s set s.overdueLoans = s.overdueLoans + 1 where s.userId = :userId")
+    int incrementOverdue(@Param("userId") Long userId);
+
+    // Refuses to take more than is owed. Clears the persistence context so a re-read sees the new total.
+    @Modifying(clearAutomatically = true)
+    @Query("update MemberLoanStats s set s.finesPaid = s.finesPaid + :amount " +
+           "where s.userId = :userId and s.totalFines - s.finesPaid >= :amount")
+    int settleFines(@Param("userId") Long userId, @Param("amount") double amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from MemberLoanStats s where s.userId = :userId")
+    Optional<MemberLoanStats> findForUpdate(@Param("userId") Long userId);
+}
@@ -0,0 +1,56 @@
+package com.library.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.OutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Lock the next due events, skipping rows another relay already holds (lock timeout -2 = SKIP LOCKED).
+    // Events queued behind an earlier event of the same book that is waiting to be retried are left alone.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.publishedAt is null and e.deadAt is null and e.nextAttemptAt <= :now " +
+           "and not exists (select p.id from OutboxEvent p where p.bookId = e.bookId and p.publishedAt is null " +
+           "and p.deadAt is null and p.id < e.id and p.nextAttemptAt > :now) order by e.id")
+    List<OutboxEvent> claimDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.id = :id and e.publishedAt is null and e.deadAt is null")
+    List<OutboxEvent> claimOne(@Param("id") Long id);
+
+    // [id, bookId] of every undelivered event for the given books up to maxId, in id order
+    @Query("select e.id, e.bookId from OutboxEvent e where e.bookId in :bookIds and e.id <= :maxId " +
+           "and e.publishedAt is null and e.deadAt is null order by e.id")
+    List<Object[]> findPendingIds(@Param("bookIds") Collection<Long> bookIds, @Param("maxId") Long maxId);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :now where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("select count(e) from OutboxEvent e where e.publishedAt is null and e.deadAt is null")
+    long countPending();
+
+    @Query("select min(e.occurredAt) from OutboxEvent e where e.publishedAt is null and e.deadAt is null")
+    LocalDateTime findOldestPending();
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,30 @@
+package com.library.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.PurgeStatus;
+import com.library.model.PurgeTask;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface PurgeTaskRepository extends JpaRepository<PurgeTask, Long> {
+
+    // Oldest unfinished task; another instance's locked task is skipped, not waited for
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select p from PurgeTask p where p.status = com.library.model.PurgeStatus.PENDING order by p.id")
+    List<PurgeTask> claimNext(Pageable pageable);
+
+    List<PurgeTask> findTop50ByOrderByIdDesc();
+
+    long countByStatus(PurgeStatus status);
+}
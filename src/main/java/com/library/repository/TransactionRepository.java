@@ -1,33 +1,161 @@
 package com.library.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.library.dto.LoanDueView;
 import com.library.model.Transaction;
 import com.library.model.TransactionStatus;
 import com.library.model.TransactionType;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction,Long> {
+    // Loans returned to the API carry their user and book, fetched in the same query, since
+    // nothing may lazy-load once the service has returned (spring.jpa.open-in-view=false)
+    @Override
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Transaction> findAll();
+
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByUserId(Long userId);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByBookId(Long bookId);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByTransactionType(TransactionType transactionType);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByStatus(TransactionStatus status);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByUserIdAndStatus(Long userId, TransactionStatus status);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByBookIdAndStatus(Long bookId, TransactionStatus status);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     Optional<Transaction> findByUserIdAndBookIdAndStatus(Long userId, Long bookId, TransactionStatus status);
+
+    @EntityGraph(attributePaths = {"user", "book"})
+    Optional<Transaction> findByCopyIdAndStatus(Long copyId, TransactionStatus status);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByDueDateBeforeAndStatus(LocalDateTime dueDate, TransactionStatus status);
     
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Without the entity graph: GraphQL resolves user and book through batched data loaders.
+    // The user join leaves out loans of deleted members, as the entity graphs above do; loans of
+    // deleted books stay, naming the tombstone
+    @Query("select t from Transaction t join t.user join t.book where (:userId is null or t.user.id = :userId) " +
+           "and (:status is null or t.status = :status) order by t.transactionDate desc, t.id desc")
+    List<Transaction> search(@Param("userId") Long userId, @Param("status") TransactionStatus status, Limit limit);
+
+    long countByStatus(TransactionStatus status);
+
+    long countByStatusAndDueDateBefore(TransactionStatus status, LocalDateTime dueDate);
+
+    // [bookId, borrow count] for every book that has been borrowed
+    @Query("select t.book.id, count(t) from Transaction t where t.transactionType = com.library.model.TransactionType.BORROW group by t.book.id")
+    List<Object[]> countBorrowsByBook();
+
+    // Newest transaction id, the cut-off of a related-books index build
+    @Query("select coalesce(max(t.id), 0) from Transaction t")
+    long findMaxId();
+
+    // [min userId, max userId] over all transactions
+    @Query("select min(t.user.id), max(t.user.id) from Transaction t")
+    List<Object[]> findUserIdRange();
+
+    // [userId, bookId] of the borrows of a range of members up to a transaction id, newest first per member
+    @Query("select t.user.id, t.book.id from Transaction t where t.transactionType = com.library.model.TransactionType.BORROW " +
+           "and t.user.id between :fromUser and :toUser and t.id <= :maxId order by t.user.id, t.id desc")
+    List<Object[]> findBorrowHistory(@Param("fromUser") Long fromUser, @Param("toUser") Long toUser,
+                                     @Param("maxId") Long maxId);
+
+    // [day, category, type, count] of the transactions in an id range made before a date (rollup backfill)
+    @Query("select cast(t.transactionDate as LocalDate), coalesce(b.category, ''), t.transactionType, count(t) " +
+           "from Transaction t join t.book b where t.id between :fromId and :toId and t.transactionDate < :before " +
+           "group by cast(t.transactionDate as LocalDate), coalesce(b.category, ''), t.transactionType")
+    List<Object[]> countByDayCategoryAndType(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                             @Param("before") LocalDateTime before);
+
+    // [day, category, fines] charged on the returns of the loans in an id range, by return day
+    @Query("select cast(t.returnDate as LocalDate), coalesce(b.category, ''), sum(t.fine) " +
+           "from Transaction t join t.book b where t.id between :fromId and :toId " +
+           "and t.transactionType = com.library.model.TransactionType.BORROW and t.fine > 0 and t.returnDate < :before " +
+           "group by cast(t.returnDate as LocalDate), coalesce(b.category, '')")
+    List<Object[]> sumFinesByReturnDayAndCategory(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                                  @Param("before") LocalDateTime before);
+
+    // By foreign key, without joining the (possibly tombstoned) book or member
+    @Query("select count(t) > 0 from Transaction t where t.book.id = :bookId")
+    boolean existsByBookId(@Param("bookId") Long bookId);
+
+    @Query("select count(t) from Transaction t where t.user.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
+
+    // Next chunk of a member's finished loans and return records, for the purge job
+    @Query("select t.id from Transaction t where t.user.id = :userId " +
+           "and t.status = com.library.model.TransactionStatus.RETURNED order by t.id")
+    List<Long> findReturnedIdsByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Transaction t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // [transactionId, userId] of active loans past due that the overdue counters don't include yet
+    @Query("select t.id, t.user.id from Transaction t where t.status = com.library.model.TransactionStatus.ACTIVE " +
+           "and t.overdueFlagged = false and t.dueDate < :now order by t.id")
+    List<Object[]> findUnflaggedOverdue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("update Transaction t set t.overdueFlagged = true where t.id = :id and t.overdueFlagged = false " +
+           "and t.status = com.library.model.TransactionStatus.ACTIVE")
+    int flagOverdue(@Param("id") Long id);
+
+    // [userId, active loans, flagged overdue loans] for reconciliation against member_loan_stats
+    @Query("select t.user.id, count(t), sum(case when t.overdueFlagged = true then 1 else 0 end) from Transaction t " +
+           "where t.status = com.library.model.TransactionStatus.ACTIVE " +
+           "and t.transactionType = com.library.model.TransactionType.BORROW group by t.user.id")
+    List<Object[]> countActiveLoansByUser();
+
+    // [userId, sum of fines]
+    @Query("select t.user.id, sum(t.fine) from Transaction t where t.fine is not null group by t.user.id")
+    List<Object[]> sumFinesByUser();
+
+    @Query("select count(t) from Transaction t where t.user.id = :userId " +
+           "and t.status = com.library.model.TransactionStatus.ACTIVE " +
+           "and t.transactionType = com.library.model.TransactionType.BORROW")
+    long countActiveLoans(@Param("userId") Long userId);
+
+    @Query("select count(t) from Transaction t where t.user.id = :userId and t.overdueFlagged = true " +
+           "and t.status = com.library.model.TransactionStatus.ACTIVE " +
+           "and t.transactionType = com.library.model.TransactionType.BORROW")
+    long countFlaggedOverdueLoans(@Param("userId") Long userId);
+
+    @Query("select coalesce(sum(t.fine), 0) from Transaction t where t.user.id = :userId")
+    double sumFines(@Param("userId") Long userId);
+
+    // Active loans due before the horizon, walked in (dueDate, id) order from the given position.
+    // Served by a range scan on idx_transactions_status_due.
+    @Query("select new com.library.dto.LoanDueView(t.id, t.dueDate, u.id, u.email, u.fullName, b.title) " +
+           "from Transaction t join t.user u join t.book b " +
+           "where t.status = com.library.model.TransactionStatus.ACTIVE and t.dueDate < :horizon " +
+           "and (t.dueDate > :afterDue or (t.dueDate = :afterDue and t.id > :afterId)) order by t.dueDate, t.id")
+    List<LoanDueView> findDueBefore(@Param("horizon") LocalDateTime horizon, @Param("afterDue") LocalDateTime afterDue,
+                                    @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,22 @@
+package com.library.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.library.model.TrendingBucket;
+
+@Repository
+public interface TrendingBucketRepository extends JpaRepository<TrendingBucket, Long> {
+
+    List<TrendingBucket> findByBucketIndexBetweenOrderByBucketIndex(Long from, Long to);
+
+    // Buckets that have left the window
+    @Modifying
+    @Query("delete from TrendingBucket b where b.bucketIndex < :oldest")
+    int deleteOlderThan(@Param("oldest") Long oldest);
+}
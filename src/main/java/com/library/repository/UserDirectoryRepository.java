@@ -0,0 +1,17 @@
+package com.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.library.dto.UserSummary;
+import com.library.model.Role;
+import com.library.model.UserDirectorySort;
+
+// Directory reads for UserRepository; the filters are optional, so the query is built per call
+public interface UserDirectoryRepository {
+
+    // Up to limit members in sort order after (afterValue, afterId); null prefix, roles or
+    // afterId leave that condition out
+    List<UserSummary> findDirectoryPage(String prefix, Collection<Role> roles, boolean withLoans,
+                                        UserDirectorySort sort, String afterValue, Long afterId, int limit);
+}
@@ -0,0 +1,73 @@
+package com.library.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.library.dto.UserSummary;
+import com.library.model.Role;
+import com.library.model.UserDirectorySort;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+// Keyset pages: each page starts after the last (sort key, id) of the one before, so reading
+// page 500 costs the same as page 1. The prefix is matched with LIKE 'prefix%' against the
+// username, email (both unique keys) and full name indexes; the column collation makes it
+// case-insensitive on MySQL.
+public class UserDirectoryRepositoryImpl implements UserDirectoryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> findDirectoryPage(String prefix, Collection<Role> roles, boolean withLoans,
+                                               UserDirectorySort sort, String afterValue, Long afterId, int limit) {
+        String key = sortColumn(sort);
+        StringBuilder jpql = new StringBuilder(
+                "select new com.library.dto.UserSummary(u.id, u.username, u.fullName, u.email, u.phoneNumber, " +
+                "u.role, u.enabled, coalesce(s.activeLoans, 0)) " +
+                "from User u left join MemberLoanStats s on s.userId = u.id where 1 = 1");
+        if (prefix != null) {
+            jpql.append(" and (u.username like :prefix escape '!' or u.fullName like :prefix escape '!'" +
+                        " or u.email like :prefix escape '!')");
+        }
+        if (roles != null) {
+            jpql.append(" and u.role in :roles");
+        }
+        if (withLoans) {
+            jpql.append(" and s.activeLoans > 0");
+        }
+        if (afterId != null) {
+            jpql.append(key == null
+                    ? " and u.id < :afterId"
+                    : " and (" + key + " > :afterValue or (" + key + " = :afterValue and u.id > :afterId))");
+        }
+        jpql.append(key == null ? " order by u.id desc" : " order by " + key + ", u.id");
+
+        TypedQuery<UserSummary> query = entityManager.createQuery(jpql.toString(), UserSummary.class);
+        if (prefix != null) {
+            query.setParameter("prefix", prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+        if (roles != null) {
+            query.setParameter("roles", roles);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (key != null) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    // null for NEWEST, which is ordered by id alone
+    private static String sortColumn(UserDirectorySort sort) {
+        return switch (sort) {
+            case USERNAME -> "u.username";
+            case FULL_NAME -> "u.fullName";
+            case EMAIL -> "u.email";
+            case NEWEST -> null;
+        };
+    }
+}
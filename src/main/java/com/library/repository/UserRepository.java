@@ -1,14 +1,19 @@
 package com.library.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.library.model.User;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserDirectoryRepository {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
@@ -16,4 +21,23 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.id from User u")
+    List<Long> findAllIds();
+
+    // Members per role for the directory header: [role, count]
+    @Query("select u.role, count(u) from User u group by u.role")
+    List<Object[]> countByRole();
+
+    // Tombstone the member and drop their personal details; the username and email are freed
+    @Modifying
+    @Query("update User u set u.deletedAt = :now, u.enabled = false, u.password = '', u.phoneNumber = null, " +
+           "u.fullName = 'Deleted member', u.username = concat('deleted-', cast(u.id as String)), " +
+           "u.email = concat('deleted-', cast(u.id as String), '@invalid') where u.id = :id")
+    int markDeleted(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Remove the tombstone once nothing refers to it; native because JPA queries skip tombstones
+    @Modifying
+    @Query(value = "delete from users where id = :id and deleted_at is not null", nativeQuery = true)
+    int deleteTombstone(@Param("id") Long id);
 }
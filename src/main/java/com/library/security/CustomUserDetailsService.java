@@ -1,19 +1,42 @@
 package com.library.security;
 
+import com.library.model.CacheRegion;
 import com.library.model.User;
 import com.library.repository.UserRepository;
+import com.library.service.CacheInvalidationListener;
+import com.library.service.EntityCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
+
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, CacheInvalidationListener {
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${library.cache.principals.max-entries:10000}")
+    private int maxCachedPrincipals;
+    
+    // Principals of requests with a valid token, by username; dropped when the user changes on any instance
+    private EntityCache<String, User> principalCache;
+    
+    @PostConstruct
+    void createCache() {
+        principalCache = new EntityCache<>("principals", maxCachedPrincipals, meterRegistry);
+    }
+    
+    // Login always reads the row
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -21,4 +44,26 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         return user; // User implements UserDetails
     }
+    
+    // The signed-in user for a request bearing a token; shared, not to be modified
+    public UserDetails loadPrincipal(String username) throws UsernameNotFoundException {
+        User user = principalCache.get(username, name -> userRepository.findByUsername(name).orElse(null));
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        return user;
+    }
+    
+    // Changes carry user ids and the cache is keyed by username; users change rarely, so a scan is fine
+    @Override
+    public void onInvalidate(CacheRegion region, Set<Long> ids, boolean remote) {
+        if (region == CacheRegion.USER) {
+            principalCache.invalidateIf(user -> ids.contains(user.getId()));
+        }
+    }
+    
+    @Override
+    public void onReset() {
+        principalCache.invalidateAll();
+    }
 }
@@ -2,6 +2,7 @@ package com.library.security;
 
 import com.library.security.CustomUserDetailsService;
 import com.library.security.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,6 +31,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
     
+    @Autowired
+    private TokenRevocationList revocationList;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
@@ -38,14 +42,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Step 1: Extract JWT token from request header
             String jwt = getJwtFromRequest(request);
             
-            // Step 2: If token exists and is valid
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
+            // Step 2: If token exists, is valid (parsed once: signature and expiry) and not revoked
+            Claims claims = StringUtils.hasText(jwt) ? jwtUtil.parseClaims(jwt) : null;
+            if (claims != null && !revocationList.isRevoked(claims.getId())) {
                 
                 // Step 3: Extract username from token
-                String username = jwtUtil.getUsernameFromToken(jwt);
+                String username = claims.getSubject();
                 
-                // Step 4: Load user details from database
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Step 4: Load user details (cached until the user changes)
+                UserDetails userDetails = userDetailsService.loadPrincipal(username);
                 
                 // Step 5: Create authentication object
                 UsernamePasswordAuthenticationToken authentication = 
@@ -0,0 +1,64 @@
+package com.library.security;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.library.config.RateLimitProperties;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Per-IP throttling by route group. Runs before JwtAuthenticationFilter so floods of
+// anonymous or forged requests are rejected before any token parsing, bcrypt or DB work.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+        String group = routeGroup(request);
+        RateLimitProperties.Policy policy = group != null ? properties.getGroups().get(group) : null;
+
+        if (policy != null) {
+            // Behind a proxy, set server.forward-headers-strategy so this is the client address
+            long waitNanos = rateLimiter.tryAcquire(group + ":" + request.getRemoteAddr(), policy);
+            if (waitNanos > 0) {
+                rateLimiter.reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    // Mirrors the access rules in SecurityConfig
+    private String routeGroup(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return "auth";
+        }
+        if (path.startsWith("/api/books") && "GET".equals(request.getMethod())) {
+            return "catalog";
+        }
+        if (path.startsWith("/api/")) {
+            return "api";
+        }
+        return null;
+    }
+}
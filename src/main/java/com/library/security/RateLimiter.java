@@ -0,0 +1,74 @@
+package com.library.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.library.config.RateLimitProperties;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+// In-process token buckets, one per key (e.g. "auth:10.0.0.7" or "user:jane.member").
+//
+// Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA), which is
+// equivalent to a token bucket but needs no refill thread and no lock: a request is admitted
+// with one CAS. Buckets live in a ConcurrentHashMap, whose per-bin locking is only touched
+// when a key is first seen.
+@Component
+public class RateLimiter {
+
+    private static final byte[] REJECTED_BODY =
+            "{\"error\": \"Too Many Requests\", \"message\": \"Rate limit exceeded, retry later\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // Returns 0 when the request is admitted, otherwise the nanoseconds until a token is available
+    public long tryAcquire(String key, RateLimitProperties.Policy policy) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        long interval = policy.emissionIntervalNanos();
+        long tolerance = policy.burstToleranceNanos();
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long newTat = (tat == Long.MIN_VALUE || tat - now < 0 ? now : tat) + interval;
+            long ahead = newTat - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    // Write a 429 with Retry-After (whole seconds, rounded up)
+    public void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(429);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    // A bucket whose arrival time has passed is full again, so dropping it changes nothing.
+    // A request racing with removal may update the dropped instance and get one extra token.
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(tat -> tat.get() == Long.MIN_VALUE || tat.get() - now <= 0);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
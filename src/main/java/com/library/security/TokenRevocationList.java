@@ -0,0 +1,152 @@
+package com.library.security;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.library.repository.RevokedTokenRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+
+// In-memory copy of revoked_tokens, checked on every authenticated request.
+//
+// A Bloom filter over the revoked token ids answers "not revoked" - almost every request - from
+// a few bit reads; only a filter hit is confirmed against the exact set (jti -> expiry). Both are
+// read without locks or allocation. Rows revoked on any instance reach the others by polling
+// revoked_tokens for rows newer than the last poll (with an overlap, so a row committed late
+// isn't missed). Expired ids are dropped hourly and the filter is rebuilt from what is left,
+// since a Bloom filter can't remove entries.
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    // ~1% false positives at the expected size
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ENTRY = 10;
+
+    // Rows committed this long after their revoked_at are still picked up
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    // Filter size; more revocations than this only raise the false positive rate
+    @Value("${jwt.revocation.expected-entries:10000}")
+    private int expectedEntries;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Size is a power of two; the mask comes from the array itself so a swap is one write
+    private volatile AtomicLongArray filter;
+    private volatile LocalDateTime lastPoll;
+
+    public TokenRevocationList(MeterRegistry meterRegistry) {
+        meterRegistry.gaugeMapSize("auth.revoked.tokens", Tags.empty(), revoked);
+    }
+
+    // An empty filter from the start, so no request ever finds it missing
+    @PostConstruct
+    void allocate() {
+        rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        poll();
+    }
+
+    // Lock-free and allocation-free; tokens without an id (issued before revocation existed) can't be revoked
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        AtomicLongArray bits = filter;
+        long h1 = hash(jti, 0x9E3779B97F4A7C15L);
+        long h2 = hash(jti, 0xC2B2AE3D27D4EB4FL) | 1;
+        int mask = (bits.length() << 6) - 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) ((h1 + i * h2) & mask);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        // A false positive is settled here too: the set holds every id the filter was built from
+        return revoked.containsKey(jti);
+    }
+
+    // Local revocations apply at once; other instances see them at their next poll
+    public synchronized void add(String jti, LocalDateTime expiresAt) {
+        revoked.put(jti, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        set(filter, jti);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastPoll != null ? lastPoll.minusSeconds(POLL_OVERLAP_SECONDS) : LocalDateTime.of(1970, 1, 1, 0, 0);
+        int added = 0;
+        for (Object[] row : revokedTokenRepository.findRevokedSince(since, now)) {
+            String jti = (String) row[0];
+            if (!revoked.containsKey(jti)) {
+                add(jti, (LocalDateTime) row[1]);
+                added++;
+            }
+        }
+        lastPoll = now;
+        if (added > 0) {
+            logger.debug("Loaded {} revoked tokens", added);
+        }
+    }
+
+    // Drop ids whose tokens have expired anyway, and rebuild the filter without them
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-ms:3600000}", initialDelayString = "${jwt.revocation.prune-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        int size = Math.max(expectedEntries, revoked.size()) * BITS_PER_ENTRY;
+        int bitCount = Integer.highestOneBit(Math.max(64, size - 1)) << 1;
+        AtomicLongArray bits = new AtomicLongArray(bitCount >>> 6);
+        for (String jti : revoked.keySet()) {
+            set(bits, jti);
+        }
+        filter = bits;
+    }
+
+    private static void set(AtomicLongArray bits, String jti) {
+        int mask = (bits.length() << 6) - 1;
+        long h1 = hash(jti, 0x9E3779B97F4A7C15L);
+        long h2 = hash(jti, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (int) ((h1 + i * h2) & mask);
+            long word = 1L << bit;
+            bits.getAndAccumulate(bit >>> 6, word, (a, b) -> a | b);
+        }
+    }
+
+    // 64-bit hash of the characters, seeded, with a murmur3 finalizer
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
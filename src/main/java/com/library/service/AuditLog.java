@@ -0,0 +1,191 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.library.model.AuditAction;
+import com.library.model.AuditOverflowPolicy;
+import com.library.model.AuditRecord;
+import com.library.repository.AuditRecordRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Security audit trail: logins, failed logins, role changes, borrows and returns.
+//
+// Recording never touches the database on the caller's thread. Producers put the record in a
+// bounded lock-free ring buffer and return; a single writer thread drains it in batches of up
+// to library.audit.batch-size into the sink (audit_log or rotating local files), so a busy
+// minute costs a few multi-row inserts. When the buffer is full the overflow policy either drops
+// the record or lets the caller wait briefly for room; drops are counted, never silent. On
+// shutdown the writer empties the buffer before the application stops.
+@Service
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    @Autowired
+    private AuditSink sink;
+
+    @Autowired
+    private AuditRecordRepository auditRecordRepository;
+
+    @Value("${library.audit.capacity:8192}")
+    private int capacity;
+
+    @Value("${library.audit.batch-size:500}")
+    private int batchSize;
+
+    // How long an idle writer sleeps before looking again; the most a record waits to be written
+    @Value("${library.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${library.audit.overflow:DROP}")
+    private AuditOverflowPolicy overflowPolicy;
+
+    @Value("${library.audit.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    @Value("${library.audit.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter writtenCounter;
+    private final Counter overflowCounter;
+    private final Counter failedCounter;
+
+    private AuditRingBuffer<AuditRecord> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    // True while the writer holds a drained batch that has not reached the sink yet
+    private volatile boolean writing;
+
+    public AuditLog(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.writtenCounter = meterRegistry.counter("audit.records.written");
+        this.overflowCounter = meterRegistry.counter("audit.records.dropped", "reason", "overflow");
+        this.failedCounter = meterRegistry.counter("audit.records.dropped", "reason", "write-failed");
+    }
+
+    @PostConstruct
+    void start() {
+        buffer = new AuditRingBuffer<>(capacity);
+        meterRegistry.gauge("audit.queue.depth", buffer, AuditRingBuffer::size);
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Flush what is queued, then stop the writer
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warn("Audit writer did not finish within {} ms; {} records not written", shutdownTimeoutMs, buffer.size());
+        }
+    }
+
+    // The actor is the signed-in user; the client address comes from the current request
+    public void record(AuditAction action, Long userId, Long bookId, String detail) {
+        record(action, currentActor(), userId, bookId, detail);
+    }
+
+    public void record(AuditAction action, String actor, Long userId, Long bookId, String detail) {
+        AuditRecord record = new AuditRecord(action, actor, userId, bookId, detail, clientIp());
+        if (buffer.offer(record)) {
+            return;
+        }
+        if (overflowPolicy == AuditOverflowPolicy.BLOCK) {
+            LockSupport.unpark(writer);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(50_000);
+                if (buffer.offer(record)) {
+                    return;
+                }
+            }
+        }
+        overflowCounter.increment();
+    }
+
+    // Newest first
+    public List<AuditRecord> getRecent(AuditAction action, int limit) {
+        return auditRecordRepository.findRecent(action, PageRequest.of(0, limit));
+    }
+
+    // Wait until everything recorded so far has been handed to the sink; false on timeout
+    public boolean flush(long timeoutMs) {
+        long target = buffer.offered();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (buffer.consumed() < target || writing) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(1_000_000);
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (true) {
+            writing = true;
+            buffer.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                writing = false;
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+            try {
+                sink.write(batch);
+                writtenCounter.increment(batch.size());
+            } catch (RuntimeException e) {
+                failedCounter.increment(batch.size());
+                logger.error("Could not write {} audit records: {}", batch.size(), e.getMessage(), e);
+            }
+            batch.clear();
+            writing = false;
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+
+    private static String clientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            // Behind a proxy, set server.forward-headers-strategy so this is the client address
+            return servletAttributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
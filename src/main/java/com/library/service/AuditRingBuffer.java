@@ -0,0 +1,92 @@
+package com.library.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded lock-free queue for many producers and one consumer.
+//
+// Every slot carries a sequence number that says whose turn it is: a producer may fill slot
+// (pos % capacity) when its sequence equals pos, and the consumer may take it once it reads
+// pos + 1. Producers claim positions by CAS on the tail; a full buffer fails the offer at once
+// instead of blocking, and nothing here ever takes a lock.
+class AuditRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Written by the consumer only
+    private volatile long head;
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity));
+        if (capacity < requestedCapacity) {
+            capacity <<= 1;
+        }
+        this.mask = capacity - 1;
+        this.items = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // False when the buffer is full
+    boolean offer(T item) {
+        while (true) {
+            long pos = tail.get();
+            int slot = (int) (pos & mask);
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.lazySet(slot, item);
+                    sequences.set(slot, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // else another producer took this position; try the next
+        }
+    }
+
+    // Consumer only: moves up to max items into the list, returns how many
+    int drainTo(List<T> into, int max) {
+        long pos = head;
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) (pos & mask);
+            if (sequences.get(slot) != pos + 1) {
+                break; // empty, or the producer of this slot has not finished writing it
+            }
+            into.add(items.get(slot));
+            items.lazySet(slot, null);
+            sequences.set(slot, pos + mask + 1);
+            pos++;
+            drained++;
+        }
+        head = pos;
+        return drained;
+    }
+
+    // Approximate under concurrent offers
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    // Everything offered so far; the consumer has taken all of it once consumed() reaches this
+    long offered() {
+        return tail.get();
+    }
+
+    long consumed() {
+        return head;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.library.service;
+
+import java.util.List;
+
+import com.library.model.AuditRecord;
+
+// Where the audit writer puts its batches. Selected with library.audit.sink (table or file).
+public interface AuditSink {
+
+    // Writes the whole batch or throws
+    void write(List<AuditRecord> records);
+}
@@ -3,21 +3,52 @@ package com.library.service;
 import com.library.dto.AuthResponse;
 import com.library.dto.LoginRequest;
 import com.library.dto.RegisterRequest;
+import com.library.exception.InvalidTokenException;
 import com.library.exception.ResourceAlreadyExistsException;
+import com.library.model.AuditAction;
+import com.library.model.RefreshToken;
+import com.library.model.RevokedToken;
 import com.library.model.User;
+import com.library.repository.RefreshTokenRepository;
+import com.library.repository.RevokedTokenRepository;
 import com.library.repository.UserRepository;
 import com.library.security.JwtUtil;
+import com.library.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Login hands out a short-lived access token (JWT) and an opaque refresh token. Refreshing
+// rotates the refresh token: the old one is marked used and a new one of the same family is
+// issued. Logout revokes the access token's id and the refresh token's family.
 @Service
 public class AuthService {
     
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -30,6 +61,22 @@ public class AuthService {
     @Autowired
     private AuthenticationManager authenticationManager;
     
+    @Autowired
+    private AuditLog auditLog;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    @Autowired
+    private TokenRevocationList revocationList;
+    
+    // Refresh token validity in seconds
+    @Value("${jwt.refresh-expiration:1209600}")
+    private long refreshExpirationSeconds;
+    
     // Register new user
     public AuthResponse register(RegisterRequest request) {
         // Check if username already exists
@@ -54,43 +101,112 @@ public class AuthService {
         // Save user to database
         User savedUser = userRepository.save(user);
         
-        // Generate JWT token
-        String token = jwtUtil.generateToken(savedUser);
-        
-        // Return response with token
-        return new AuthResponse(
-            token,
-            savedUser.getUsername(),
-            savedUser.getFullName(),
-            savedUser.getEmail(),
-            savedUser.getRole()
-        );
+        // Return response with a new token pair
+        return issueTokens(savedUser, UUID.randomUUID().toString());
     }
     
     // Login user
     public AuthResponse login(LoginRequest request) {
         // Authenticate user with Spring Security
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                request.getUsername(),
-                request.getPassword()
-            )
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                    request.getUsername(),
+                    request.getPassword()
+                )
+            );
+        } catch (AuthenticationException e) {
+            auditLog.record(AuditAction.LOGIN_FAILED, request.getUsername(), null, null, e.getClass().getSimpleName());
+            throw e;
+        }
         
         // Get authenticated user details
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         User user = (User) userDetails; // Cast to our User class
+        auditLog.record(AuditAction.LOGIN, user.getUsername(), user.getId(), null, null);
         
-        // Generate JWT token
-        String token = jwtUtil.generateToken(userDetails);
+        // Return response with a new token pair (a new refresh token family)
+        return issueTokens(user, UUID.randomUUID().toString());
+    }
+    
+    // Trade a refresh token for a new access token and a new refresh token
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public AuthResponse refresh(String rawRefreshToken) {
+        RefreshToken token = refreshTokenRepository.findByHashForUpdate(hash(rawRefreshToken))
+                .orElseThrow(() -> new InvalidTokenException("Refresh token is not valid"));
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getRevokedAt() != null || token.getExpiresAt().isBefore(now)) {
+            throw new InvalidTokenException("Refresh token has expired or was revoked");
+        }
+        if (token.getUsedAt() != null) {
+            // Someone kept a copy of a token that was already rotated: end every session of this login
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            auditLog.record(AuditAction.REFRESH_TOKEN_REUSED, null, token.getUserId(), null, "family " + token.getFamilyId());
+            throw new InvalidTokenException("Refresh token was already used; please log in again");
+        }
+        User user = userRepository.findById(token.getUserId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new InvalidTokenException("Refresh token is not valid"));
+        token.setUsedAt(now);
+        return issueTokens(user, token.getFamilyId());
+    }
+    
+    // Revoke the access token (until it expires) and the refresh token's family; either may be absent
+    @Transactional
+    public void logout(String accessToken, String rawRefreshToken) {
+        Claims claims = accessToken != null ? jwtUtil.parseClaims(accessToken) : null;
+        if (claims != null && claims.getId() != null && !revokedTokenRepository.existsByJti(claims.getId())) {
+            String jti = claims.getId();
+            LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+            revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+            TransactionHooks.afterCommit(() -> revocationList.add(jti, expiresAt));
+        }
+        if (rawRefreshToken != null) {
+            refreshTokenRepository.findByHashForUpdate(hash(rawRefreshToken))
+                    .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+        }
+        auditLog.record(AuditAction.LOGOUT, claims != null ? claims.getSubject() : null, null, null, null);
+    }
+    
+    // Expired refresh tokens and revocations of expired access tokens are dead weight
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        int refreshTokens = refreshTokenRepository.deleteExpired(now);
+        int revocations = revokedTokenRepository.deleteExpired(now);
+        if (refreshTokens + revocations > 0) {
+            logger.info("Deleted {} expired refresh tokens and {} expired revocations", refreshTokens, revocations);
+        }
+    }
+    
+    private AuthResponse issueTokens(User user, String familyId) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String rawRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        refreshTokenRepository.save(new RefreshToken(hash(rawRefreshToken), user.getId(), familyId,
+                LocalDateTime.now().plusSeconds(refreshExpirationSeconds)));
         
-        // Return response with token
-        return new AuthResponse(
-            token,
+        AuthResponse response = new AuthResponse(
+            jwtUtil.generateToken(user),
             user.getUsername(),
             user.getFullName(),
             user.getEmail(),
             user.getRole()
         );
+        response.setExpiresIn(jwtUtil.getExpirationSeconds());
+        response.setRefreshToken(rawRefreshToken);
+        return response;
+    }
+    
+    // Only the hash is stored, so a leaked table can't be replayed
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -1,69 +1,130 @@
 package com.library.service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.library.exception.ResourceAlreadyExistsException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.model.Book;
+import com.library.model.CacheRegion;
+import com.library.model.PurgeTarget;
+import com.library.model.PurgeTask;
 import com.library.repository.BookRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// Single titles are served from an in-process cache. Every write publishes the title to the
+// CacheInvalidationBus; other instances drop their cached copy and re-index it.
 @Service
-public class BookService {
+public class BookService implements CacheInvalidationListener {
 
     @Autowired
     private BookRepository bookRepository;
 
-    //create book
+    @Autowired
+    private CatalogFacetService catalogFacetService;
+
+    @Autowired
+    private BookSuggestService bookSuggestService;
+
+    @Autowired
+    private CopyInventoryService copyInventoryService;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.cache.books.max-entries:10000}")
+    private int maxCachedBooks;
+
+    private EntityCache<Long, Book> bookCache;
+
+    @PostConstruct
+    void createCache() {
+        bookCache = new EntityCache<>("books", maxCachedBooks, meterRegistry);
+    }
+
+    //create book (one copy record per totalCopies)
+    @Transactional
     public Book createBook(Book book){
         if (bookRepository.existsByIsbn(book.getIsbn())){
             throw new ResourceAlreadyExistsException("Book", "ISBN", book.getIsbn());
         }
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        copyInventoryService.syncCopies(savedBook);
+        cacheInvalidationBus.publish(CacheRegion.BOOK, savedBook.getId());
+        TransactionHooks.afterCommit(() -> {
+            catalogFacetService.put(savedBook);
+            bookSuggestService.put(savedBook);
+        });
+        return savedBook;
     }
     
     //Get all books
     public List<Book> getAllBooks(){
-        return bookRepository.findAll();
+        return bookRepository.findByDeletedAtIsNull();
+    }
+
+    //Get several books in one query (GraphQL data loader), deleted ones too: loans still name them
+    public List<Book> getBooksByIds(Collection<Long> ids){
+        return bookRepository.findAllById(ids);
     }
 
-    //Get book by ID
+    public long countBooks(){
+        return bookRepository.countByDeletedAtIsNull();
+    }
+
+    //Get book by ID (cached; the returned book is shared and must not be modified)
     public Optional<Book> getBookById(Long id){
-        return bookRepository.findById(id);
+        return Optional.ofNullable(bookCache.get(id, key -> bookRepository.findByIdAndDeletedAtIsNull(key).orElse(null)));
     }
 
     //Get book by ISBN
     public Optional<Book> getBookByIsbn(String isbn){
-        return bookRepository.findByIsbn(isbn);
+        return bookRepository.findByIsbnAndDeletedAtIsNull(isbn);
     }
 
     //search books by title
     public List<Book> getBooksByTitle(String title){
-        return bookRepository.findByTitleContainingIgnoreCase(title);
+        return bookRepository.findByTitleContainingIgnoreCaseAndDeletedAtIsNull(title);
     }
 
     //search books by author
     public List<Book> getBooksByAuthor(String author){
-        return bookRepository.findByAuthorContainingIgnoreCase(author);
+        return bookRepository.findByAuthorContainingIgnoreCaseAndDeletedAtIsNull(author);
     }
 
     // get Books by category
     public List<Book> getBooksByCategory(String category){
-        return bookRepository.findByCategory(category);
+        return bookRepository.findByCategoryAndDeletedAtIsNull(category);
     }
 
     // get available books only
     public List<Book> getAvailableBooks(){
-        return bookRepository.findByAvailableCopiesGreaterThan(0);
+        return bookRepository.findByAvailableCopiesGreaterThanAndDeletedAtIsNull(0);
     }
 
-    //update book
-
+    //update book (availability is derived from the copy records)
+    @Transactional
     public Book updateBook(Long id, Book bookDetails){
-        Book book = bookRepository.findById(id)
+        Book book = bookRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(()-> new ResourceNotFoundException("Book", "id", id));
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
@@ -71,17 +132,60 @@ public class BookService {
         book.setPublicationYear(bookDetails.getPublicationYear());
         book.setCategory(bookDetails.getCategory());
         book.setTotalCopies(bookDetails.getTotalCopies());
-        book.setAvailableCopies(bookDetails.getAvailableCopies());
         book.setDescription(bookDetails.getDescription());
-
-        return bookRepository.save(book);
+        copyInventoryService.syncCopies(book);
+
+        Book savedBook = bookRepository.save(book);
+        cacheInvalidationBus.publish(CacheRegion.BOOK, id);
+        TransactionHooks.afterCommit(() -> {
+            catalogFacetService.put(savedBook);
+            bookSuggestService.put(savedBook);
+        });
+        return savedBook;
     }
 
-    //Delete book
-    public void deleteBook(Long id){
-        if(!bookRepository.existsById(id)){
+    //Delete book: tombstone it now, purge its copies in the background
+    @Transactional
+    public PurgeTask deleteBook(Long id){
+        if (bookRepository.markDeleted(id, LocalDateTime.now()) == 0){
             throw new ResourceNotFoundException("Book", "id", id);
         }
-        bookRepository.deleteById(id);
+        copyInventoryService.retireCopies(id);
+        PurgeTask task = purgeService.schedule(PurgeTarget.BOOK, id);
+        cacheInvalidationBus.publish(CacheRegion.BOOK, id);
+        TransactionHooks.afterCommit(() -> {
+            catalogFacetService.remove(id);
+            bookSuggestService.remove(id);
+        });
+        return task;
+    }
+
+    // Drop changed titles; for another instance's writes also bring the catalog indexes up to date,
+    // which this instance otherwise only updates for its own writes
+    @Override
+    public void onInvalidate(CacheRegion region, Set<Long> ids, boolean remote){
+        if (region != CacheRegion.BOOK){
+            return;
+        }
+        ids.forEach(bookCache::invalidate);
+        if (remote){
+            Map<Long, Book> current = bookRepository.findByIdInAndDeletedAtIsNull(ids).stream()
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            for (Long id : ids){
+                Book book = current.get(id);
+                if (book != null){
+                    catalogFacetService.put(book);
+                    bookSuggestService.put(book);
+                } else {
+                    catalogFacetService.remove(id);
+                    bookSuggestService.remove(id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onReset(){
+        bookCache.invalidateAll();
     }
 }
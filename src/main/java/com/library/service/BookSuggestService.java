@@ -0,0 +1,593 @@
+package com.library.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.library.dto.BookSuggestView;
+import com.library.dto.BookSuggestion;
+import com.library.model.Book;
+import com.library.model.OutboxEvent;
+import com.library.model.OutboxEventType;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+
+// Type-ahead suggestions for titles and authors, served from memory.
+//
+// The base index is an immutable sorted array of normalized keys packed into one char[] with
+// an int[] of offsets, and per-book data (id, popularity, display strings) in parallel primitive
+// arrays; a prefix query is two binary searches plus a bounded scan. Results for one- and
+// two-character prefixes are precomputed because those ranges are the largest.
+// Writes go to a small sorted overlay that shadows the base by book id, and the overlay is
+// folded into a fresh base in the background once it grows past a threshold.
+@Service
+public class BookSuggestService implements CirculationEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSuggestService.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final String[] LEADING_ARTICLES = {"the ", "a ", "an "};
+
+    static final byte TITLE = 0;
+    static final byte AUTHOR = 1;
+
+    private static final int[] NO_ENTRIES = new int[0];
+
+    // Most suggestions one query may ask for
+    public static final int MAX_LIMIT = 20;
+
+    // Candidates read per suggestion asked for, so shadowed entries and duplicate authors still
+    // leave enough to return
+    private static final int OVERSELECT = 4;
+
+    // Precomputed candidates per one/two character prefix: enough for the largest limit
+    private static final int SHORT_PREFIX_CANDIDATES = MAX_LIMIT * OVERSELECT;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // Keys are truncated to this length, which bounds the key blob at maxKeyLength * entries
+    @Value("${library.suggest.max-key-length:64}")
+    private int maxKeyLength;
+
+    // Entries examined per query beyond which the ranking is best effort
+    @Value("${library.suggest.max-scan:20000}")
+    private int maxScan;
+
+    // Overlay size that triggers a background rebuild
+    @Value("${library.suggest.overlay-threshold:5000}")
+    private int overlayThreshold;
+
+    private volatile Snapshot base = Snapshot.EMPTY;
+    private volatile Overlay overlay = new Overlay();
+    // Overlay being folded into the next base; consulted until the swap
+    private volatile Overlay folding;
+
+    // Borrows not counted in the base
+    private final ConcurrentHashMap<Long, Integer> popularityBumps = new ConcurrentHashMap<>();
+
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    // Book created or updated: shadows any older entries for the same id
+    public void put(Book book) {
+        overlay.put(book.getId(), book.getTitle(), book.getAuthor(), maxKeyLength);
+    }
+
+    public void remove(Long bookId) {
+        overlay.remove(bookId);
+    }
+
+    public void recordBorrow(Long bookId) {
+        popularityBumps.merge(bookId, 1, Integer::sum);
+    }
+
+    // Borrows arrive through the outbox; a redelivered event only over-counts popularity until the next rebuild
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (event.getEventType() == OutboxEventType.BOOK_BORROWED) {
+                recordBorrow(event.getBookId());
+            }
+        }
+    }
+
+    public List<BookSuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query, maxKeyLength);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        Snapshot snapshot = base;
+        Overlay current = overlay;
+        Overlay older = folding;
+        // One suggestion per (type, text): authors appear once even with many books
+        Map<String, BookSuggestion> best = new HashMap<>();
+
+        // Over-select so shadowed entries and duplicate authors still leave enough to return
+        int[] candidates = prefix.length() <= 2
+                ? snapshot.shortPrefixTop.getOrDefault(prefix, NO_ENTRIES)
+                : snapshot.mostPopularInRange(prefix, limit * OVERSELECT, maxScan);
+        for (int entry : candidates) {
+            offerBase(snapshot, entry, current, older, best);
+        }
+
+        if (older != null) {
+            older.scan(prefix, entry -> {
+                if (!current.shadows(entry.bookId)) {
+                    offer(best, entry.type, entry.display, entry.bookId,
+                            popularityOf(snapshot, entry.bookId) + bump(entry.bookId));
+                }
+            });
+        }
+        current.scan(prefix, entry -> offer(best, entry.type, entry.display, entry.bookId,
+                popularityOf(snapshot, entry.bookId) + bump(entry.bookId)));
+
+        List<BookSuggestion> ranked = new ArrayList<>(best.values());
+        ranked.sort(Comparator.comparingInt(BookSuggestion::getPopularity).reversed()
+                .thenComparingInt(s -> s.getText().length())
+                .thenComparing(BookSuggestion::getText));
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    private void offerBase(Snapshot snapshot, int entry, Overlay current, Overlay older, Map<String, BookSuggestion> best) {
+        int slot = snapshot.entrySlot[entry];
+        long bookId = snapshot.bookIds[slot];
+        if (current.shadows(bookId) || (older != null && older.shadows(bookId))) {
+            return;
+        }
+        byte type = snapshot.entryType[entry];
+        String display = type == TITLE ? snapshot.titles[slot] : snapshot.authors[slot];
+        offer(best, type, display, bookId, snapshot.popularity[slot] + bump(bookId));
+    }
+
+    private static void offer(Map<String, BookSuggestion> best, byte type, String display, long bookId, int popularity) {
+        String typeName = type == TITLE ? "title" : "author";
+        String key = typeName + '\u0000' + display;
+        BookSuggestion existing = best.get(key);
+        if (existing == null) {
+            best.put(key, new BookSuggestion(display, typeName, bookId, popularity));
+        } else if (popularity > existing.getPopularity()) {
+            // Same title or author through another book: rank by its most popular book
+            existing.setBookId(bookId);
+            existing.setPopularity(popularity);
+        }
+    }
+
+    private int bump(long bookId) {
+        Integer bump = popularityBumps.get(bookId);
+        return bump == null ? 0 : bump;
+    }
+
+    private static int popularityOf(Snapshot snapshot, long bookId) {
+        int slot = Arrays.binarySearch(snapshot.bookIds, bookId);
+        return slot >= 0 ? snapshot.popularity[slot] : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${library.suggest.rebuild-check-ms:30000}")
+    public void rebuildIfOverlayLarge() {
+        // Popularity bumps only affect ranking of already selected candidates until folded in
+        if (overlay.size() >= overlayThreshold || popularityBumps.size() >= overlayThreshold) {
+            rebuild();
+        }
+    }
+
+    // Freeze the overlay, rebuild the base from the database, then swap. Everything in the
+    // frozen overlay was committed before the reload started, so the new base contains it; the
+    // same goes for the popularity bumps taken with it, which are then subtracted. Bumps that
+    // arrive during the reload stay (a borrow committed just before it is counted twice until
+    // the next rebuild).
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.nanoTime();
+            Overlay frozen = overlay;
+            folding = frozen;
+            overlay = new Overlay();
+            Map<Long, Integer> foldedBumps = new HashMap<>(popularityBumps);
+            Snapshot rebuilt;
+            try {
+                Map<Long, Integer> borrowCounts = new HashMap<>();
+                for (Object[] row : transactionRepository.countBorrowsByBook()) {
+                    borrowCounts.put((Long) row[0], ((Number) row[1]).intValue());
+                }
+                rebuilt = Snapshot.build(bookRepository.findAllSuggestViews(), borrowCounts, maxKeyLength);
+            } catch (RuntimeException e) {
+                // Keep the old base and merge the overlays back so no write is lost
+                Overlay newer = overlay;
+                synchronized (newer) {
+                    frozen.absorb(newer);
+                    overlay = frozen;
+                }
+                folding = null;
+                logger.error("Suggest index rebuild failed, keeping previous index", e);
+                return;
+            }
+            base = rebuilt;
+            folding = null;
+            foldedBumps.forEach((bookId, folded) -> popularityBumps.computeIfPresent(bookId,
+                    (id, bumps) -> bumps > folded ? bumps - folded : null));
+            logger.info("Suggest index rebuilt: {} books, {} keys in {} ms", rebuilt.bookIds.length,
+                    rebuilt.entrySlot.length, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Lowercase, strip accents and punctuation, collapse whitespace
+    static String normalize(String text, int maxLength) {
+        if (text == null) {
+            return "";
+        }
+        String source = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                // Only non-ASCII text pays for decomposition
+                source = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        StringBuilder normalized = new StringBuilder(Math.min(source.length(), maxLength));
+        boolean pendingSpace = false;
+        for (int i = 0; i < source.length() && normalized.length() < maxLength; i++) {
+            char c = source.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                    if (normalized.length() == maxLength) {
+                        break;
+                    }
+                }
+                normalized.append(Character.toLowerCase(c));
+            } else if (normalized.length() > 0) {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // Title, title without a leading article, author, and author surname
+    static List<String> keysFor(byte type, String text, int maxLength) {
+        String key = normalize(text, maxLength);
+        List<String> keys = new ArrayList<>(2);
+        if (key.isEmpty()) {
+            return keys;
+        }
+        keys.add(key);
+        if (type == TITLE) {
+            for (String article : LEADING_ARTICLES) {
+                if (key.startsWith(article) && key.length() > article.length()) {
+                    keys.add(key.substring(article.length()));
+                }
+            }
+        } else {
+            int lastSpace = key.lastIndexOf(' ');
+            if (lastSpace > 0) {
+                keys.add(key.substring(lastSpace + 1));
+            }
+        }
+        return keys;
+    }
+
+    // Immutable base index
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new char[0], new int[1], new int[0], new byte[0],
+                new long[0], new int[0], new String[0], new String[0], Map.of());
+
+        // Sorted keys: key i is keyChars[keyOffsets[i], keyOffsets[i + 1])
+        final char[] keyChars;
+        final int[] keyOffsets;
+        final int[] entrySlot;
+        final byte[] entryType;
+
+        // Per book, sorted by id. Display strings stay Strings: compact (Latin-1) strings use one
+        // byte per char, half of a char[] blob, and repeated author names share one instance.
+        final long[] bookIds;
+        final int[] popularity;
+        final String[] titles;
+        final String[] authors;
+
+        final Map<String, int[]> shortPrefixTop;
+
+        Snapshot(char[] keyChars, int[] keyOffsets, int[] entrySlot, byte[] entryType, long[] bookIds,
+                 int[] popularity, String[] titles, String[] authors, Map<String, int[]> shortPrefixTop) {
+            this.keyChars = keyChars;
+            this.keyOffsets = keyOffsets;
+            this.entrySlot = entrySlot;
+            this.entryType = entryType;
+            this.bookIds = bookIds;
+            this.popularity = popularity;
+            this.titles = titles;
+            this.authors = authors;
+            this.shortPrefixTop = shortPrefixTop;
+        }
+
+        static Snapshot build(List<BookSuggestView> views, Map<Long, Integer> borrowCounts, int maxKeyLength) {
+            // Views arrive ordered by id, so slots can be found with a binary search on bookIds
+            int bookCount = views.size();
+            long[] bookIds = new long[bookCount];
+            int[] popularity = new int[bookCount];
+            String[] titles = new String[bookCount];
+            String[] authors = new String[bookCount];
+
+            Map<String, String> authorNames = new HashMap<>();
+            List<KeyEntry> keyEntries = new ArrayList<>(bookCount * 2);
+            Map<String, KeyEntry> authorKeys = new HashMap<>();
+            for (int slot = 0; slot < bookCount; slot++) {
+                BookSuggestView view = views.get(slot);
+                String title = view.getTitle();
+                String author = view.getAuthor();
+                bookIds[slot] = view.getId();
+                popularity[slot] = borrowCounts.getOrDefault(bookIds[slot], 0);
+                titles[slot] = title;
+                authors[slot] = author == null ? null : authorNames.computeIfAbsent(author, a -> a);
+                for (String key : keysFor(TITLE, title, maxKeyLength)) {
+                    keyEntries.add(new KeyEntry(key, slot, TITLE));
+                }
+                for (String key : keysFor(AUTHOR, author, maxKeyLength)) {
+                    // One entry per distinct author key, pointing at their most popular book
+                    int bookSlot = slot;
+                    authorKeys.merge(key, new KeyEntry(key, slot, AUTHOR),
+                            (current, candidate) -> popularity[bookSlot] > popularity[current.slot] ? candidate : current);
+                }
+            }
+            keyEntries.addAll(authorKeys.values());
+            keyEntries.sort(null);
+
+            int totalChars = 0;
+            for (KeyEntry entry : keyEntries) {
+                totalChars += entry.key.length();
+            }
+            int entryCount = keyEntries.size();
+            char[] keyChars = new char[totalChars];
+            int[] keyOffsets = new int[entryCount + 1];
+            int[] entrySlot = new int[entryCount];
+            byte[] entryType = new byte[entryCount];
+            int position = 0;
+            for (int i = 0; i < entryCount; i++) {
+                KeyEntry entry = keyEntries.get(i);
+                entry.key.getChars(0, entry.key.length(), keyChars, position);
+                keyOffsets[i] = position;
+                position += entry.key.length();
+                entrySlot[i] = entry.slot;
+                entryType[i] = entry.type;
+            }
+            keyOffsets[entryCount] = position;
+
+            Snapshot snapshot = new Snapshot(keyChars, keyOffsets, entrySlot, entryType, bookIds, popularity,
+                    titles, authors, new HashMap<>());
+            snapshot.precomputeShortPrefixes();
+            return snapshot;
+        }
+
+        // For every 1 and 2 character prefix keep the most popular entries of its range
+        private void precomputeShortPrefixes() {
+            Map<String, List<Integer>> ranges = new LinkedHashMap<>();
+            for (int entry = 0; entry < entrySlot.length; entry++) {
+                int length = keyOffsets[entry + 1] - keyOffsets[entry];
+                for (int prefixLength = 1; prefixLength <= Math.min(2, length); prefixLength++) {
+                    String prefix = new String(keyChars, keyOffsets[entry], prefixLength);
+                    List<Integer> top = ranges.computeIfAbsent(prefix, p -> new ArrayList<>());
+                    top.add(entry);
+                    if (top.size() > SHORT_PREFIX_CANDIDATES * 4) {
+                        trim(top);
+                    }
+                }
+            }
+            for (Map.Entry<String, List<Integer>> range : ranges.entrySet()) {
+                trim(range.getValue());
+                shortPrefixTop.put(range.getKey(), range.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        private void trim(List<Integer> entries) {
+            entries.sort(Comparator.comparingInt((Integer e) -> popularity[entrySlot[e]]).reversed());
+            if (entries.size() > SHORT_PREFIX_CANDIDATES) {
+                entries.subList(SHORT_PREFIX_CANDIDATES, entries.size()).clear();
+            }
+        }
+
+        // Up to k entries of the prefix range with the highest popularity, using a primitive
+        // min-heap; ties keep the earliest (shortest, alphabetically first) keys
+        int[] mostPopularInRange(String prefix, int k, int maxScan) {
+            int from = lowerBound(prefix);
+            int to = Math.min(lowerBound(prefix + Character.MAX_VALUE), from + maxScan);
+            int[] heap = new int[Math.min(k, Math.max(0, to - from))];
+            int size = 0;
+            for (int entry = from; entry < to; entry++) {
+                if (size < heap.length) {
+                    heap[size] = entry;
+                    siftUp(heap, size++);
+                } else if (heap.length > 0 && score(entry) > score(heap[0])) {
+                    heap[0] = entry;
+                    siftDown(heap, size);
+                }
+            }
+            return size == heap.length ? heap : Arrays.copyOf(heap, size);
+        }
+
+        private int score(int entry) {
+            return popularity[entrySlot[entry]];
+        }
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (score(heap[parent]) <= score(heap[index])) {
+                    return;
+                }
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && score(heap[left]) < score(heap[smallest])) {
+                    smallest = left;
+                }
+                if (right < size && score(heap[right]) < score(heap[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(heap, smallest, index);
+                index = smallest;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+
+        // First entry whose key is >= prefix
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = entrySlot.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKey(mid, prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compareKey(int entry, String other) {
+            int start = keyOffsets[entry];
+            int length = keyOffsets[entry + 1] - start;
+            int common = Math.min(length, other.length());
+            for (int i = 0; i < common; i++) {
+                int diff = keyChars[start + i] - other.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - other.length();
+        }
+    }
+
+    // Build-time only
+    private static final class KeyEntry implements Comparable<KeyEntry> {
+        final String key;
+        final int slot;
+        final byte type;
+
+        KeyEntry(String key, int slot, byte type) {
+            this.key = key;
+            this.slot = slot;
+            this.type = type;
+        }
+
+        @Override
+        public int compareTo(KeyEntry other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    // Recent writes, searched alongside the base
+    private static final class Overlay {
+
+        // key + '\u0000' + bookId + type keeps keys unique per book
+        private final ConcurrentSkipListMap<String, OverlayEntry> entries = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, List<String>> keysByBook = new ConcurrentHashMap<>();
+        // Books whose older entries (in the base or a folding overlay) are superseded
+        private final Set<Long> shadowed = ConcurrentHashMap.newKeySet();
+
+        synchronized void put(long bookId, String title, String author, int maxKeyLength) {
+            remove(bookId);
+            List<String> keys = new ArrayList<>();
+            for (String key : keysFor(TITLE, title, maxKeyLength)) {
+                String unique = key + '\u0000' + bookId + 't';
+                entries.put(unique, new OverlayEntry(bookId, TITLE, title));
+                keys.add(unique);
+            }
+            for (String key : keysFor(AUTHOR, author, maxKeyLength)) {
+                String unique = key + '\u0000' + bookId + 'a';
+                entries.put(unique, new OverlayEntry(bookId, AUTHOR, author));
+                keys.add(unique);
+            }
+            keysByBook.put(bookId, keys);
+        }
+
+        synchronized void remove(long bookId) {
+            shadowed.add(bookId);
+            List<String> previous = keysByBook.remove(bookId);
+            if (previous != null) {
+                previous.forEach(entries::remove);
+            }
+        }
+
+        // Take over the newer overlay's writes, which supersede ours for the same books
+        synchronized void absorb(Overlay newer) {
+            for (Long bookId : newer.shadowed) {
+                List<String> previous = keysByBook.remove(bookId);
+                if (previous != null) {
+                    previous.forEach(entries::remove);
+                }
+            }
+            shadowed.addAll(newer.shadowed);
+            entries.putAll(newer.entries);
+            keysByBook.putAll(newer.keysByBook);
+        }
+
+        boolean shadows(long bookId) {
+            return shadowed.contains(bookId);
+        }
+
+        void scan(String prefix, Consumer<OverlayEntry> consumer) {
+            entries.subMap(prefix, prefix + Character.MAX_VALUE).values().forEach(consumer);
+        }
+
+        int size() {
+            return shadowed.size();
+        }
+    }
+
+    private static final class OverlayEntry {
+        final long bookId;
+        final byte type;
+        final String display;
+
+        OverlayEntry(long bookId, byte type, String display) {
+            this.bookId = bookId;
+            this.type = type;
+            this.display = display;
+        }
+    }
+}
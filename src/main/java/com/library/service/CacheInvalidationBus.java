@@ -0,0 +1,260 @@
+package com.library.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.model.CacheChange;
+import com.library.model.CacheRegion;
+import com.library.repository.CacheChangeRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+// Tells every instance which books and users changed, so in-process caches and indexes don't
+// serve another instance's stale copy.
+//
+// A write publishes the keys it touched; they are inserted into cache_changes just before its
+// transaction commits (each key once per transaction) and applied on this instance right after.
+// Every instance polls cache_changes for ids above the last one it read - an index range scan
+// that is empty on a quiet system - and hands the keys to the CacheInvalidationListeners in
+// sequence order, coalesced per region. Nothing is delivered before the change is committed.
+// A skipped id may belong to a transaction that has not committed yet, so skipped ids are
+// looked up again on later polls until library.cache.gap-timeout-ms (after that the write was
+// rolled back). An instance that cannot poll for library.cache.max-staleness-ms resets its caches.
+@Service
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    // More missing ids than this at once are not tracked one by one; caches are reset instead
+    private static final int MAX_GAPS = 1000;
+
+    // Ids just below the newest at startup that may still commit
+    private static final int STARTUP_WINDOW = 100;
+
+    @Autowired
+    private CacheChangeRepository cacheChangeRepository;
+
+    // Looked up when polling starts; listeners publish through this bus themselves
+    @Autowired
+    private ObjectProvider<CacheInvalidationListener> listenerProvider;
+
+    @Value("${library.cache.batch-size:500}")
+    private int batchSize;
+
+    @Value("${library.cache.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    @Value("${library.cache.max-staleness-ms:30000}")
+    private long maxStalenessMs;
+
+    @Value("${library.cache.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+
+    private volatile List<CacheInvalidationListener> listeners;
+
+    // Poller state, guarded by this
+    private long lastSeen;
+    private long lastSuccess;
+    private boolean resetSinceSuccess;
+    // Skipped id -> when to stop looking for it
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = meterRegistry.counter("cache.changes.published");
+        this.receivedCounter = meterRegistry.counter("cache.changes.received");
+        meterRegistry.gaugeMapSize("cache.changes.gaps", Tags.empty(), gaps);
+    }
+
+    // Start reading after the newest change; nothing cached so far can be trusted
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void initialize() {
+        lastSeen = Math.max(0, cacheChangeRepository.findMaxId() - STARTUP_WINDOW);
+        readChanges(System.currentTimeMillis());
+        lastSuccess = System.currentTimeMillis();
+        listeners = listenerProvider.orderedStream().toList();
+        listeners.forEach(CacheInvalidationListener::onReset);
+    }
+
+    // Record that an entity changed. Inside a transaction the key is written with it and applied
+    // here after commit; outside one it is written in a transaction of its own.
+    public void publish(CacheRegion region, Long id) {
+        if (id == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionTemplate.executeWithoutResult(status -> publish(region, id));
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingChanges pending && pending.bus() == this) {
+                pending.add(region, id);
+                return;
+            }
+        }
+        PendingChanges pending = new PendingChanges(this);
+        pending.add(region, id);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    @Scheduled(fixedDelayString = "${library.cache.poll-interval-ms:250}")
+    public synchronized void poll() {
+        if (listeners == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<CacheChange> changes;
+        try {
+            changes = readChanges(now);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read cache changes: {}", e.getMessage());
+            if (now - lastSuccess > maxStalenessMs && !resetSinceSuccess) {
+                logger.warn("No cache changes read for {} ms; clearing caches", now - lastSuccess);
+                reset();
+            }
+            return;
+        }
+        lastSuccess = now;
+        resetSinceSuccess = false;
+
+        Map<CacheRegion, Set<Long>> remote = new EnumMap<>(CacheRegion.class);
+        for (CacheChange change : changes) {
+            if (!instanceId.equals(change.getOrigin())) {
+                remote.computeIfAbsent(change.getRegion(), region -> new LinkedHashSet<>()).add(change.getEntityId());
+            }
+        }
+        if (!remote.isEmpty()) {
+            receivedCounter.increment(changes.size());
+            deliver(remote, true);
+        }
+    }
+
+    // The change sequence is only needed until every instance has polled past it
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void deleteOldChanges() {
+        int deleted = transactionTemplate.execute(status ->
+                cacheChangeRepository.deleteOlderThan(LocalDateTime.now().minusMinutes(retentionMinutes)));
+        if (deleted > 0) {
+            logger.debug("Deleted {} old cache changes", deleted);
+        }
+    }
+
+    // New rows in id order, plus skipped ids that have committed since
+    private List<CacheChange> readChanges(long now) {
+        List<CacheChange> changes = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            gaps.values().removeIf(deadline -> deadline < now);
+            if (!gaps.isEmpty()) {
+                for (CacheChange change : cacheChangeRepository.findByIds(new ArrayList<>(gaps.keySet()))) {
+                    gaps.remove(change.getId());
+                    changes.add(change);
+                }
+            }
+        }
+        List<CacheChange> page;
+        do {
+            page = cacheChangeRepository.findAfter(lastSeen, PageRequest.of(0, batchSize));
+            for (CacheChange change : page) {
+                long missing = change.getId() - lastSeen - 1;
+                if (missing > 0 && gaps.size() + missing > MAX_GAPS) {
+                    logger.warn("{} cache change ids missing; clearing caches", missing);
+                    gaps.clear();
+                    reset();
+                } else {
+                    for (long id = lastSeen + 1; id < change.getId(); id++) {
+                        gaps.put(id, now + gapTimeoutMs);
+                    }
+                }
+                lastSeen = change.getId();
+                changes.add(change);
+            }
+        } while (page.size() == batchSize);
+        return changes;
+    }
+
+    private void deliver(Map<CacheRegion, Set<Long>> changes, boolean remote) {
+        List<CacheInvalidationListener> targets = listeners;
+        if (targets == null) {
+            return;
+        }
+        for (CacheInvalidationListener listener : targets) {
+            changes.forEach((region, ids) -> {
+                try {
+                    listener.onInvalidate(region, ids, remote);
+                } catch (RuntimeException e) {
+                    logger.error("Cache listener {} failed on {} {}: {}", listener.getClass().getSimpleName(),
+                            region, ids, e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    private void reset() {
+        resetSinceSuccess = true;
+        List<CacheInvalidationListener> targets = listeners;
+        if (targets != null) {
+            targets.forEach(CacheInvalidationListener::onReset);
+        }
+    }
+
+    // Keys published by one transaction
+    private static final class PendingChanges implements TransactionSynchronization {
+
+        private final CacheInvalidationBus bus;
+        private final Map<CacheRegion, Set<Long>> keys = new EnumMap<>(CacheRegion.class);
+
+        PendingChanges(CacheInvalidationBus bus) {
+            this.bus = bus;
+        }
+
+        CacheInvalidationBus bus() {
+            return bus;
+        }
+
+        void add(CacheRegion region, Long id) {
+            keys.computeIfAbsent(region, r -> new LinkedHashSet<>()).add(id);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<CacheChange> rows = new ArrayList<>();
+            keys.forEach((region, ids) -> ids.forEach(id -> rows.add(new CacheChange(region, id, bus.instanceId))));
+            bus.cacheChangeRepository.saveAll(rows);
+            bus.publishedCounter.increment(rows.size());
+        }
+
+        @Override
+        public void afterCommit() {
+            bus.deliver(keys, false);
+        }
+    }
+}
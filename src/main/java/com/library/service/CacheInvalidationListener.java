@@ -0,0 +1,18 @@
+package com.library.service;
+
+import java.util.Set;
+
+import com.library.model.CacheRegion;
+
+// In-process subscriber to entity changes from the CacheInvalidationBus.
+//
+// Changes made on this instance arrive right after their transaction commits (remote is
+// false); changes from other instances arrive at the next poll, in sequence order, with the
+// keys of a poll coalesced per region. Invalidation must be idempotent: a key can come again.
+public interface CacheInvalidationListener {
+
+    void onInvalidate(CacheRegion region, Set<Long> ids, boolean remote);
+
+    // Everything may be stale, e.g. this instance could not read the change sequence for too long
+    void onReset();
+}
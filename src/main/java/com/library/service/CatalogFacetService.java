@@ -0,0 +1,269 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.library.dto.BookFacetView;
+import com.library.dto.FacetCount;
+import com.library.dto.FacetedBrowseResponse;
+import com.library.model.Book;
+import com.library.repository.BookRepository;
+
+// In-memory facet index over the catalog.
+//
+// Each book is reduced to its five facet values, kept in id order. Unfiltered counts are
+// adjusted on every BookService write and TransactionService availability change, so the
+// landing browse page never touches the database for counts. Filtered counts are computed by
+// one scan of the compact entries (no GROUP BY), and only the requested page of books is loaded.
+@Service
+public class CatalogFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogFacetService.class);
+
+    public enum Facet {
+        CATEGORY("category"),
+        AUTHOR("author"),
+        PUBLISHER("publisher"),
+        DECADE("decade"),
+        AVAILABILITY("availability");
+
+        private final String key;
+
+        Facet(String key) { this.key = key; }
+
+        public String getKey() { return key; }
+    }
+
+    private static final Facet[] FACETS = Facet.values();
+    public static final String AVAILABLE = "available";
+    public static final String UNAVAILABLE = "unavailable";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    // book id -> facet values indexed by Facet ordinal (null when the book has no value)
+    private final ConcurrentSkipListMap<Long, String[]> entries = new ConcurrentSkipListMap<>();
+
+    private final EnumMap<Facet, ConcurrentHashMap<String, AtomicLong>> counts = new EnumMap<>(Facet.class);
+
+    public CatalogFacetService() {
+        for (Facet facet : FACETS) {
+            counts.put(facet, new ConcurrentHashMap<>());
+        }
+    }
+
+    // Build the index once from a narrow projection; later changes are applied incrementally
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        entries.clear();
+        counts.values().forEach(Map::clear);
+        for (BookFacetView view : bookRepository.findAllFacetViews()) {
+            String[] values = facetValues(view.getCategory(), view.getAuthor(), view.getPublisher(),
+                    view.getPublicationYear(), view.getAvailableCopies());
+            entries.put(view.getId(), values);
+            adjust(values, 1);
+        }
+        logger.info("Catalog facet index built for {} books", entries.size());
+    }
+
+    // Book created or updated
+    public synchronized void put(Book book) {
+        String[] values = facetValues(book.getCategory(), book.getAuthor(), book.getPublisher(),
+                book.getPublicationYear(), book.getAvailableCopies());
+        String[] previous = entries.put(book.getId(), values);
+        if (previous != null) {
+            adjust(previous, -1);
+        }
+        adjust(values, 1);
+    }
+
+    public synchronized void remove(Long bookId) {
+        String[] previous = entries.remove(bookId);
+        if (previous != null) {
+            adjust(previous, -1);
+        }
+    }
+
+    // Borrow or return changed the number of copies on the shelf
+    public synchronized void updateAvailability(Long bookId, Integer availableCopies) {
+        String[] previous = entries.get(bookId);
+        String availability = availability(availableCopies);
+        if (previous == null || availability.equals(previous[Facet.AVAILABILITY.ordinal()])) {
+            return;
+        }
+        String[] values = previous.clone();
+        values[Facet.AVAILABILITY.ordinal()] = availability;
+        entries.put(bookId, values);
+        increment(Facet.AVAILABILITY, previous[Facet.AVAILABILITY.ordinal()], -1);
+        increment(Facet.AVAILABILITY, availability, 1);
+    }
+
+    // Page of books matching every filter, plus per-facet counts. Counts for a facet ignore
+    // that facet's own filter so the UI can offer the alternatives next to the current choice.
+    public FacetedBrowseResponse browse(Map<Facet, String> filters, int page, int size, int facetLimit) {
+        long offset = (long) page * size;
+        List<Long> pageIds = new ArrayList<>(size);
+        long total = 0;
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+
+        if (filters.isEmpty()) {
+            // Every book has exactly one availability value, so those two counters sum to the total
+            for (AtomicLong count : counts.get(Facet.AVAILABILITY).values()) {
+                total += count.get();
+            }
+            long position = 0;
+            for (Long id : entries.keySet()) {
+                if (pageIds.size() == size) {
+                    break;
+                }
+                if (position++ >= offset) {
+                    pageIds.add(id);
+                }
+            }
+            for (Facet facet : FACETS) {
+                facets.put(facet.getKey(), top(counts.get(facet), AtomicLong::get, facetLimit));
+            }
+        } else {
+            String[] wanted = new String[FACETS.length];
+            filters.forEach((facet, value) -> wanted[facet.ordinal()] = normalizeFilter(facet, value));
+
+            List<Map<String, long[]>> filteredCounts = new ArrayList<>(FACETS.length);
+            for (int i = 0; i < FACETS.length; i++) {
+                filteredCounts.add(new HashMap<>());
+            }
+
+            for (Map.Entry<Long, String[]> entry : entries.entrySet()) {
+                String[] values = entry.getValue();
+                int mismatches = 0;
+                int mismatchedFacet = -1;
+                for (int i = 0; i < FACETS.length && mismatches < 2; i++) {
+                    if (wanted[i] != null && !wanted[i].equalsIgnoreCase(values[i])) {
+                        mismatches++;
+                        mismatchedFacet = i;
+                    }
+                }
+                if (mismatches == 0) {
+                    if (total >= offset && pageIds.size() < size) {
+                        pageIds.add(entry.getKey());
+                    }
+                    total++;
+                    for (int i = 0; i < FACETS.length; i++) {
+                        count(filteredCounts.get(i), values[i]);
+                    }
+                } else if (mismatches == 1) {
+                    // Matches everything except one facet: counts towards that facet's alternatives
+                    count(filteredCounts.get(mismatchedFacet), values[mismatchedFacet]);
+                }
+            }
+            for (Facet facet : FACETS) {
+                facets.put(facet.getKey(), top(filteredCounts.get(facet.ordinal()), c -> c[0], facetLimit));
+            }
+        }
+
+        return new FacetedBrowseResponse(loadInOrder(pageIds), total, page, size, facets);
+    }
+
+    private List<Book> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Book> byId = bookRepository.findByIdInAndDeletedAtIsNull(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Book> books = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    private void adjust(String[] values, int delta) {
+        for (Facet facet : FACETS) {
+            increment(facet, values[facet.ordinal()], delta);
+        }
+    }
+
+    private void increment(Facet facet, String value, int delta) {
+        if (value == null) {
+            return;
+        }
+        ConcurrentHashMap<String, AtomicLong> facetCounts = counts.get(facet);
+        long updated = facetCounts.computeIfAbsent(value, v -> new AtomicLong()).addAndGet(delta);
+        if (updated <= 0) {
+            facetCounts.remove(value);
+        }
+    }
+
+    private static void count(Map<String, long[]> target, String value) {
+        if (value != null) {
+            target.computeIfAbsent(value, v -> new long[1])[0]++;
+        }
+    }
+
+    private static <T> List<FacetCount> top(Map<String, T> source, ToLongFunction<T> count, int limit) {
+        return source.entrySet().stream()
+                .map(e -> new FacetCount(e.getKey(), count.applyAsLong(e.getValue())))
+                .filter(c -> c.getCount() > 0)
+                .sorted(Comparator.comparingLong(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static String[] facetValues(String category, String author, String publisher,
+                                        Integer publicationYear, Integer availableCopies) {
+        String[] values = new String[FACETS.length];
+        values[Facet.CATEGORY.ordinal()] = blankToNull(category);
+        values[Facet.AUTHOR.ordinal()] = blankToNull(author);
+        values[Facet.PUBLISHER.ordinal()] = blankToNull(publisher);
+        values[Facet.DECADE.ordinal()] = publicationYear != null ? decade(publicationYear) : null;
+        values[Facet.AVAILABILITY.ordinal()] = availability(availableCopies);
+        return values;
+    }
+
+    private static String availability(Integer availableCopies) {
+        return availableCopies != null && availableCopies > 0 ? AVAILABLE : UNAVAILABLE;
+    }
+
+    // "1990s" -> 1990-1999
+    private static String decade(int year) {
+        return Math.floorDiv(year, 10) * 10 + "s";
+    }
+
+    // The decade filter takes "1990s" or any year in it ("1990", "1995"); anything else matches nothing
+    private static String normalizeFilter(Facet facet, String value) {
+        String trimmed = value.trim();
+        if (facet == Facet.DECADE) {
+            String year = trimmed.endsWith("s") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+            try {
+                return decade(Integer.parseInt(year));
+            } catch (NumberFormatException e) {
+                return trimmed;
+            }
+        }
+        return trimmed;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,16 @@
+package com.library.service;
+
+import java.util.List;
+
+import com.library.model.OutboxEvent;
+
+// In-process subscriber to circulation events relayed from the outbox.
+//
+// Events arrive in outbox order for each book. Delivery is at least once: when any consumer
+// fails, the batch is delivered again event by event to every consumer, so handlers must
+// tolerate seeing an event twice. Handlers run inside the relay's transaction; throwing
+// makes the event retry with backoff.
+public interface CirculationEventConsumer {
+
+    void onEvents(List<OutboxEvent> events);
+}
@@ -0,0 +1,269 @@
+package com.library.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.dto.CirculationReport;
+import com.library.dto.CirculationSummary;
+import com.library.model.CirculationDaily;
+import com.library.model.CirculationRollupState;
+import com.library.model.OutboxEvent;
+import com.library.model.OutboxEventType;
+import com.library.model.TransactionType;
+import com.library.repository.BookRepository;
+import com.library.repository.CirculationDailyRepository;
+import com.library.repository.CirculationRollupStateRepository;
+import com.library.repository.TransactionRepository;
+
+// Daily circulation rollups (circulation_daily) for reports.
+//
+// Each row counts one day's borrows or returns of one category, plus the fines charged on
+// those returns, so a report over any date range sums at most days x categories x 2 rows no
+// matter how long the history is. Rows are kept current from relayed borrow/return events:
+// a batch is folded into one increment per (day, category, type) inside the relay's
+// transaction, so the rollup commits together with the event being marked published.
+//
+// History before the rollups existed is filled in by a backfill that scans transactions in
+// id ranges on a small pool. The two writers never touch the same days: the first start picks
+// liveFrom, the day after it, and events count only from liveFrom on; the backfill replaces
+// every day before it. It runs at startup and nightly until a run after liveFrom completes it.
+@Service
+public class CirculationRollupService implements CirculationEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CirculationRollupService.class);
+
+    @Autowired
+    private CirculationDailyRepository circulationDailyRepository;
+
+    @Autowired
+    private CirculationRollupStateRepository stateRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    // 0 = min(4, available processors)
+    @Value("${library.rollups.backfill-threads:0}")
+    private int backfillThreads;
+
+    @Value("${library.rollups.backfill-chunk-size:20000}")
+    private int chunkSize;
+
+    private final TransactionTemplate newTransaction;
+
+    // Never changes once the state row exists
+    private volatile LocalDate liveFrom;
+
+    public CirculationRollupService(PlatformTransactionManager transactionManager) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        liveFrom();
+        backfillIfIncomplete();
+    }
+
+    @Scheduled(cron = "${library.rollups.backfill-cron:0 15 0 * * *}")
+    public void backfillIfIncomplete() {
+        boolean complete = stateRepository.findById(CirculationRollupState.ID)
+                .map(state -> state.getBackfilledAt() != null)
+                .orElse(false);
+        if (!complete) {
+            backfill();
+        }
+    }
+
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        LocalDate live = liveFrom();
+        List<OutboxEvent> counted = new ArrayList<>(events.size());
+        Set<Long> bookIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (!event.getOccurredAt().toLocalDate().isBefore(live)) {
+                counted.add(event);
+                bookIds.add(event.getBookId());
+            }
+        }
+        if (counted.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> categories = new HashMap<>();
+        for (Object[] row : bookRepository.findCategoriesByIds(bookIds)) {
+            categories.put((Long) row[0], row[1] != null ? (String) row[1] : "");
+        }
+        Map<String, CirculationDaily> increments = new LinkedHashMap<>();
+        for (OutboxEvent event : counted) {
+            boolean borrowed = event.getEventType() == OutboxEventType.BOOK_BORROWED;
+            double fine = !borrowed && event.getFine() != null ? event.getFine() : 0;
+            add(increments, event.getOccurredAt().toLocalDate(), categories.getOrDefault(event.getBookId(), ""),
+                    borrowed ? TransactionType.BORROW : TransactionType.RETURN, 1, fine);
+        }
+        for (CirculationDaily increment : increments.values()) {
+            int updated = circulationDailyRepository.increment(increment.getActivityDate(), increment.getCategory(),
+                    increment.getTransactionType(), increment.getTransactionCount(), increment.getFines());
+            if (updated == 0) {
+                // A concurrent insert of the same row fails the batch, which is then retried
+                circulationDailyRepository.save(increment);
+            }
+        }
+    }
+
+    public CirculationReport report(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Report start " + from + " is after its end " + to);
+        }
+        CirculationSummary total = new CirculationSummary("total");
+        Map<String, CirculationSummary> byCategory = new HashMap<>();
+        for (Object[] row : circulationDailyRepository.sumByCategory(from, to)) {
+            long count = ((Number) row[2]).longValue();
+            double fines = ((Number) row[3]).doubleValue();
+            boolean borrow = row[1] == TransactionType.BORROW;
+            byCategory.computeIfAbsent((String) row[0], CirculationSummary::new)
+                    .add(borrow ? count : 0, borrow ? 0 : count, fines);
+            total.add(borrow ? count : 0, borrow ? 0 : count, fines);
+        }
+        Map<LocalDate, CirculationSummary> byDay = new TreeMap<>();
+        for (Object[] row : circulationDailyRepository.sumByDay(from, to)) {
+            long count = ((Number) row[2]).longValue();
+            boolean borrow = row[1] == TransactionType.BORROW;
+            byDay.computeIfAbsent((LocalDate) row[0], day -> new CirculationSummary(day.toString()))
+                    .add(borrow ? count : 0, borrow ? 0 : count, ((Number) row[3]).doubleValue());
+        }
+
+        List<CirculationSummary> categories = new ArrayList<>(byCategory.values());
+        categories.sort(Comparator.comparingLong(CirculationSummary::getBorrows).reversed()
+                .thenComparing(CirculationSummary::getLabel));
+        return new CirculationReport(from, to, total, categories, new ArrayList<>(byDay.values()));
+    }
+
+    // Recount every day before liveFrom from transactions and replace those rows. A run before
+    // liveFrom has started leaves the state incomplete, so the nightly run finishes the last day.
+    public int backfill() {
+        LocalDate live = liveFrom();
+        LocalDateTime before = live.atStartOfDay();
+        long started = System.currentTimeMillis();
+        long maxId = transactionRepository.findMaxId();
+
+        Map<String, CirculationDaily> rows = new ConcurrentHashMap<>();
+        if (maxId > 0) {
+            int threads = backfillThreads > 0 ? backfillThreads : Math.min(4, Runtime.getRuntime().availableProcessors());
+            AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "rollup-backfill-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<?>> chunks = new ArrayList<>();
+                for (long from = 1; from <= maxId; from += chunkSize) {
+                    long chunkFrom = from;
+                    long chunkTo = Math.min(maxId, from + chunkSize - 1);
+                    chunks.add(pool.submit(() -> countChunk(chunkFrom, chunkTo, before, rows)));
+                }
+                await(chunks);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        boolean complete = !LocalDateTime.now().isBefore(before);
+        Boolean written = newTransaction.execute(status -> {
+            CirculationRollupState state = stateRepository.findForUpdate(CirculationRollupState.ID).orElseThrow();
+            if (state.getBackfilledAt() != null) {
+                return false; // another instance finished first
+            }
+            circulationDailyRepository.deleteBefore(live);
+            circulationDailyRepository.saveAll(rows.values());
+            if (complete) {
+                state.setBackfilledAt(LocalDateTime.now());
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(written)) {
+            logger.info("Circulation rollups backfilled before {}: {} rows from {} transactions in {} ms{}",
+                    live, rows.size(), maxId, System.currentTimeMillis() - started, complete ? "" : " (until tomorrow)");
+        }
+        return rows.size();
+    }
+
+    private void countChunk(long fromId, long toId, LocalDateTime before, Map<String, CirculationDaily> rows) {
+        for (Object[] row : transactionRepository.countByDayCategoryAndType(fromId, toId, before)) {
+            add(rows, (LocalDate) row[0], (String) row[1], (TransactionType) row[2], ((Number) row[3]).longValue(), 0);
+        }
+        for (Object[] row : transactionRepository.sumFinesByReturnDayAndCategory(fromId, toId, before)) {
+            add(rows, (LocalDate) row[0], (String) row[1], TransactionType.RETURN, 0, ((Number) row[2]).doubleValue());
+        }
+    }
+
+    private static void add(Map<String, CirculationDaily> rows, LocalDate day, String category, TransactionType type,
+                            long count, double fines) {
+        rows.merge(day + "|" + type + "|" + category, new CirculationDaily(day, category, type, count, fines),
+                (existing, more) -> {
+                    existing.setTransactionCount(existing.getTransactionCount() + more.getTransactionCount());
+                    existing.setFines(existing.getFines() + more.getFines());
+                    return existing;
+                });
+    }
+
+    // The first instance to start decides; later ones read its choice
+    private LocalDate liveFrom() {
+        LocalDate live = liveFrom;
+        if (live == null) {
+            try {
+                live = newTransaction.execute(status -> stateRepository.findById(CirculationRollupState.ID)
+                        .orElseGet(() -> stateRepository.saveAndFlush(new CirculationRollupState(LocalDate.now().plusDays(1))))
+                        .getLiveFrom());
+            } catch (DataIntegrityViolationException e) {
+                live = stateRepository.findById(CirculationRollupState.ID).orElseThrow().getLiveFrom();
+            }
+            liveFrom = live;
+        }
+        return live;
+    }
+
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backfilling circulation rollups", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.exception.BookNotAvailableException;
+import com.library.exception.ResourceAlreadyExistsException;
+import com.library.exception.ResourceNotFoundException;
+import com.library.model.Book;
+import com.library.model.BookCopy;
+import com.library.model.CacheRegion;
+import com.library.model.CopyStatus;
+import com.library.repository.BookCopyRepository;
+import com.library.repository.BookRepository;
+
+// Copy-level inventory.
+//
+// A borrow claims one book_copies row (locked with SKIP LOCKED or compare-and-set by barcode),
+// so borrows of different copies of a title never wait on each other or on the books row.
+// Per-title availability is derived from the copy rows: it is held in memory, adjusted after
+// each commit, and a background flush recounts books.available_copies from the copy rows so
+// existing readers of that column (catalog lists, the available filter) stay current within a
+// second.
+@Service
+public class CopyInventoryService implements CacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CopyInventoryService.class);
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogFacetService catalogFacetService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // book id -> copies on the shelf
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    // Titles whose cached availability hasn't been written to books yet
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public CopyInventoryService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Give titles that predate copy rows one copy per totalCopies, then load the aggregate
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Integer migrated = transactionTemplate.execute(status -> {
+            List<Book> books = bookRepository.findBooksWithoutCopies();
+            for (Book book : books) {
+                int total = book.getTotalCopies() != null ? book.getTotalCopies() : 0;
+                int onShelf = book.getAvailableCopies() != null ? Math.min(book.getAvailableCopies(), total) : total;
+                List<BookCopy> copies = new ArrayList<>(total);
+                for (int i = 0; i < total; i++) {
+                    BookCopy copy = new BookCopy(book, barcode(book.getId(), i + 1), null);
+                    copy.setStatus(i < onShelf ? CopyStatus.AVAILABLE : CopyStatus.ON_LOAN);
+                    copies.add(copy);
+                }
+                bookCopyRepository.saveAll(copies);
+            }
+            return books.size();
+        });
+        if (migrated != null && migrated > 0) {
+            logger.info("Created copy records for {} titles", migrated);
+        }
+        refresh();
+    }
+
+    // Recount from the copy rows, e.g. after changes made by another instance
+    @Scheduled(fixedDelayString = "${library.copies.refresh-interval-ms:300000}",
+               initialDelayString = "${library.copies.refresh-interval-ms:300000}")
+    public void refresh() {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : bookCopyRepository.countAvailableByBook()) {
+            counts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        for (Map.Entry<Long, AtomicInteger> entry : available.entrySet()) {
+            if (!counts.containsKey(entry.getKey()) && entry.getValue().getAndSet(0) != 0) {
+                dirty.add(entry.getKey());
+            }
+        }
+        counts.forEach((bookId, count) -> {
+            if (available.computeIfAbsent(bookId, id -> new AtomicInteger()).getAndSet(count) != count) {
+                dirty.add(bookId);
+            }
+        });
+    }
+
+    public int getAvailableCopies(Long bookId) {
+        AtomicInteger count = available.get(bookId);
+        return count != null ? count.get() : 0;
+    }
+
+    // Claim any shelf copy of the title for a loan
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BookCopy claimCopy(Book book) {
+        List<BookCopy> copies = bookCopyRepository.lockByBookAndStatus(book.getId(), CopyStatus.AVAILABLE, PageRequest.of(0, 1));
+        if (copies.isEmpty()) {
+            throw new BookNotAvailableException("Book '" + book.getTitle() + "' is not available for borrowing");
+        }
+        BookCopy copy = copies.get(0);
+        copy.setStatus(CopyStatus.ON_LOAN);
+        afterCommitAdjust(book.getId(), -1);
+        return copy;
+    }
+
+    // Claim the scanned copy for a loan
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claimCopy(BookCopy copy) {
+        if (bookCopyRepository.transition(copy.getId(), CopyStatus.AVAILABLE, CopyStatus.ON_LOAN) == 0) {
+            throw new BookNotAvailableException("Copy " + copy.getBarcode() + " is not available for borrowing");
+        }
+        afterCommitAdjust(copy.getBookId(), -1);
+    }
+
+    // Put the lent copy back on the shelf. Loans from before copy records name no copy, so a
+    // lent copy of the title that no other outstanding loan names is released instead.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseCopy(Long bookId, Long copyId) {
+        boolean released;
+        if (copyId != null) {
+            released = bookCopyRepository.transition(copyId, CopyStatus.ON_LOAN, CopyStatus.AVAILABLE) == 1;
+        } else {
+            List<BookCopy> onLoan = bookCopyRepository.lockUnassignedOnLoan(bookId, PageRequest.of(0, 1));
+            released = !onLoan.isEmpty();
+            if (released) {
+                onLoan.get(0).setStatus(CopyStatus.AVAILABLE);
+            }
+        }
+        if (released) {
+            afterCommitAdjust(bookId, 1);
+        } else {
+            logger.warn("No copy of book {} to release (copy {})", bookId, copyId);
+        }
+    }
+
+    public BookCopy getByBarcode(String barcode) {
+        return bookCopyRepository.findByBarcode(barcode)
+                .orElseThrow(() -> new ResourceNotFoundException("Copy", "barcode", barcode));
+    }
+
+    public List<BookCopy> getCopies(Long bookId) {
+        return bookCopyRepository.findByBook_IdOrderById(bookId);
+    }
+
+    @Transactional
+    public BookCopy addCopy(Long bookId, String barcode, String location) {
+        Book book = bookRepository.findByIdAndDeletedAtIsNull(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book", "id", bookId));
+        BookCopy copy;
+        if (barcode == null || barcode.isBlank()) {
+            copy = newCopies(book, 1, location).get(0);
+        } else {
+            if (bookCopyRepository.existsByBarcode(barcode.trim())) {
+                throw new ResourceAlreadyExistsException("Copy", "barcode", barcode);
+            }
+            copy = new BookCopy(book, barcode.trim(), location);
+        }
+        BookCopy saved = bookCopyRepository.save(copy);
+        book.setTotalCopies((int) bookCopyRepository.countByBook_IdAndStatusNot(bookId, CopyStatus.WITHDRAWN));
+        afterCommitAdjust(bookId, 1);
+        return saved;
+    }
+
+    // Mark a copy lost, withdrawn or found again; loans go through claimCopy/releaseCopy
+    @Transactional
+    public BookCopy updateStatus(String barcode, CopyStatus status) {
+        if (status == CopyStatus.ON_LOAN) {
+            throw new IllegalArgumentException("Copies are put on loan by borrowing them");
+        }
+        BookCopy copy = getByBarcode(barcode);
+        CopyStatus previous = copy.getStatus();
+        if (previous == CopyStatus.ON_LOAN) {
+            throw new IllegalArgumentException("Copy " + barcode + " is on loan; return it first");
+        }
+        if (previous == status || bookCopyRepository.transition(copy.getId(), previous, status) == 0) {
+            return copy;
+        }
+        copy.setStatus(status);
+        if (previous == CopyStatus.AVAILABLE) {
+            afterCommitAdjust(copy.getBookId(), -1);
+        } else if (status == CopyStatus.AVAILABLE) {
+            afterCommitAdjust(copy.getBookId(), 1);
+        }
+        return copy;
+    }
+
+    // Copies for a new title, or extra/withdrawn copies after totalCopies was edited
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void syncCopies(Book book) {
+        int target = book.getTotalCopies() != null ? book.getTotalCopies() : 0;
+        List<BookCopy> copies = bookCopyRepository.findByBook_IdOrderById(book.getId());
+        int inService = 0;
+        for (BookCopy copy : copies) {
+            if (copy.getStatus() != CopyStatus.WITHDRAWN) {
+                inService++;
+            }
+        }
+        int delta = 0;
+        if (target > inService) {
+            bookCopyRepository.saveAll(newCopies(book, target - inService, null));
+            delta = target - inService;
+        } else {
+            // Withdraw shelf copies, newest first; copies on loan stay until returned
+            for (int i = copies.size() - 1; i >= 0 && inService > target; i--) {
+                BookCopy copy = copies.get(i);
+                if (copy.getStatus() == CopyStatus.AVAILABLE) {
+                    copy.setStatus(CopyStatus.WITHDRAWN);
+                    inService--;
+                    delta--;
+                }
+            }
+            book.setTotalCopies(inService);
+        }
+        // The count query flushes the inserts and withdrawals above first
+        book.setAvailableCopies((int) bookCopyRepository.countAvailable(book.getId()));
+        afterCommitAdjust(book.getId(), delta);
+    }
+
+    // Withdraw the shelf copies of a title being deleted; the purge job removes the rows later.
+    // Copies on loan have to come back first.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retireCopies(Long bookId) {
+        bookCopyRepository.withdrawShelfCopies(bookId);
+        long onLoan = bookCopyRepository.countByBookAndStatus(bookId, CopyStatus.ON_LOAN);
+        if (onLoan > 0) {
+            throw new IllegalArgumentException("Book has " + onLoan + " copies on loan; they must be returned before it is deleted");
+        }
+        TransactionHooks.afterCommit(() -> {
+            available.remove(bookId);
+            dirty.remove(bookId);
+        });
+    }
+
+    // Recount changed titles into books in one short transaction
+    @Scheduled(fixedDelayString = "${library.copies.flush-interval-ms:1000}")
+    public void flushAvailability() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Long> bookIds = new ArrayList<>(dirty);
+        dirty.removeAll(bookIds);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookRepository.recountAvailableCopies(bookIds);
+                for (Long bookId : bookIds) {
+                    cacheInvalidationBus.publish(CacheRegion.BOOK, bookId);
+                }
+            });
+        } catch (RuntimeException e) {
+            dirty.addAll(bookIds);
+            logger.warn("Availability flush for {} titles failed, will retry: {}", bookIds.size(), e.getMessage());
+        }
+    }
+
+    // Copies lent, returned or changed on another instance: recount those titles from the copy
+    // rows. Not marked dirty, the instance that changed them writes books itself.
+    @Override
+    public void onInvalidate(CacheRegion region, Set<Long> ids, boolean remote) {
+        if (region != CacheRegion.BOOK || !remote) {
+            return;
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : bookCopyRepository.countAvailableByBooks(ids)) {
+            counts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        for (Long bookId : ids) {
+            int count = counts.getOrDefault(bookId, 0);
+            AtomicInteger current = count > 0 ? available.computeIfAbsent(bookId, id -> new AtomicInteger()) : available.get(bookId);
+            if (current != null && current.getAndSet(count) != count) {
+                catalogFacetService.updateAvailability(bookId, count);
+            }
+        }
+    }
+
+    @Override
+    public void onReset() {
+        refresh();
+    }
+
+    private void afterCommitAdjust(Long bookId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            int count = available.computeIfAbsent(bookId, id -> new AtomicInteger()).addAndGet(delta);
+            dirty.add(bookId);
+            catalogFacetService.updateAvailability(bookId, count);
+        });
+    }
+
+    private List<BookCopy> newCopies(Book book, int count, String location) {
+        List<BookCopy> copies = new ArrayList<>(count);
+        long sequence = bookCopyRepository.findByBook_IdOrderById(book.getId()).size();
+        while (copies.size() < count) {
+            String barcode = barcode(book.getId(), ++sequence);
+            if (!bookCopyRepository.existsByBarcode(barcode)) {
+                copies.add(new BookCopy(book, barcode, location));
+            }
+        }
+        return copies;
+    }
+
+    // Generated label for copies entered without one: book id and copy number
+    private static String barcode(Long bookId, long sequence) {
+        return String.format("LIB%07d%03d", bookId, sequence);
+    }
+}
@@ -0,0 +1,310 @@
+package com.library.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.dto.LoanDueView;
+import com.library.dto.NotificationMessage;
+import com.library.model.LoanNotice;
+import com.library.model.NoticeKind;
+import com.library.repository.LoanNoticeRepository;
+import com.library.repository.TransactionRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Daily due-date reminders and overdue notices.
+//
+// Active loans due within the next few days (or already overdue) are read page by page with a
+// keyset range scan on (status, due_date), filtered against loan_notices, and grouped into one
+// message per member. Messages are sent in batches on a small bounded pool. Each batch first
+// claims its loan_notices rows, so an overlapping run can't send the same notice, and releases
+// the claims of messages the transport rejected (or of the whole batch when the transport throws)
+// so they are retried on the next run.
+@Service
+public class DueDateNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DueDateNotifier.class);
+
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LoanNoticeRepository loanNoticeRepository;
+
+    @Autowired
+    private NotificationTransport transport;
+
+    @Value("${library.notifications.enabled:true}")
+    private boolean enabled;
+
+    // Remind this many days before the due date
+    @Value("${library.notifications.days-before:2}")
+    private int daysBefore;
+
+    // Repeat the overdue notice every this many days
+    @Value("${library.notifications.overdue-repeat-days:7}")
+    private int overdueRepeatDays;
+
+    @Value("${library.notifications.page-size:500}")
+    private int pageSize;
+
+    @Value("${library.notifications.send-batch-size:50}")
+    private int sendBatchSize;
+
+    @Value("${library.notifications.concurrency:2}")
+    private int concurrency;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private ThreadPoolExecutor executor;
+
+    public DueDateNotifier(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = meterRegistry.counter("notifications.sent");
+        this.failedCounter = meterRegistry.counter("notifications.failed");
+        this.batchTimer = Timer.builder("notifications.batch")
+                .description("Time to claim and send one batch of notices")
+                .register(meterRegistry);
+    }
+
+    // A full queue makes the scheduler thread send the batch itself, which throttles the reader
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(concurrency * 2),
+                task -> {
+                    Thread thread = new Thread(task, "notifier-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Scheduled(cron = "${library.notifications.cron:0 0 8 * * *}")
+    public void sendScheduledNotices() {
+        if (enabled) {
+            sendNotices(LocalDateTime.now());
+        }
+    }
+
+    // Returns the number of messages sent
+    public int sendNotices(LocalDateTime now) {
+        long started = System.nanoTime();
+        Map<Long, MemberDigest> digests = collect(now);
+
+        List<CompletableFuture<Integer>> batches = new ArrayList<>();
+        List<MemberDigest> batch = new ArrayList<>(sendBatchSize);
+        for (MemberDigest digest : digests.values()) {
+            batch.add(digest);
+            if (batch.size() == sendBatchSize) {
+                batches.add(submit(batch));
+                batch = new ArrayList<>(sendBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(submit(batch));
+        }
+
+        int sent = 0;
+        for (CompletableFuture<Integer> future : batches) {
+            sent += future.join();
+        }
+        if (!digests.isEmpty()) {
+            logger.info("Sent {} of {} loan notices in {} ms", sent, digests.size(),
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        }
+        return sent;
+    }
+
+    // Walk the due range once and group the loans still needing a notice by member
+    private Map<Long, MemberDigest> collect(LocalDateTime now) {
+        Map<Long, MemberDigest> digests = new LinkedHashMap<>();
+        LocalDateTime horizon = now.plusDays(daysBefore);
+        LocalDateTime afterDue = START;
+        Long afterId = 0L;
+        while (true) {
+            List<LoanDueView> page = transactionRepository.findDueBefore(horizon, afterDue, afterId,
+                    PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Long> ids = new ArrayList<>(page.size());
+            for (LoanDueView loan : page) {
+                ids.add(loan.getTransactionId());
+            }
+            Set<String> alreadySent = new HashSet<>();
+            for (Object[] row : loanNoticeRepository.findSentKeys(ids)) {
+                alreadySent.add(row[0] + ":" + row[1] + ":" + row[2]);
+            }
+            for (LoanDueView loan : page) {
+                NoticeKind kind = loan.getDueDate().isBefore(now) ? NoticeKind.OVERDUE : NoticeKind.DUE_SOON;
+                String window = windowKey(kind, loan.getDueDate(), now);
+                if (!alreadySent.contains(loan.getTransactionId() + ":" + kind + ":" + window)) {
+                    digests.computeIfAbsent(loan.getUserId(), id -> new MemberDigest(loan.getEmail(), loan.getFullName()))
+                            .add(loan, kind, window);
+                }
+            }
+            LoanDueView last = page.get(page.size() - 1);
+            afterDue = last.getDueDate();
+            afterId = last.getTransactionId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        return digests;
+    }
+
+    private String windowKey(NoticeKind kind, LocalDateTime dueDate, LocalDateTime now) {
+        if (kind == NoticeKind.DUE_SOON) {
+            return dueDate.toLocalDate().toString();
+        }
+        long daysOverdue = ChronoUnit.DAYS.between(dueDate, now);
+        return "overdue-" + daysOverdue / Math.max(1, overdueRepeatDays);
+    }
+
+    private CompletableFuture<Integer> submit(List<MemberDigest> batch) {
+        return CompletableFuture.supplyAsync(() -> batchTimer.record(() -> sendBatch(batch)), executor)
+                .exceptionally(e -> {
+                    logger.error("Notice batch of {} failed: {}", batch.size(), e.getMessage());
+                    failedCounter.increment(batch.size());
+                    return 0;
+                });
+    }
+
+    private int sendBatch(List<MemberDigest> batch) {
+        List<MemberDigest> claimed = new ArrayList<>(batch.size());
+        for (MemberDigest digest : batch) {
+            if (claim(digest)) {
+                claimed.add(digest);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<NotificationMessage> messages = new ArrayList<>(claimed.size());
+        for (MemberDigest digest : claimed) {
+            messages.add(digest.render());
+        }
+        Set<NotificationMessage> failed;
+        try {
+            failed = new HashSet<>(transport.send(messages));
+        } catch (RuntimeException e) {
+            // Nothing is known to have gone out; free every claim so the next run retries them
+            logger.error("Notice batch of {} failed: {}", claimed.size(), e.getMessage());
+            claimed.forEach(this::release);
+            failedCounter.increment(claimed.size());
+            return 0;
+        }
+        for (int i = 0; i < claimed.size(); i++) {
+            if (failed.contains(messages.get(i))) {
+                release(claimed.get(i));
+            }
+        }
+        sentCounter.increment(claimed.size() - failed.size());
+        failedCounter.increment(failed.size());
+        return claimed.size() - failed.size();
+    }
+
+    // Insert the member's notice rows; false when another run already claimed one of them
+    private boolean claim(MemberDigest digest) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    digest.notices = loanNoticeRepository.saveAll(digest.pendingNotices()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(MemberDigest digest) {
+        transactionTemplate.executeWithoutResult(status -> loanNoticeRepository.deleteAll(digest.notices));
+    }
+
+    private static final class MemberDigest {
+        private final String email;
+        private final String fullName;
+        private final List<LoanDueView> overdue = new ArrayList<>();
+        private final List<LoanDueView> dueSoon = new ArrayList<>();
+        private final List<LoanNotice> pending = new ArrayList<>();
+        private List<LoanNotice> notices = List.of();
+
+        MemberDigest(String email, String fullName) {
+            this.email = email;
+            this.fullName = fullName;
+        }
+
+        void add(LoanDueView loan, NoticeKind kind, String window) {
+            (kind == NoticeKind.OVERDUE ? overdue : dueSoon).add(loan);
+            pending.add(new LoanNotice(loan.getTransactionId(), kind, window));
+        }
+
+        List<LoanNotice> pendingNotices() {
+            return pending;
+        }
+
+        NotificationMessage render() {
+            StringBuilder body = new StringBuilder(256);
+            body.append("Hello ").append(fullName).append(",\n\n");
+            if (!overdue.isEmpty()) {
+                body.append("These books are overdue. Please return them as soon as possible; a fine of $1 per day applies:\n");
+                for (LoanDueView loan : overdue) {
+                    body.append("  - ").append(loan.getBookTitle())
+                        .append(" (was due ").append(loan.getDueDate().toLocalDate()).append(")\n");
+                }
+                body.append('\n');
+            }
+            if (!dueSoon.isEmpty()) {
+                body.append("These books are due soon:\n");
+                for (LoanDueView loan : dueSoon) {
+                    body.append("  - ").append(loan.getBookTitle())
+                        .append(" (due ").append(loan.getDueDate().toLocalDate()).append(")\n");
+                }
+                body.append('\n');
+            }
+            body.append("Library Management System");
+
+            String subject = overdue.isEmpty()
+                    ? "Reminder: " + dueSoon.size() + " book(s) due soon"
+                    : "Overdue notice: " + overdue.size() + " book(s) overdue";
+            return new NotificationMessage(email, subject, body.toString());
+        }
+    }
+}
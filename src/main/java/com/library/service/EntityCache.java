@@ -0,0 +1,82 @@
+package com.library.service;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+// Bounded in-process cache of read-mostly rows, kept coherent by the CacheInvalidationBus.
+//
+// A load that overlaps an invalidation is not kept. Every invalidation moves an epoch; a loader
+// that sees it move between starting its read and storing the value takes the value out again,
+// so a read that began before a commit can't re-cache the old row after that commit's
+// invalidation has run. When full, an arbitrary entry makes room. Values are shared by every
+// caller and must not be modified.
+public class EntityCache<K, V> {
+
+    private final ConcurrentHashMap<K, V> entries = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public EntityCache(String name, int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("cache.gets", "cache", name, "result", "hit");
+        this.misses = meterRegistry.counter("cache.gets", "cache", name, "result", "miss");
+        meterRegistry.gaugeMapSize("cache.size", Tags.of("cache", name), entries);
+    }
+
+    // Null when the loader finds nothing; misses are not cached
+    public V get(K key, Function<K, V> loader) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        long loadEpoch = epoch.get();
+        value = loader.apply(key);
+        if (value != null && maxEntries > 0) {
+            if (entries.size() >= maxEntries) {
+                evictOne();
+            }
+            entries.put(key, value);
+            if (epoch.get() != loadEpoch) {
+                entries.remove(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        epoch.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<V> stale) {
+        epoch.incrementAndGet();
+        entries.values().removeIf(stale);
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictOne() {
+        Iterator<K> keys = entries.keySet().iterator();
+        if (keys.hasNext()) {
+            entries.remove(keys.next());
+        }
+    }
+}
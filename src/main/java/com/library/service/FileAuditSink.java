@@ -0,0 +1,82 @@
+package com.library.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.library.model.AuditRecord;
+
+// Appends each batch to a local file, one tab-separated line per record. Files roll over daily
+// and when they pass library.audit.max-file-mb: audit-2024-05-01.log, audit-2024-05-01.1.log, ...
+@Service
+@ConditionalOnProperty(name = "library.audit.sink", havingValue = "file")
+public class FileAuditSink implements AuditSink {
+
+    @Value("${library.audit.file-dir:audit}")
+    private String directory;
+
+    @Value("${library.audit.max-file-mb:50}")
+    private long maxFileMb;
+
+    // Only the audit writer thread calls write
+    private LocalDate day;
+    private int part;
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        StringBuilder out = new StringBuilder(records.size() * 128);
+        for (AuditRecord record : records) {
+            out.append(record.getOccurredAt()).append('\t')
+               .append(record.getAction()).append('\t')
+               .append(field(record.getActor())).append('\t')
+               .append(field(record.getUserId())).append('\t')
+               .append(field(record.getBookId())).append('\t')
+               .append(field(record.getClientIp())).append('\t')
+               .append(field(record.getDetail())).append('\n');
+        }
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            Files.writeString(currentFile(dir), out, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + records.size() + " audit records to " + directory, e);
+        }
+    }
+
+    private Path currentFile(Path dir) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(day)) {
+            day = today;
+            part = 0;
+        }
+        Path file = dir.resolve(fileName());
+        while (Files.exists(file) && Files.size(file) >= maxFileMb * 1024 * 1024) {
+            part++;
+            file = dir.resolve(fileName());
+        }
+        return file;
+    }
+
+    private String fileName() {
+        return part == 0 ? "audit-" + day + ".log" : "audit-" + day + "." + part + ".log";
+    }
+
+    // Tabs and line breaks in free text would split the record
+    private static String field(Object value) {
+        if (value == null) {
+            return "-";
+        }
+        return value.toString().replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
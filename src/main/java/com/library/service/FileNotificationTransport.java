@@ -0,0 +1,52 @@
+package com.library.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.library.dto.NotificationMessage;
+
+// Local stand-in for SMTP: appends each batch to a per-day text file
+@Service
+@ConditionalOnProperty(name = "library.notifications.transport", havingValue = "file", matchIfMissing = true)
+public class FileNotificationTransport implements NotificationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileNotificationTransport.class);
+
+    @Value("${library.notifications.file-dir:notifications}")
+    private String directory;
+
+    @Override
+    public synchronized List<NotificationMessage> send(List<NotificationMessage> messages) {
+        StringBuilder out = new StringBuilder(messages.size() * 512);
+        String timestamp = LocalDateTime.now().toString();
+        for (NotificationMessage message : messages) {
+            out.append("=== ").append(timestamp).append('\n')
+               .append("To: ").append(message.getTo()).append('\n')
+               .append("Subject: ").append(message.getSubject()).append("\n\n")
+               .append(message.getBody()).append("\n\n");
+        }
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("notices-" + LocalDate.now() + ".txt"), out, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return List.of();
+        } catch (IOException e) {
+            logger.error("Could not write {} notices to {}: {}", messages.size(), directory, e.getMessage());
+            return messages;
+        }
+    }
+}
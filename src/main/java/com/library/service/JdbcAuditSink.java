@@ -0,0 +1,45 @@
+package com.library.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.library.model.AuditRecord;
+
+// Appends each batch to audit_log with one multi-row INSERT
+@Service
+@ConditionalOnProperty(name = "library.audit.sink", havingValue = "table", matchIfMissing = true)
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT =
+            "insert into audit_log (occurred_at, action, actor, user_id, book_id, detail, client_ip) values ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        StringBuilder sql = new StringBuilder(INSERT.length() + records.size() * (ROW.length() + 2)).append(INSERT);
+        List<Object> args = new ArrayList<>(records.size() * 7);
+        for (AuditRecord record : records) {
+            if (args.size() > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            args.add(Timestamp.valueOf(record.getOccurredAt()));
+            args.add(record.getAction().name());
+            args.add(record.getActor());
+            args.add(record.getUserId());
+            args.add(record.getBookId());
+            args.add(record.getDetail());
+            args.add(record.getClientIp());
+        }
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+}
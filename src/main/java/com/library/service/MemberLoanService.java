@@ -0,0 +1,227 @@
+package com.library.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.config.LoanPolicyProperties;
+import com.library.exception.BorrowingLimitExceededException;
+import com.library.exception.ResourceNotFoundException;
+import com.library.model.MemberLoanStats;
+import com.library.model.Transaction;
+import com.library.model.User;
+import com.library.repository.MemberLoanStatsRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+
+// Borrowing limits enforced from the member_loan_stats counters.
+//
+// Borrow and return adjust the counters with single conditional UPDATEs inside the caller's
+// transaction, so the eligibility decision is one row lookup by primary key and concurrent
+// borrows by the same member cannot both slip under the limit. A scheduled scan moves loans
+// that passed their due date into the overdue counter, and a reconciliation job recounts from
+// the transactions table and repairs any member whose counters drifted.
+@Service
+public class MemberLoanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberLoanService.class);
+
+    private static final int OVERDUE_BATCH_SIZE = 500;
+
+    @Autowired
+    private MemberLoanStatsRepository memberLoanStatsRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanPolicyProperties loanPolicy;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberLoanService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Count a new loan against the member, or throw if the limits don't allow it
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveLoan(User user) {
+        int maxActive = loanPolicy.limitFor(user.getRole());
+        int maxOverdue = loanPolicy.isBlockWhenOverdue() ? 0 : Integer.MAX_VALUE;
+        double maxFine = loanPolicy.getMaxUnpaidFine();
+
+        if (memberLoanStatsRepository.tryReserveLoan(user.getId(), maxActive, maxOverdue, maxFine) == 1) {
+            return;
+        }
+        // Members created before the counters existed get their row on first borrow; two first
+        // borrows at once both insert-if-absent and both retry
+        if (!memberLoanStatsRepository.existsById(user.getId())) {
+            memberLoanStatsRepository.insertIfAbsent(user.getId());
+            if (memberLoanStatsRepository.tryReserveLoan(user.getId(), maxActive, maxOverdue, maxFine) == 1) {
+                return;
+            }
+        }
+
+        MemberLoanStats stats = memberLoanStatsRepository.findById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Loan stats", "userId", user.getId()));
+        if (stats.getActiveLoans() >= maxActive) {
+            throw new BorrowingLimitExceededException("Borrowing limit reached: " + stats.getActiveLoans()
+                    + " of " + maxActive + " books already on loan");
+        }
+        if (stats.getOverdueLoans() > maxOverdue) {
+            throw new BorrowingLimitExceededException("Borrowing blocked: " + stats.getOverdueLoans()
+                    + " overdue book(s) must be returned first");
+        }
+        throw new BorrowingLimitExceededException(String.format(
+                "Borrowing blocked: unpaid fines of $%.2f exceed the $%.2f limit", stats.getUnpaidFines(), maxFine));
+    }
+
+    // Release the loan and charge its fine, if any
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseLoan(Transaction borrowTransaction) {
+        Long userId = borrowTransaction.getUser().getId();
+        double fine = borrowTransaction.getFine() != null ? borrowTransaction.getFine() : 0.0;
+        int overdue = borrowTransaction.isOverdueFlagged() ? 1 : 0;
+        if (memberLoanStatsRepository.releaseLoan(userId, overdue, fine) == 0) {
+            // Counter was already at zero; leave the repair to reconciliation
+            logger.warn("Loan counters for user {} out of step on return, will be reconciled", userId);
+        }
+    }
+
+    @Transactional
+    public MemberLoanStats getStats(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        return memberLoanStatsRepository.findById(userId).orElseGet(() -> new MemberLoanStats(userId));
+    }
+
+    @Transactional
+    public MemberLoanStats settleFines(Long userId, double amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        MemberLoanStats before = getStats(userId);
+        if (memberLoanStatsRepository.settleFines(userId, amount) == 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Amount $%.2f exceeds unpaid fines of $%.2f", amount, before.getUnpaidFines()));
+        }
+        return memberLoanStatsRepository.findById(userId).orElseThrow();
+    }
+
+    // Move loans that passed their due date into the overdue counter, a batch per transaction
+    @Scheduled(fixedDelayString = "${library.loans.overdue-scan-interval-ms:300000}",
+               initialDelayString = "${library.loans.overdue-scan-interval-ms:300000}")
+    public void flagOverdueLoans() {
+        int flagged = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<Object[]> rows = transactionRepository.findUnflaggedOverdue(
+                        LocalDateTime.now(), PageRequest.of(0, OVERDUE_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    if (transactionRepository.flagOverdue((Long) row[0]) == 1) {
+                        memberLoanStatsRepository.incrementOverdue((Long) row[1]);
+                    }
+                }
+                return rows.size();
+            });
+            flagged += batch;
+            if (batch < OVERDUE_BATCH_SIZE) {
+                break;
+            }
+        }
+        if (flagged > 0) {
+            logger.info("Flagged {} overdue loans", flagged);
+        }
+    }
+
+    // Compare the counters with grouped counts from transactions and repair the members that
+    // differ. Each repair locks the member's row and recounts, so a borrow committing between
+    // the grouped read and the repair is not overwritten.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.loans.reconcile-interval-ms:3600000}",
+               initialDelayString = "${library.loans.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        Map<Long, long[]> expected = new HashMap<>();
+        for (Object[] row : transactionRepository.countActiveLoansByUser()) {
+            long[] values = expected.computeIfAbsent((Long) row[0], id -> new long[3]);
+            values[0] = ((Number) row[1]).longValue();
+            values[1] = ((Number) row[2]).longValue();
+        }
+        Map<Long, Double> fines = new HashMap<>();
+        for (Object[] row : transactionRepository.sumFinesByUser()) {
+            fines.put((Long) row[0], ((Number) row[1]).doubleValue());
+        }
+
+        Map<Long, MemberLoanStats> stored = new HashMap<>();
+        for (MemberLoanStats stats : memberLoanStatsRepository.findAll()) {
+            stored.put(stats.getUserId(), stats);
+        }
+
+        Set<Long> drifted = new HashSet<>();
+        for (Long userId : userRepository.findAllIds()) {
+            MemberLoanStats stats = stored.get(userId);
+            long[] counts = expected.getOrDefault(userId, new long[3]);
+            double fine = fines.getOrDefault(userId, 0.0);
+            if (stats == null || stats.getActiveLoans() != counts[0] || stats.getOverdueLoans() != counts[1]
+                    || Math.abs(stats.getTotalFines() - fine) > 0.005) {
+                drifted.add(userId);
+            }
+        }
+
+        int repaired = 0;
+        for (Long userId : drifted) {
+            Boolean changed = transactionTemplate.execute(status -> repair(userId));
+            if (Boolean.TRUE.equals(changed)) {
+                repaired++;
+            }
+        }
+        logger.info("Loan counters reconciled: {} users checked, {} repaired", userRepository.count(), repaired);
+    }
+
+    private boolean repair(Long userId) {
+        MemberLoanStats stats = memberLoanStatsRepository.findForUpdate(userId).orElse(null);
+        boolean created = stats == null;
+        if (created) {
+            // A first borrow may be creating the row at the same time
+            memberLoanStatsRepository.insertIfAbsent(userId);
+            stats = memberLoanStatsRepository.findForUpdate(userId).orElseThrow();
+        }
+        int active = (int) transactionRepository.countActiveLoans(userId);
+        int overdue = (int) transactionRepository.countFlaggedOverdueLoans(userId);
+        double fine = transactionRepository.sumFines(userId);
+        if (!created && stats.getActiveLoans() == active && stats.getOverdueLoans() == overdue
+                && Math.abs(stats.getTotalFines() - fine) <= 0.005) {
+            return false;
+        }
+        if (!created) {
+            logger.warn("Loan counters for user {} drifted (active {} -> {}, overdue {} -> {}, fines {} -> {})",
+                    userId, stats.getActiveLoans(), active, stats.getOverdueLoans(), overdue,
+                    stats.getTotalFines(), fine);
+        }
+        stats.setActiveLoans(active);
+        stats.setOverdueLoans(overdue);
+        stats.setTotalFines(fine);
+        memberLoanStatsRepository.save(stats);
+        return true;
+    }
+}
@@ -0,0 +1,12 @@
+package com.library.service;
+
+import java.util.List;
+
+import com.library.dto.NotificationMessage;
+
+// Delivers rendered notices. Selected with library.notifications.transport (smtp or file).
+public interface NotificationTransport {
+
+    // Sends a batch over one connection/write; returns the messages that could not be sent
+    List<NotificationMessage> send(List<NotificationMessage> messages);
+}
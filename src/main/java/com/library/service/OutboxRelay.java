@@ -0,0 +1,221 @@
+package com.library.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.model.OutboxEvent;
+import com.library.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Drains the outbox to the registered CirculationEventConsumers.
+//
+// Each poll locks a batch of due events (SKIP LOCKED, so a second instance takes other rows),
+// hands the whole batch to every consumer and marks it published in the same transaction.
+// If that fails the batch is retried one event per transaction; an event that still fails is
+// rescheduled with exponential backoff, and later events of the same book wait behind it so
+// consumers always see a book's events in order.
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<CirculationEventConsumer> consumers = List.of();
+
+    @Value("${library.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${library.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${library.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${library.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${library.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter publishedCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+    private final Timer deliveryLag;
+    private final AtomicLong pendingGauge = new AtomicLong();
+    private final AtomicLong oldestPendingAgeGauge = new AtomicLong();
+
+    public OutboxRelay(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publishedCounter = meterRegistry.counter("outbox.events.published");
+        this.retryCounter = meterRegistry.counter("outbox.events.retried");
+        this.deadCounter = meterRegistry.counter("outbox.events.dead");
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time from the circulation change to delivery to consumers")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("outbox.events.pending", pendingGauge);
+        meterRegistry.gauge("outbox.oldest.pending.age.seconds", oldestPendingAgeGauge);
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.poll-interval-ms:500}")
+    public void relay() {
+        // Keep draining while batches come back full
+        int delivered;
+        do {
+            delivered = relayBatch();
+        } while (delivered >= batchSize);
+    }
+
+    // Returns the number of events delivered by the batch path; 0 after falling back
+    private int relayBatch() {
+        List<OutboxEvent> inOrder = new ArrayList<>();
+        try {
+            Integer delivered = transactionTemplate.execute(status -> {
+                List<OutboxEvent> claimed = outboxEventRepository.claimDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+                if (claimed.isEmpty()) {
+                    return 0;
+                }
+                inOrder.addAll(inBookOrder(claimed));
+                if (!inOrder.isEmpty()) {
+                    deliver(inOrder);
+                    markPublished(inOrder);
+                }
+                return inOrder.size();
+            });
+            return delivered;
+        } catch (RuntimeException e) {
+            logger.warn("Outbox batch of {} failed, retrying one by one: {}", inOrder.size(), e.getMessage());
+            relayOneByOne(inOrder);
+            return 0;
+        }
+    }
+
+    // Drop claimed events that would overtake an earlier undelivered event of the same book,
+    // e.g. one that another relay instance has locked right now
+    private List<OutboxEvent> inBookOrder(List<OutboxEvent> claimed) {
+        Set<Long> bookIds = new HashSet<>();
+        long maxId = 0;
+        for (OutboxEvent event : claimed) {
+            bookIds.add(event.getBookId());
+            maxId = Math.max(maxId, event.getId());
+        }
+        Map<Long, ArrayDeque<Long>> pendingByBook = new HashMap<>();
+        for (Object[] row : outboxEventRepository.findPendingIds(bookIds, maxId)) {
+            pendingByBook.computeIfAbsent((Long) row[1], id -> new ArrayDeque<>()).add((Long) row[0]);
+        }
+        Set<Long> blockedBooks = new HashSet<>();
+        List<OutboxEvent> inOrder = new ArrayList<>(claimed.size());
+        for (OutboxEvent event : claimed) {
+            ArrayDeque<Long> pending = pendingByBook.get(event.getBookId());
+            if (!blockedBooks.contains(event.getBookId()) && pending != null && event.getId().equals(pending.peekFirst())) {
+                pending.pollFirst();
+                inOrder.add(event);
+            } else {
+                blockedBooks.add(event.getBookId());
+            }
+        }
+        return inOrder;
+    }
+
+    private void relayOneByOne(List<OutboxEvent> events) {
+        Set<Long> blockedBooks = new HashSet<>();
+        for (OutboxEvent claimedEvent : events) {
+            Long id = claimedEvent.getId();
+            Long bookId = claimedEvent.getBookId();
+            if (blockedBooks.contains(bookId)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (OutboxEvent event : outboxEventRepository.claimOne(id)) {
+                        deliver(List.of(event));
+                        markPublished(List.of(event));
+                    }
+                });
+            } catch (RuntimeException e) {
+                blockedBooks.add(bookId);
+                transactionTemplate.executeWithoutResult(status -> recordFailure(id, e));
+            }
+        }
+    }
+
+    private void deliver(List<OutboxEvent> events) {
+        for (CirculationEventConsumer consumer : consumers) {
+            consumer.onEvents(events);
+        }
+    }
+
+    private void markPublished(List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ids.add(event.getId());
+            deliveryLag.record(Duration.between(event.getOccurredAt(), now));
+        }
+        outboxEventRepository.markPublished(ids, now);
+        publishedCounter.increment(events.size());
+    }
+
+    private void recordFailure(Long id, RuntimeException error) {
+        outboxEventRepository.findById(id).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            String message = String.valueOf(error.getMessage());
+            event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+            if (attempts >= maxAttempts) {
+                event.setDeadAt(LocalDateTime.now());
+                deadCounter.increment();
+                logger.error("Outbox event {} ({} for book {}) gave up after {} attempts: {}",
+                        id, event.getEventType(), event.getBookId(), attempts, message);
+            } else {
+                long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+                event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+                retryCounter.increment();
+                logger.warn("Outbox event {} failed (attempt {}), retrying in {} ms: {}", id, attempts, backoff, message);
+            }
+            outboxEventRepository.save(event);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.metrics-interval-ms:10000}")
+    public void updateLagMetrics() {
+        pendingGauge.set(outboxEventRepository.countPending());
+        LocalDateTime oldest = outboxEventRepository.findOldestPending();
+        oldestPendingAgeGauge.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()));
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.cleanup-interval-ms:3600000}")
+    public void deletePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            logger.info("Deleted {} published outbox events", deleted);
+        }
+    }
+}
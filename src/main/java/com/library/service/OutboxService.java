@@ -0,0 +1,26 @@
+package com.library.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.library.model.OutboxEvent;
+import com.library.model.OutboxEventType;
+import com.library.model.Transaction;
+import com.library.repository.OutboxEventRepository;
+
+// Records circulation events in the caller's transaction; the only cost on the borrow/return
+// path is one insert. OutboxRelay delivers them to consumers once committed.
+@Service
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType type, Transaction transaction) {
+        outboxEventRepository.save(new OutboxEvent(type, transaction.getBook().getId(),
+                transaction.getUser().getId(), transaction.getId(), transaction.getFine()));
+    }
+}
@@ -0,0 +1,228 @@
+package com.library.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.exception.ResourceNotFoundException;
+import com.library.model.PurgePhase;
+import com.library.model.PurgeStatus;
+import com.library.model.PurgeTarget;
+import com.library.model.PurgeTask;
+import com.library.repository.BookCopyRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.LoanNoticeRepository;
+import com.library.repository.MemberLoanStatsRepository;
+import com.library.repository.PurgeTaskRepository;
+import com.library.repository.TransactionRepository;
+import com.library.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Removes what deleted books and members leave behind, a bounded chunk per transaction.
+//
+// Deleting only tombstones the row (hidden from catalog reads; a member from every JPA query by
+// @SQLRestriction) and queues a purge_tasks row in the same transaction, so the request returns
+// at once. This job then works
+// through the task's phases: a member's loan notices, finished loans, loan counters and finally
+// the member row; a book's copies, then the book row unless loans still refer to it (members'
+// loan and fine history stays, attached to the tombstone). Each chunk saves the task's phase and
+// counts with the deletes, so a restart resumes where the purge stopped, and instances skip
+// each other's tasks. A chunk that keeps failing marks the task FAILED until retried.
+@Service
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+
+    @Autowired
+    private PurgeTaskRepository purgeTaskRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private LoanNoticeRepository loanNoticeRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MemberLoanStatsRepository memberLoanStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${library.purge.chunk-size:500}")
+    private int chunkSize;
+
+    // Chunks per run, so a large purge shares the database with everything else
+    @Value("${library.purge.chunks-per-run:20}")
+    private int chunksPerRun;
+
+    @Value("${library.purge.max-attempts:5}")
+    private int maxAttempts;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter rowsCounter;
+    private final Counter failedCounter;
+    private final AtomicLong pendingGauge = new AtomicLong();
+
+    public PurgeService(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowsCounter = meterRegistry.counter("purge.rows.deleted");
+        this.failedCounter = meterRegistry.counter("purge.tasks.failed");
+        meterRegistry.gauge("purge.tasks.pending", pendingGauge);
+    }
+
+    // Queue the purge with the tombstone
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PurgeTask schedule(PurgeTarget target, Long id) {
+        return purgeTaskRepository.save(new PurgeTask(target, id));
+    }
+
+    public List<PurgeTask> getRecentTasks() {
+        return purgeTaskRepository.findTop50ByOrderByIdDesc();
+    }
+
+    public PurgeTask getTask(Long id) {
+        return purgeTaskRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Purge task", "id", id));
+    }
+
+    // Put a failed task back in the queue; it resumes at the phase it failed in
+    @Transactional
+    public PurgeTask retry(Long id) {
+        PurgeTask task = getTask(id);
+        if (task.getStatus() == PurgeStatus.FAILED) {
+            task.setStatus(PurgeStatus.PENDING);
+            task.setAttempts(0);
+        }
+        return task;
+    }
+
+    @Scheduled(fixedDelayString = "${library.purge.interval-ms:5000}")
+    public void run() {
+        for (int i = 0; i < chunksPerRun; i++) {
+            Long[] claimed = new Long[1];
+            try {
+                Boolean worked = transactionTemplate.execute(status -> {
+                    List<PurgeTask> tasks = purgeTaskRepository.claimNext(PageRequest.of(0, 1));
+                    if (tasks.isEmpty()) {
+                        return false;
+                    }
+                    PurgeTask task = tasks.get(0);
+                    claimed[0] = task.getId();
+                    purgeChunk(task);
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(worked)) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                if (claimed[0] != null) {
+                    transactionTemplate.executeWithoutResult(status -> recordFailure(claimed[0], e));
+                }
+                break;
+            }
+        }
+        pendingGauge.set(purgeTaskRepository.countByStatus(PurgeStatus.PENDING));
+    }
+
+    // One bounded step of the task's current phase; moves on once the phase has nothing left
+    private void purgeChunk(PurgeTask task) {
+        Long id = task.getTargetId();
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        int deleted = 0;
+        PurgePhase next = task.getPhase();
+        switch (task.getPhase()) {
+            case COPIES -> {
+                List<Long> copyIds = bookCopyRepository.findIdsByBook(id, chunk);
+                deleted = copyIds.isEmpty() ? 0 : bookCopyRepository.deleteByIds(copyIds);
+                if (copyIds.size() < chunkSize) {
+                    next = PurgePhase.TOMBSTONE;
+                }
+            }
+            case NOTICES -> {
+                List<Long> noticeIds = loanNoticeRepository.findIdsByUser(id, chunk);
+                deleted = noticeIds.isEmpty() ? 0 : loanNoticeRepository.deleteByIds(noticeIds);
+                if (noticeIds.size() < chunkSize) {
+                    next = PurgePhase.LOANS;
+                }
+            }
+            case LOANS -> {
+                List<Long> loanIds = transactionRepository.findReturnedIdsByUser(id, chunk);
+                deleted = loanIds.isEmpty() ? 0 : transactionRepository.deleteByIds(loanIds);
+                if (loanIds.size() < chunkSize) {
+                    // Only a loan that was still out when the member was deleted can be left
+                    long remaining = transactionRepository.countByUserId(id);
+                    if (remaining > 0) {
+                        throw new IllegalStateException("Member " + id + " still has " + remaining + " loans out");
+                    }
+                    next = PurgePhase.STATS;
+                }
+            }
+            case STATS -> {
+                if (memberLoanStatsRepository.existsById(id)) {
+                    memberLoanStatsRepository.deleteById(id);
+                    deleted = 1;
+                }
+                next = PurgePhase.TOMBSTONE;
+            }
+            case TOMBSTONE -> {
+                if (task.getTargetType() == PurgeTarget.USER) {
+                    deleted = userRepository.deleteTombstone(id);
+                } else if (!transactionRepository.existsByBookId(id)) {
+                    deleted = bookRepository.deleteTombstone(id);
+                }
+                next = PurgePhase.DONE;
+            }
+            case DONE -> { }
+        }
+
+        task.setRowsPurged(task.getRowsPurged() + deleted);
+        task.setChunks(task.getChunks() + 1);
+        task.setAttempts(0);
+        task.setLastError(null);
+        task.setPhase(next);
+        if (next == PurgePhase.DONE) {
+            task.setStatus(PurgeStatus.DONE);
+            task.setFinishedAt(LocalDateTime.now());
+            logger.info("Purged {} {}: {} rows in {} chunks", task.getTargetType(), id, task.getRowsPurged(), task.getChunks());
+        }
+        rowsCounter.increment(deleted);
+    }
+
+    private void recordFailure(Long taskId, RuntimeException error) {
+        purgeTaskRepository.findById(taskId).ifPresent(task -> {
+            int attempts = task.getAttempts() + 1;
+            String message = String.valueOf(error.getMessage());
+            task.setAttempts(attempts);
+            task.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+            if (attempts >= maxAttempts) {
+                task.setStatus(PurgeStatus.FAILED);
+                failedCounter.increment();
+                logger.error("Purge task {} ({} {}) failed in phase {} after {} attempts: {}",
+                        taskId, task.getTargetType(), task.getTargetId(), task.getPhase(), attempts, message);
+            } else {
+                logger.warn("Purge task {} failed in phase {} (attempt {}): {}", taskId, task.getPhase(), attempts, message);
+            }
+        });
+    }
+}
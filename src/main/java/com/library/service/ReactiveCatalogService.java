@@ -0,0 +1,48 @@
+package com.library.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.library.model.CatalogBook;
+import com.library.repository.CatalogBookRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Catalog reads for the reactive endpoints; the same lookups as BookService, without blocking
+@Service
+@ConditionalOnProperty(name = "library.reactive-catalog.enabled", havingValue = "true")
+public class ReactiveCatalogService {
+
+    @Autowired
+    private CatalogBookRepository catalogBookRepository;
+
+    public Flux<CatalogBook> getAllBooks() {
+        return catalogBookRepository.findByDeletedAtIsNull();
+    }
+
+    public Mono<CatalogBook> getBookById(Long id) {
+        return catalogBookRepository.findByIdAndDeletedAtIsNull(id);
+    }
+
+    public Mono<CatalogBook> getBookByIsbn(String isbn) {
+        return catalogBookRepository.findByIsbnAndDeletedAtIsNull(isbn);
+    }
+
+    public Flux<CatalogBook> getBooksByTitle(String title) {
+        return catalogBookRepository.findByTitleContainingIgnoreCaseAndDeletedAtIsNull(title);
+    }
+
+    public Flux<CatalogBook> getBooksByAuthor(String author) {
+        return catalogBookRepository.findByAuthorContainingIgnoreCaseAndDeletedAtIsNull(author);
+    }
+
+    public Flux<CatalogBook> getBooksByCategory(String category) {
+        return catalogBookRepository.findByCategoryAndDeletedAtIsNull(category);
+    }
+
+    public Flux<CatalogBook> getAvailableBooks() {
+        return catalogBookRepository.findByAvailableCopiesGreaterThanAndDeletedAtIsNull(0);
+    }
+}
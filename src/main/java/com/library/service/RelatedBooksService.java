@@ -0,0 +1,494 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.library.dto.BookSuggestView;
+import com.library.dto.RelatedBook;
+import com.library.model.OutboxEvent;
+import com.library.model.OutboxEventType;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+
+// "Members also borrowed": per-title neighbours from circulation history, served from memory.
+//
+// For every member the index keeps their most recently borrowed distinct titles (int[] of book
+// ids), and for every title a bounded list of co-borrowed titles with the number of members who
+// borrowed both, in parallel int[] arrays sorted by that count. It is built in one parallel
+// pass: histories are loaded by user-id range on a small pool, inverted into a postings list per
+// title, and each title's neighbours are counted with a dense per-thread counter. After that,
+// each relayed borrow of a title that is new to the member adds one co-borrower between it and
+// every title already in that member's history. A title with a full neighbour list works like
+// Space-Saving: a new neighbour replaces the weakest one and starts from its count.
+@Service
+public class RelatedBooksService implements CirculationEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatedBooksService.class);
+
+    private static final int[] NO_BOOKS = new int[0];
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    // Distinct recent titles per member that pair with a new borrow
+    @Value("${library.related.history-per-member:30}")
+    private int historyPerMember;
+
+    // Most neighbours a request can ask for
+    @Value("${library.related.top-k:10}")
+    private int topK;
+
+    // Neighbours kept per title, so one can climb into the top k as counts change
+    @Value("${library.related.candidates:50}")
+    private int candidates;
+
+    // 0 = min(4, available processors)
+    @Value("${library.related.build-threads:0}")
+    private int buildThreads;
+
+    @Value("${library.related.members-per-chunk:2000}")
+    private int membersPerChunk;
+
+    private volatile Index index = new Index(0);
+
+    // Borrows relayed while a rebuild runs; guarded by this
+    private List<long[]> pending;
+
+    private final Object rebuildLock = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    // Counts only drift through Space-Saving evictions and history truncation; rebuild them nightly
+    @Scheduled(cron = "${library.related.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // A redelivered borrow changes nothing: the title is already in the member's history
+    @Override
+    public synchronized void onEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (event.getEventType() != OutboxEventType.BOOK_BORROWED) {
+                continue;
+            }
+            index.recordBorrow(event.getUserId(), event.getBookId(), historyPerMember, capacity());
+            if (pending != null) {
+                long transactionId = event.getTransactionId() != null ? event.getTransactionId() : Long.MAX_VALUE;
+                pending.add(new long[] {transactionId, event.getUserId(), event.getBookId()});
+            }
+        }
+    }
+
+    public List<RelatedBook> related(Long bookId, int limit) {
+        Neighbours neighbours = bookId <= Integer.MAX_VALUE ? index.neighbours.get(bookId.intValue()) : null;
+        if (neighbours == null) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, topK));
+        int[] ids = new int[k];
+        int[] counts = new int[k];
+        int found = neighbours.top(k, ids, counts);
+        if (found == 0) {
+            return List.of();
+        }
+
+        // Titles and authors in one lookup by primary key; deleted titles drop out here
+        List<Long> relatedIds = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            relatedIds.add((long) ids[i]);
+        }
+        Map<Long, BookSuggestView> views = new HashMap<>();
+        for (BookSuggestView view : bookRepository.findSuggestViewsByIds(relatedIds)) {
+            views.put(view.getId(), view);
+        }
+        List<RelatedBook> related = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            BookSuggestView view = views.get((long) ids[i]);
+            if (view != null) {
+                related.add(new RelatedBook(view.getId(), view.getTitle(), view.getAuthor(), counts[i]));
+            }
+        }
+        return related;
+    }
+
+    // Build a fresh index from the transactions up to the current newest one, then replay the
+    // borrows relayed meanwhile that came after that cut-off, and swap
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.nanoTime();
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            Index rebuilt;
+            try {
+                rebuilt = build();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                logger.error("Related-books index rebuild failed, keeping previous index", e);
+                return;
+            }
+            synchronized (this) {
+                for (long[] borrow : pending) {
+                    if (borrow[0] > rebuilt.maxTransactionId) {
+                        rebuilt.recordBorrow(borrow[1], borrow[2], historyPerMember, capacity());
+                    }
+                }
+                pending = null;
+                index = rebuilt;
+            }
+            logger.info("Related-books index built: {} titles, {} members in {} ms", rebuilt.neighbours.size(),
+                    rebuilt.histories.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private Index build() {
+        long maxId = transactionRepository.findMaxId();
+        Index built = new Index(maxId);
+        List<Object[]> range = transactionRepository.findUserIdRange();
+        if (maxId == 0 || range.isEmpty() || range.get(0)[0] == null) {
+            return built;
+        }
+        long minUser = (Long) range.get(0)[0];
+        long maxUser = (Long) range.get(0)[1];
+
+        int threads = buildThreads > 0 ? buildThreads : Math.min(4, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "related-build-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Pass 1: member histories, one user-id range per task
+            List<Future<?>> loads = new ArrayList<>();
+            for (long from = minUser; from <= maxUser; from += membersPerChunk) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(maxUser, from + membersPerChunk - 1);
+                loads.add(pool.submit(() -> loadHistories(chunkFrom, chunkTo, maxId, built.histories)));
+            }
+            await(loads);
+
+            // Pass 2: neighbours of every title, titles striped over the threads
+            Postings postings = Postings.of(built.histories.values());
+            List<Future<?>> counts = new ArrayList<>();
+            for (int stripe = 0; stripe < threads; stripe++) {
+                int first = stripe;
+                counts.add(pool.submit(() -> countNeighbours(postings, first, threads, built.neighbours)));
+            }
+            await(counts);
+            return built;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void loadHistories(long fromUser, long toUser, long maxId, Map<Long, int[]> histories) {
+        long currentUser = -1;
+        int[] history = null;
+        int size = 0;
+        for (Object[] row : transactionRepository.findBorrowHistory(fromUser, toUser, maxId)) {
+            long userId = (Long) row[0];
+            int bookId = Math.toIntExact((Long) row[1]);
+            if (userId != currentUser) {
+                if (history != null) {
+                    histories.put(currentUser, Arrays.copyOf(history, size));
+                }
+                currentUser = userId;
+                history = new int[historyPerMember];
+                size = 0;
+            }
+            if (size < history.length && !contains(history, size, bookId)) {
+                history[size++] = bookId;
+            }
+        }
+        if (history != null) {
+            histories.put(currentUser, Arrays.copyOf(history, size));
+        }
+    }
+
+    // For title slots first, first + step, ...: count the titles in the histories of its
+    // members, keep the strongest, and reset only the counters that were touched
+    private void countNeighbours(Postings postings, int first, int step, Map<Integer, Neighbours> neighbours) {
+        int titles = postings.bookIds.length;
+        int[] counter = new int[titles];
+        int[] touched = new int[titles];
+        int capacity = capacity();
+        for (int title = first; title < titles; title += step) {
+            int touchedCount = 0;
+            for (int p = postings.offsets[title]; p < postings.offsets[title + 1]; p++) {
+                for (int other : postings.memberSlots[postings.members[p]]) {
+                    if (other != title && counter[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+            if (touchedCount > 0) {
+                neighbours.put(postings.bookIds[title],
+                        Neighbours.strongest(touched, touchedCount, counter, postings.bookIds, capacity));
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                counter[touched[i]] = 0;
+            }
+        }
+    }
+
+    private int capacity() {
+        return Math.max(candidates, topK);
+    }
+
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the related-books index", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Index {
+        final long maxTransactionId;
+        // user id -> distinct book ids, newest first
+        final ConcurrentHashMap<Long, int[]> histories = new ConcurrentHashMap<>();
+        // book id -> co-borrowed titles
+        final ConcurrentHashMap<Integer, Neighbours> neighbours = new ConcurrentHashMap<>();
+
+        Index(long maxTransactionId) {
+            this.maxTransactionId = maxTransactionId;
+        }
+
+        // Called by one writer at a time (under the service lock); book ids fit in an int
+        void recordBorrow(long userId, long bookId, int historySize, int capacity) {
+            int book = Math.toIntExact(bookId);
+            int[] history = histories.getOrDefault(userId, NO_BOOKS);
+            if (contains(history, history.length, book)) {
+                return;
+            }
+            for (int other : history) {
+                neighbours.computeIfAbsent(book, id -> new Neighbours(capacity)).increment(other);
+                neighbours.computeIfAbsent(other, id -> new Neighbours(capacity)).increment(book);
+            }
+            int[] updated = new int[Math.min(historySize, history.length + 1)];
+            updated[0] = book;
+            System.arraycopy(history, 0, updated, 1, updated.length - 1);
+            histories.put(userId, updated);
+        }
+    }
+
+    // Build-time inverted index: for each title slot, the members whose history contains it
+    static final class Postings {
+        final int[] bookIds;        // slot -> book id, sorted
+        final int[][] memberSlots;  // member -> history as title slots
+        final int[] offsets;        // members of slot s are members[offsets[s], offsets[s + 1])
+        final int[] members;
+
+        private Postings(int[] bookIds, int[][] memberSlots, int[] offsets, int[] members) {
+            this.bookIds = bookIds;
+            this.memberSlots = memberSlots;
+            this.offsets = offsets;
+            this.members = members;
+        }
+
+        static Postings of(Iterable<int[]> histories) {
+            int total = 0;
+            for (int[] history : histories) {
+                total += history.length;
+            }
+            int[] all = new int[total];
+            int position = 0;
+            for (int[] history : histories) {
+                System.arraycopy(history, 0, all, position, history.length);
+                position += history.length;
+            }
+            Arrays.sort(all);
+            int distinct = 0;
+            for (int i = 0; i < total; i++) {
+                if (i == 0 || all[i] != all[i - 1]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            int[] bookIds = Arrays.copyOf(all, distinct);
+
+            List<int[]> slotted = new ArrayList<>();
+            int[] offsets = new int[distinct + 1];
+            for (int[] history : histories) {
+                int[] slots = new int[history.length];
+                for (int i = 0; i < history.length; i++) {
+                    slots[i] = Arrays.binarySearch(bookIds, history[i]);
+                    offsets[slots[i] + 1]++;
+                }
+                slotted.add(slots);
+            }
+            for (int s = 0; s < distinct; s++) {
+                offsets[s + 1] += offsets[s];
+            }
+            int[][] memberSlots = slotted.toArray(new int[0][]);
+            int[] fill = Arrays.copyOf(offsets, distinct);
+            int[] members = new int[total];
+            for (int member = 0; member < memberSlots.length; member++) {
+                for (int slot : memberSlots[member]) {
+                    members[fill[slot]++] = member;
+                }
+            }
+            return new Postings(bookIds, memberSlots, offsets, members);
+        }
+    }
+
+    // Neighbours of one title, strongest first
+    static final class Neighbours {
+        private final int[] ids;
+        private final int[] counts;
+        private int size;
+
+        Neighbours(int capacity) {
+            this.ids = new int[capacity];
+            this.counts = new int[capacity];
+        }
+
+        // The capacity strongest of the touched slots (ties to the lower book id), from the build
+        static Neighbours strongest(int[] touched, int touchedCount, int[] counter, int[] bookIds, int capacity) {
+            // Min-heap of slots on (count, then higher id first) so the weakest is at the root
+            int[] heap = new int[Math.min(capacity, touchedCount)];
+            int size = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (size < heap.length) {
+                    heap[size] = slot;
+                    siftUp(heap, size++, counter);
+                } else if (weaker(heap[0], slot, counter)) {
+                    heap[0] = slot;
+                    siftDown(heap, size, counter);
+                }
+            }
+            Neighbours neighbours = new Neighbours(capacity);
+            neighbours.size = size;
+            for (int i = size - 1; i >= 0; i--) {
+                int slot = heap[0];
+                neighbours.ids[i] = bookIds[slot];
+                neighbours.counts[i] = counter[slot];
+                heap[0] = heap[i];
+                siftDown(heap, i, counter);
+            }
+            return neighbours;
+        }
+
+        synchronized void increment(int bookId) {
+            int position = -1;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == bookId) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                if (size < ids.length) {
+                    position = size++;
+                    counts[position] = 0;
+                } else {
+                    // Full: take over the weakest entry's count
+                    position = size - 1;
+                }
+                ids[position] = bookId;
+            }
+            counts[position]++;
+            while (position > 0 && counts[position - 1] < counts[position]) {
+                swap(position - 1, position);
+                position--;
+            }
+        }
+
+        synchronized int top(int limit, int[] topIds, int[] topCounts) {
+            int n = Math.min(limit, size);
+            System.arraycopy(ids, 0, topIds, 0, n);
+            System.arraycopy(counts, 0, topCounts, 0, n);
+            return n;
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            int count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        }
+
+        // Slots compare by count; on equal counts the higher slot (higher book id) is weaker
+        private static boolean weaker(int a, int b, int[] counter) {
+            return counter[a] < counter[b] || (counter[a] == counter[b] && a > b);
+        }
+
+        private static void siftUp(int[] heap, int index, int[] counter) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!weaker(heap[index], heap[parent], counter)) {
+                    return;
+                }
+                int tmp = heap[parent];
+                heap[parent] = heap[index];
+                heap[index] = tmp;
+                index = parent;
+            }
+        }
+
+        private static void siftDown(int[] heap, int size, int[] counter) {
+            int index = 0;
+            while (true) {
+                int weakest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && weaker(heap[left], heap[weakest], counter)) {
+                    weakest = left;
+                }
+                if (right < size && weaker(heap[right], heap[weakest], counter)) {
+                    weakest = right;
+                }
+                if (weakest == index) {
+                    return;
+                }
+                int tmp = heap[weakest];
+                heap[weakest] = heap[index];
+                heap[index] = tmp;
+                index = weakest;
+            }
+        }
+    }
+}
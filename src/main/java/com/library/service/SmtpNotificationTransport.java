@@ -0,0 +1,59 @@
+package com.library.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import com.library.dto.NotificationMessage;
+
+// Sends through spring.mail.* SMTP settings; a batch goes out over a single connection
+@Service
+@ConditionalOnProperty(name = "library.notifications.transport", havingValue = "smtp")
+public class SmtpNotificationTransport implements NotificationTransport {
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${library.notifications.from:library@localhost}")
+    private String from;
+
+    @Override
+    public List<NotificationMessage> send(List<NotificationMessage> messages) {
+        SimpleMailMessage[] mails = new SimpleMailMessage[messages.size()];
+        for (int i = 0; i < mails.length; i++) {
+            NotificationMessage message = messages.get(i);
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setFrom(from);
+            mail.setTo(message.getTo());
+            mail.setSubject(message.getSubject());
+            mail.setText(message.getBody());
+            mails[i] = mail;
+        }
+        try {
+            mailSender.send(mails);
+            return List.of();
+        } catch (MailSendException e) {
+            // Only the messages listed as failed were rejected; the rest were accepted
+            List<NotificationMessage> failed = new ArrayList<>();
+            if (e.getFailedMessages().isEmpty()) {
+                return messages;
+            }
+            for (int i = 0; i < mails.length; i++) {
+                if (e.getFailedMessages().containsKey(mails[i])) {
+                    failed.add(messages.get(i));
+                }
+            }
+            return failed;
+        } catch (MailException e) {
+            return messages;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Transactional;
@@ -14,7 +15,10 @@ import org.springframework.transaction.annotation.Transactional;
 import com.library.exception.BookNotAvailableException;
 import com.library.exception.ResourceNotFoundException;
 import com.library.exception.TransactionNotAvailableException;
+import com.library.model.AuditAction;
 import com.library.model.Book;
+import com.library.model.BookCopy;
+import com.library.model.OutboxEventType;
 import com.library.model.Transaction;
 import com.library.model.TransactionStatus;
 import com.library.model.TransactionType;
@@ -27,6 +31,9 @@ import com.library.repository.UserRepository;
 
 @Service
 public class TransactionService {
+
+    //Largest page searchTransactions returns
+    static final int MAX_SEARCH_RESULTS = 1000;
     
     @Autowired
     private TransactionRepository transactionRepository;
@@ -37,49 +44,104 @@ public class TransactionService {
     @Autowired
     private BookRepository bookRepository;
 
-    //Borrow a book
+    @Autowired
+    private CopyInventoryService copyInventoryService;
+
+    @Autowired
+    private MemberLoanService memberLoanService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    //Borrow a book (any copy on the shelf)
     @Transactional
     public Transaction borrowBook(Long userId, Long bookId){
         User user = userRepository.findById(userId)
                 .orElseThrow(()-> new ResourceNotFoundException("User", "id", userId));
 
-        Book book = bookRepository.findById(bookId)
+        Book book = bookRepository.findByIdAndDeletedAtIsNull(bookId)
                 .orElseThrow(()-> new ResourceNotFoundException("Book", "id", bookId));
 
-        // check if book is available to borrow
-        if (book.getAvailableCopies()<=0){
-            throw new BookNotAvailableException("Book '" + book.getTitle() + "' is not available for borrowing");
-        }
+        checkNotAlreadyBorrowed(userId, bookId);
+
+        //check the member's borrowing limits (counts the loan when allowed)
+        memberLoanService.reserveLoan(user);
 
+        //take a copy off the shelf; only that copy's row is locked
+        BookCopy copy = copyInventoryService.claimCopy(book);
+        return createLoan(user, book, copy);
+    }
+
+    //Borrow the copy scanned at the desk
+    @Transactional
+    public Transaction borrowByBarcode(Long userId, String barcode){
+        User user = userRepository.findById(userId)
+                .orElseThrow(()-> new ResourceNotFoundException("User", "id", userId));
+
+        BookCopy copy = copyInventoryService.getByBarcode(barcode);
+        Book book = bookRepository.findByIdAndDeletedAtIsNull(copy.getBookId())
+                .orElseThrow(()-> new ResourceNotFoundException("Book", "id", copy.getBookId()));
+
+        checkNotAlreadyBorrowed(userId, book.getId());
+        memberLoanService.reserveLoan(user);
+        copyInventoryService.claimCopy(copy);
+        return createLoan(user, book, copy);
+    }
+
+    private void checkNotAlreadyBorrowed(Long userId, Long bookId){
         //check if the user already has this book
         Optional<Transaction> existingTransaction = transactionRepository
             .findByUserIdAndBookIdAndStatus(userId, bookId, TransactionStatus.ACTIVE);
         if(existingTransaction.isPresent()){
             throw new BookNotAvailableException("User has already borrowed this book and hasn't returned it yet");
         }
+    }
 
+    private Transaction createLoan(User user, Book book, BookCopy copy){
         //create borrow transaction
         Transaction transaction = new Transaction(user,book,TransactionType.BORROW);
+        transaction.setCopyId(copy.getId());
 
-        //udpate book availability
-        book.setAvailableCopies(book.getAvailableCopies() -1);
-        bookRepository.save(book);
-
-        return transactionRepository.save(transaction);
-        }
+        Transaction saved = transactionRepository.save(transaction);
+        outboxService.record(OutboxEventType.BOOK_BORROWED, saved);
+        TransactionHooks.afterCommit(() -> auditLog.record(AuditAction.BOOK_BORROWED, user.getId(), book.getId(),
+                "loan " + saved.getId() + ", copy " + copy.getId()));
+        return saved;
+    }
     
     //return a book
     @Transactional
     public Transaction returnBook(Long userId,Long bookId){
-        User user  = userRepository.findById(userId)
-                .orElseThrow(()-> new ResourceNotFoundException("User", "id", userId));
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(()-> new ResourceNotFoundException("Book", "id", bookId));
+        if (!userRepository.existsById(userId)){
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        if (!bookRepository.existsByIdAndDeletedAtIsNull(bookId)){
+            throw new ResourceNotFoundException("Book", "id", bookId);
+        }
         
         //Find Active borrow transaction
         Transaction borrowTransaction = transactionRepository
             .findByUserIdAndBookIdAndStatus(userId, bookId, TransactionStatus.ACTIVE)
             .orElseThrow(()-> new TransactionNotAvailableException("No active borrow record found for user ID " + userId + " and book ID " + bookId));
+        return completeReturn(borrowTransaction);
+    }
+
+    //return the copy scanned at the desk, whoever borrowed it
+    @Transactional
+    public Transaction returnByBarcode(String barcode){
+        BookCopy copy = copyInventoryService.getByBarcode(barcode);
+        Transaction borrowTransaction = transactionRepository
+            .findByCopyIdAndStatus(copy.getId(), TransactionStatus.ACTIVE)
+            .orElseThrow(()-> new TransactionNotAvailableException("Copy " + barcode + " is not on loan"));
+        return completeReturn(borrowTransaction);
+    }
+
+    private Transaction completeReturn(Transaction borrowTransaction){
+        User user = borrowTransaction.getUser();
+        Book book = borrowTransaction.getBook();
 
         //update borrow transaction
         borrowTransaction.setReturnDate(LocalDateTime.now());
@@ -92,17 +154,24 @@ public class TransactionService {
             borrowTransaction.setFine(fine);
         }
 
+        //release the loan and charge any fine to the member
+        memberLoanService.releaseLoan(borrowTransaction);
+
         //create return transaction
         Transaction returntTransaction = new Transaction(user,book,TransactionType.RETURN);
         returntTransaction.setReturnDate(LocalDateTime.now());
         returntTransaction.setStatus(TransactionStatus.RETURNED);
+        returntTransaction.setCopyId(borrowTransaction.getCopyId());
 
-        //update book availability
-        book.setAvailableCopies(book.getAvailableCopies()+1);
-        bookRepository.save(book);
+        //put the copy back on the shelf
+        copyInventoryService.releaseCopy(book.getId(), borrowTransaction.getCopyId());
 
         //Save both Transactions
         transactionRepository.save(borrowTransaction);
+        outboxService.record(OutboxEventType.BOOK_RETURNED, borrowTransaction);
+        TransactionHooks.afterCommit(() -> auditLog.record(AuditAction.BOOK_RETURNED, user.getId(), book.getId(),
+                "loan " + borrowTransaction.getId() + (borrowTransaction.getFine() != null && borrowTransaction.getFine() > 0
+                        ? ", fine " + borrowTransaction.getFine() : "")));
         return transactionRepository.save(returntTransaction);
     }
     //get all transactions
@@ -129,4 +198,20 @@ public class TransactionService {
     public List<Transaction> getActiveBorrowings(){
         return transactionRepository.findByStatus(TransactionStatus.ACTIVE);
     }
+
+    //newest first, optionally for one user and/or status; user and book are left unloaded
+    //for the caller to batch (GraphQL data loaders). At most MAX_SEARCH_RESULTS rows, also
+    //when no limit or a larger one is asked for.
+    public List<Transaction> searchTransactions(Long userId, TransactionStatus status, Integer limit){
+        int rows = limit != null ? Math.min(limit, MAX_SEARCH_RESULTS) : MAX_SEARCH_RESULTS;
+        return transactionRepository.search(userId, status, Limit.of(rows));
+    }
+
+    public long countActiveLoans(){
+        return transactionRepository.countByStatus(TransactionStatus.ACTIVE);
+    }
+
+    public long countOverdueLoans(){
+        return transactionRepository.countByStatusAndDueDateBefore(TransactionStatus.ACTIVE, LocalDateTime.now());
+    }
 }
@@ -0,0 +1,423 @@
+package com.library.service;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.library.dto.BookSuggestView;
+import com.library.dto.TrendingBook;
+import com.library.model.OutboxEvent;
+import com.library.model.OutboxEventType;
+import com.library.model.TrendingBucket;
+import com.library.repository.BookRepository;
+import com.library.repository.TrendingBucketRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// "Trending this week": weighted borrows and catalog detail views per title over a sliding window.
+//
+// The window is a ring of time buckets (an hour each, a week in all by default). Each bucket is
+// a count-min sketch in an AtomicIntegerArray, and a running window sketch holds the sum of the
+// live buckets, so recording a hit is a few lock-free increments and estimating a title's score
+// is a few reads. When the clock enters a new bucket, the slot it reuses is subtracted from the
+// window and cleared: old activity ages out one bucket at a time. Next to the sketch a bounded
+// set of candidate titles tracks the heavy hitters; a title joins when its estimate beats the
+// weakest candidate. The leaderboard ranks the candidates and is cached for a few seconds.
+// Buckets are saved to trending_buckets periodically and on shutdown, and loaded at startup.
+// Each instance counts the hits it sees; saved buckets are per deployment, last writer wins.
+@Service
+public class TrendingService implements CirculationEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    // Fixed so that saved sketches stay readable across restarts
+    private static final long[] ROW_SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+        0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x85EBCA77C2B2AE63L
+    };
+
+    @Autowired
+    private TrendingBucketRepository trendingBucketRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${library.trending.bucket-minutes:60}")
+    private int bucketMinutes;
+
+    // Buckets in the window: 168 one-hour buckets = one week
+    @Value("${library.trending.window-buckets:168}")
+    private int windowBuckets;
+
+    // Rows (at most 8) and columns of each count-min sketch
+    @Value("${library.trending.sketch-depth:4}")
+    private int depth;
+
+    @Value("${library.trending.sketch-width:2048}")
+    private int width;
+
+    // Titles tracked as possible heavy hitters; also the longest leaderboard
+    @Value("${library.trending.candidates:100}")
+    private int capacity;
+
+    @Value("${library.trending.borrow-weight:5}")
+    private int borrowWeight;
+
+    @Value("${library.trending.view-weight:1}")
+    private int viewWeight;
+
+    @Value("${library.trending.cache-ms:5000}")
+    private long cacheMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Replaced in tests to move through buckets
+    private Clock clock = Clock.systemUTC();
+
+    private long bucketMillis;
+    private AtomicIntegerArray[] buckets;
+    // Bucket index currently held by each slot
+    private long[] slotBucket;
+    private AtomicBoolean[] dirty;
+    private AtomicIntegerArray window;
+    // Newest bucket index; slots are recycled under rotateLock before it moves
+    private volatile long head;
+    private final Object rotateLock = new Object();
+
+    private final Set<Long> candidates = ConcurrentHashMap.newKeySet();
+    // Estimate a newcomer has to beat once the candidate set is full
+    private volatile int admissionThreshold;
+    private final Object candidateLock = new Object();
+
+    private volatile Ranking ranking;
+
+    public TrendingService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void allocate() {
+        if (depth < 1 || depth > ROW_SEEDS.length) {
+            throw new IllegalStateException("library.trending.sketch-depth must be between 1 and " + ROW_SEEDS.length);
+        }
+        bucketMillis = bucketMinutes * 60_000L;
+        buckets = new AtomicIntegerArray[windowBuckets];
+        slotBucket = new long[windowBuckets];
+        dirty = new AtomicBoolean[windowBuckets];
+        head = clock.millis() / bucketMillis;
+        for (int i = 0; i < windowBuckets; i++) {
+            buckets[i] = new AtomicIntegerArray(depth * width);
+            dirty[i] = new AtomicBoolean();
+            long index = head - i;
+            slotBucket[slot(index)] = index;
+        }
+        window = new AtomicIntegerArray(depth * width);
+    }
+
+    // Borrows arrive through the outbox; a redelivered event counts twice, within the sketch's error
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            if (event.getEventType() == OutboxEventType.BOOK_BORROWED) {
+                record(event.getBookId(), borrowWeight);
+            }
+        }
+    }
+
+    public void recordView(Long bookId) {
+        record(bookId, viewWeight);
+    }
+
+    // Up to limit titles with the highest score in the window
+    public List<TrendingBook> leaderboard(int limit) {
+        Ranking current = ranking;
+        long now = clock.millis();
+        if (current == null || now - current.computedAt >= cacheMs) {
+            current = rank(now);
+            ranking = current;
+        }
+        List<TrendingBook> books = current.books;
+        return books.subList(0, Math.min(Math.max(1, limit), books.size()));
+    }
+
+    private Ranking rank(long now) {
+        // Age out the buckets the clock has left, also when nothing was recorded since
+        currentBucket();
+        List<long[]> scored = new ArrayList<>(candidates.size());
+        for (Long bookId : candidates) {
+            int score = estimate(bookId);
+            if (score > 0) {
+                scored.add(new long[] {bookId, score});
+            }
+        }
+        scored.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+        if (scored.isEmpty()) {
+            return new Ranking(now, List.of());
+        }
+
+        List<Long> ids = new ArrayList<>(scored.size());
+        for (long[] entry : scored) {
+            ids.add(entry[0]);
+        }
+        Map<Long, BookSuggestView> views = new HashMap<>();
+        for (BookSuggestView view : bookRepository.findSuggestViewsByIds(ids)) {
+            views.put(view.getId(), view);
+        }
+        List<TrendingBook> books = new ArrayList<>(scored.size());
+        for (long[] entry : scored) {
+            BookSuggestView view = views.get(entry[0]);
+            if (view != null) {
+                books.add(new TrendingBook(view.getId(), view.getTitle(), view.getAuthor(), (int) entry[1]));
+            }
+        }
+        return new Ranking(now, books);
+    }
+
+    private void record(long bookId, int weight) {
+        long bucket = currentBucket();
+        int slot = slot(bucket);
+        AtomicIntegerArray cells = buckets[slot];
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int cell = cell(bookId, row);
+            cells.addAndGet(cell, weight);
+            estimate = Math.min(estimate, window.addAndGet(cell, weight));
+        }
+        dirty[slot].set(true);
+        offerCandidate(bookId, estimate);
+    }
+
+    private int estimate(long bookId) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, window.get(cell(bookId, row)));
+        }
+        return estimate;
+    }
+
+    private void offerCandidate(long bookId, int estimate) {
+        if (candidates.contains(bookId) || (candidates.size() >= capacity && estimate <= admissionThreshold)) {
+            return;
+        }
+        synchronized (candidateLock) {
+            if (candidates.add(bookId) && candidates.size() > capacity) {
+                evictWeakest();
+            }
+        }
+    }
+
+    // Drop the weakest candidate and raise the admission threshold to the next weakest
+    private void evictWeakest() {
+        long weakest = -1;
+        int weakestEstimate = Integer.MAX_VALUE;
+        int nextEstimate = Integer.MAX_VALUE;
+        for (Long id : candidates) {
+            int estimate = estimate(id);
+            if (estimate < weakestEstimate) {
+                nextEstimate = weakestEstimate;
+                weakestEstimate = estimate;
+                weakest = id;
+            } else if (estimate < nextEstimate) {
+                nextEstimate = estimate;
+            }
+        }
+        candidates.remove(weakest);
+        admissionThreshold = nextEstimate == Integer.MAX_VALUE ? 0 : nextEstimate;
+    }
+
+    private long currentBucket() {
+        long bucket = clock.millis() / bucketMillis;
+        if (bucket > head) {
+            rotate(bucket);
+        }
+        // A hit computed just before a rotation lands in the previous bucket, which is still live
+        return Math.max(bucket, head - windowBuckets + 1);
+    }
+
+    // Recycle the slots of the buckets that left the window, then publish the new head
+    private void rotate(long target) {
+        synchronized (rotateLock) {
+            long current = head;
+            if (target <= current) {
+                return;
+            }
+            long from = Math.max(current + 1, target - windowBuckets + 1);
+            for (long index = from; index <= target; index++) {
+                int slot = slot(index);
+                AtomicIntegerArray cells = buckets[slot];
+                for (int cell = 0; cell < cells.length(); cell++) {
+                    int expired = cells.getAndSet(cell, 0);
+                    if (expired != 0) {
+                        window.addAndGet(cell, -expired);
+                    }
+                }
+                slotBucket[slot] = index;
+                dirty[slot].set(false);
+            }
+            head = target;
+        }
+        // Scores only fell: forget candidates that aged out and lower the bar for newcomers
+        synchronized (candidateLock) {
+            candidates.removeIf(id -> estimate(id) == 0);
+            int lowest = Integer.MAX_VALUE;
+            for (Long id : candidates) {
+                lowest = Math.min(lowest, estimate(id));
+            }
+            admissionThreshold = candidates.size() >= capacity ? lowest : 0;
+        }
+        ranking = null;
+    }
+
+    // Forget every hit, as if the window had just started; used by tests sharing one instance
+    void clear() {
+        synchronized (rotateLock) {
+            for (int slot = 0; slot < windowBuckets; slot++) {
+                AtomicIntegerArray cells = buckets[slot];
+                for (int cell = 0; cell < cells.length(); cell++) {
+                    cells.set(cell, 0);
+                }
+                // Saved again as empty at the next snapshot
+                dirty[slot].set(true);
+            }
+            for (int cell = 0; cell < window.length(); cell++) {
+                window.set(cell, 0);
+            }
+        }
+        synchronized (candidateLock) {
+            candidates.clear();
+            admissionThreshold = 0;
+        }
+        ranking = null;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) windowBuckets);
+    }
+
+    private int cell(long bookId, int row) {
+        return row * width + (int) ((mix(bookId ^ ROW_SEEDS[row]) >>> 1) % width);
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // Add the saved buckets still inside the window to whatever was counted since startup
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        long newest = currentBucket();
+        long oldest = newest - windowBuckets + 1;
+        int restored = 0;
+        byte[] savedCandidates = null;
+        for (TrendingBucket saved : trendingBucketRepository.findByBucketIndexBetweenOrderByBucketIndex(oldest, newest)) {
+            if (saved.getBucketMinutes() != bucketMinutes || saved.getSketch().length != depth * width * 4) {
+                continue;
+            }
+            int slot = slot(saved.getBucketIndex());
+            ByteBuffer sketch = ByteBuffer.wrap(saved.getSketch());
+            for (int cell = 0; cell < depth * width; cell++) {
+                int count = sketch.getInt();
+                if (count != 0) {
+                    buckets[slot].addAndGet(cell, count);
+                    window.addAndGet(cell, count);
+                }
+            }
+            dirty[slot].set(true);
+            restored++;
+            if (saved.getCandidates() != null) {
+                savedCandidates = saved.getCandidates();
+            }
+        }
+        if (savedCandidates != null) {
+            ByteBuffer ids = ByteBuffer.wrap(savedCandidates);
+            while (ids.remaining() >= Long.BYTES) {
+                long bookId = ids.getLong();
+                offerCandidate(bookId, estimate(bookId));
+            }
+        }
+        ranking = null;
+        if (restored > 0) {
+            logger.info("Trending counters restored from {} saved buckets, {} candidates", restored, candidates.size());
+        }
+    }
+
+    // Save the buckets that changed since the last save and drop the ones that left the window
+    @Scheduled(fixedDelayString = "${library.trending.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        currentBucket();
+        long newest = head;
+        long oldest = newest - windowBuckets + 1;
+        ByteBuffer candidateIds = ByteBuffer.allocate(candidates.size() * Long.BYTES + Long.BYTES * 8);
+        for (Long id : candidates) {
+            if (candidateIds.remaining() < Long.BYTES) {
+                break;
+            }
+            candidateIds.putLong(id);
+        }
+        byte[] candidateBytes = java.util.Arrays.copyOf(candidateIds.array(), candidateIds.position());
+
+        List<Integer> slots = new ArrayList<>();
+        List<TrendingBucket> rows = new ArrayList<>();
+        for (int slot = 0; slot < windowBuckets; slot++) {
+            if (!dirty[slot].getAndSet(false)) {
+                continue;
+            }
+            AtomicIntegerArray cells = buckets[slot];
+            ByteBuffer sketch = ByteBuffer.allocate(cells.length() * 4);
+            for (int cell = 0; cell < cells.length(); cell++) {
+                sketch.putInt(cells.get(cell));
+            }
+            slots.add(slot);
+            rows.add(new TrendingBucket(slotBucket[slot], bucketMinutes, sketch.array(), candidateBytes));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                trendingBucketRepository.saveAll(rows);
+                trendingBucketRepository.deleteOlderThan(oldest);
+            });
+        } catch (RuntimeException e) {
+            slots.forEach(slot -> dirty[slot].set(true));
+            logger.warn("Saving {} trending buckets failed, will retry: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void saveOnShutdown() {
+        snapshot();
+    }
+
+    private static final class Ranking {
+        final long computedAt;
+        final List<TrendingBook> books;
+
+        Ranking(long computedAt, List<TrendingBook> books) {
+            this.computedAt = computedAt;
+            this.books = books;
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.library.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.library.dto.UserDirectoryPage;
+import com.library.dto.UserSummary;
 import com.library.exception.ResourceAlreadyExistsException;
 import com.library.exception.ResourceNotFoundException;
+import com.library.model.CacheRegion;
+import com.library.model.PurgeTarget;
+import com.library.model.PurgeTask;
+import com.library.model.Role;
 import com.library.model.User;
+import com.library.model.UserDirectorySort;
+import com.library.repository.TransactionRepository;
 import com.library.repository.UserRepository;
 
 @Service
@@ -17,6 +32,15 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
     //create User
     public User createUser(User user){
         if (userRepository.existsByUsername(user.getUsername())){
@@ -33,6 +57,75 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // Directory page for librarians: slim rows, optional prefix/role/on-loan filters, keyset paging.
+    // The cursor is the sort, the last row's sort key and its id, so it only continues its own sort.
+    public UserDirectoryPage getDirectory(String query, Collection<Role> roles, boolean withLoans,
+                                          UserDirectorySort sort, String after, int size){
+        String prefix = query == null || query.isBlank() ? null : query.trim();
+        String afterValue = null;
+        Long afterId = null;
+        if (after != null && !after.isBlank()){
+            String[] cursor = decodeCursor(after);
+            if (!cursor[0].equals(sort.name())){
+                throw new IllegalArgumentException("Cursor was issued for sort " + cursor[0] + ", not " + sort);
+            }
+            afterId = Long.valueOf(cursor[1]);
+            afterValue = cursor[2];
+        }
+        List<UserSummary> users = userRepository.findDirectoryPage(prefix, roles == null || roles.isEmpty() ? null : roles,
+                withLoans, sort, afterValue, afterId, size + 1);
+        String nextCursor = null;
+        if (users.size() > size){
+            users = users.subList(0, size);
+            nextCursor = encodeCursor(sort, users.get(size - 1));
+        }
+        return new UserDirectoryPage(users, nextCursor, size);
+    }
+
+    public Map<Role, Long> countUsersByRole(){
+        Map<Role, Long> counts = new EnumMap<>(Role.class);
+        for (Role role : Role.values()){
+            counts.put(role, 0L);
+        }
+        for (Object[] row : userRepository.countByRole()){
+            counts.put((Role) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static String encodeCursor(UserDirectorySort sort, UserSummary last){
+        String value = switch (sort){
+            case USERNAME -> last.getUsername();
+            case FULL_NAME -> last.getFullName();
+            case EMAIL -> last.getEmail();
+            case NEWEST -> "";
+        };
+        String cursor = sort.name() + ":" + last.getId() + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor){
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length == 3){
+                Long.parseLong(parts[1]);
+                return parts;
+            }
+        } catch (IllegalArgumentException e){
+            // falls through to the error below (NumberFormatException included)
+        }
+        throw new IllegalArgumentException("Invalid directory cursor: " + cursor);
+    }
+
+    // Get several users in one query (GraphQL data loader)
+    public List<User> getUsersByIds(Collection<Long> ids){
+        return userRepository.findAllById(ids);
+    }
+
+    public long countUsers(){
+        return userRepository.count();
+    }
+
     // Get user by ID
     public Optional<User> getUserById(Long id){
         return userRepository.findById(id);
@@ -43,7 +136,8 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
 
-    // update user 
+    // update user (signed-in principals are cached on every instance, see CustomUserDetailsService)
+    @Transactional
     public User updateUser(Long id, User userDetails){
         User user = userRepository.findById(id)
                 .orElseThrow(()-> new  ResourceNotFoundException("User", "id", id));
@@ -52,14 +146,22 @@ public class UserService {
         user.setPhoneNumber(userDetails.getPhoneNumber());
         user.setRole(userDetails.getRole());
 
-        return userRepository.save((user));
+        User savedUser = userRepository.save((user));
+        cacheInvalidationBus.publish(CacheRegion.USER, id);
+        return savedUser;
     }
 
-    // delete user
-    public void deleteUser(Long id){
-        if (!userRepository.existsById(id)){
+    // delete user: anonymize and tombstone now, purge their loans in the background
+    @Transactional
+    public PurgeTask deleteUser(Long id){
+        if (userRepository.markDeleted(id, LocalDateTime.now()) == 0){
             throw new  ResourceNotFoundException("User", "id", id);
         }
-        userRepository.deleteById(id);
+        long activeLoans = transactionRepository.countActiveLoans(id);
+        if (activeLoans > 0){
+            throw new IllegalArgumentException("Member has " + activeLoans + " books on loan; they must be returned before the account is deleted");
+        }
+        cacheInvalidationBus.publish(CacheRegion.USER, id);
+        return purgeService.schedule(PurgeTarget.USER, id);
     }
 }
@@ -0,0 +1,15 @@
+-- Security audit trail, written in batches
+
+create table audit_log (
+    id bigint not null auto_increment,
+    occurred_at datetime(6) not null,
+    action enum ('BOOK_BORROWED','BOOK_RETURNED','LOGIN','LOGIN_FAILED','LOGOUT','REFRESH_TOKEN_REUSED','ROLE_CHANGED') not null,
+    actor varchar(100),
+    user_id bigint,
+    book_id bigint,
+    client_ip varchar(64),
+    detail varchar(500),
+    primary key (id)
+);
+
+create index idx_audit_log_occurred on audit_log (occurred_at);
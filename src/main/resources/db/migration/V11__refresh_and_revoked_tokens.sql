@@ -0,0 +1,29 @@
+-- Rotating refresh tokens (stored hashed) and access tokens revoked before they expire
+
+create table refresh_tokens (
+    id bigint not null auto_increment,
+    token_hash varchar(64) not null,
+    family_id varchar(36) not null,
+    user_id bigint not null,
+    created_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    used_at datetime(6),
+    revoked_at datetime(6),
+    primary key (id)
+);
+
+alter table refresh_tokens add constraint UKo2mlirhldriil2y7krapq4frt unique (token_hash);
+create index idx_refresh_tokens_family on refresh_tokens (family_id);
+create index idx_refresh_tokens_expires on refresh_tokens (expires_at);
+
+create table revoked_tokens (
+    id bigint not null auto_increment,
+    jti varchar(36) not null,
+    revoked_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    primary key (id)
+);
+
+alter table revoked_tokens add constraint UK9mfwawnvm7caetg0ed8u6oehq unique (jti);
+create index idx_revoked_tokens_revoked on revoked_tokens (revoked_at);
+create index idx_revoked_tokens_expires on revoked_tokens (expires_at);
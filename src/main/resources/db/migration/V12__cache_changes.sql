@@ -0,0 +1,12 @@
+-- Change sequence each instance polls to drop its cached books and principals
+
+create table cache_changes (
+    id bigint not null auto_increment,
+    region enum ('BOOK','USER') not null,
+    entity_id bigint not null,
+    origin varchar(36) not null,
+    created_at datetime(6) not null,
+    primary key (id)
+);
+
+create index idx_cache_changes_created on cache_changes (created_at);
@@ -0,0 +1,54 @@
+-- Members, catalog and circulation history as they were before the schema was versioned.
+-- Databases created by Hibernate before then are baselined at this version instead.
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    full_name varchar(255) not null,
+    email varchar(255) not null,
+    phone_number varchar(255),
+    role enum ('LIBRARIAN','MEMBER') not null,
+    account_non_expired bit not null,
+    account_non_locked bit not null,
+    credentials_non_expired bit not null,
+    enabled bit not null,
+    primary key (id)
+);
+
+alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+create table books (
+    id bigint not null auto_increment,
+    title varchar(255) not null,
+    author varchar(255) not null,
+    isbn varchar(255) not null,
+    publisher varchar(255),
+    publication_year integer not null,
+    category varchar(255),
+    total_copies integer not null,
+    available_copies integer,
+    description varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+);
+
+alter table books add constraint UKkibbepcitr0a3cpk3rfr7nihn unique (isbn);
+
+create table transactions (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    book_id bigint not null,
+    transaction_type enum ('BORROW','RETURN'),
+    transaction_date datetime(6),
+    due_date datetime(6),
+    return_date datetime(6),
+    fine float(53),
+    status enum ('ACTIVE','OVERDUE','RETURNED'),
+    primary key (id)
+);
+
+alter table transactions add constraint FKqwv7rmvc8va8rep7piikrojds foreign key (user_id) references users (id);
+alter table transactions add constraint FKhwis5rd79vrejvuuuc513px7a foreign key (book_id) references books (id);
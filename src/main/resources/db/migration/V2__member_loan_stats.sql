@@ -0,0 +1,13 @@
+-- Per-member loan counters checked on borrow. Rows for existing members are created on their
+-- first borrow and corrected by the nightly reconcile.
+
+create table member_loan_stats (
+    user_id bigint not null,
+    active_loans integer not null,
+    overdue_loans integer not null,
+    total_fines float(53) not null,
+    fines_paid float(53) not null,
+    primary key (user_id)
+);
+
+alter table transactions add column overdue_flagged bit not null default 0;
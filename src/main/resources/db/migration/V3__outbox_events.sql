@@ -0,0 +1,20 @@
+-- Circulation events written with the loan and relayed after commit
+
+create table outbox_events (
+    id bigint not null auto_increment,
+    event_type enum ('BOOK_BORROWED','BOOK_RETURNED') not null,
+    transaction_id bigint,
+    book_id bigint not null,
+    user_id bigint not null,
+    fine float(53),
+    occurred_at datetime(6) not null,
+    published_at datetime(6),
+    next_attempt_at datetime(6) not null,
+    attempts integer not null,
+    last_error varchar(500),
+    dead_at datetime(6),
+    primary key (id)
+);
+
+create index idx_outbox_pending on outbox_events (published_at, next_attempt_at);
+create index idx_outbox_book on outbox_events (book_id, published_at);
@@ -0,0 +1,14 @@
+-- Due-date reminders and overdue notices already sent, one row per loan and window
+
+create table loan_notices (
+    id bigint not null auto_increment,
+    transaction_id bigint not null,
+    kind enum ('DUE_SOON','OVERDUE') not null,
+    window_key varchar(32) not null,
+    sent_at datetime(6) not null,
+    primary key (id)
+);
+
+alter table loan_notices add constraint uk_loan_notice_window unique (transaction_id, kind, window_key);
+
+create index idx_transactions_status_due on transactions (status, due_date);
@@ -0,0 +1,19 @@
+-- Copy-level inventory. Titles without copy rows get them on the next start, one per
+-- total_copies; loans made before then have no copy_id.
+
+create table book_copies (
+    id bigint not null auto_increment,
+    book_id bigint not null,
+    barcode varchar(64) not null,
+    location varchar(255),
+    status enum ('AVAILABLE','LOST','ON_LOAN','WITHDRAWN') not null,
+    created_at datetime(6),
+    primary key (id)
+);
+
+alter table book_copies add constraint uk_book_copies_barcode unique (barcode);
+alter table book_copies add constraint FKhlawea8y2e2dv0ta58vc6f5nr foreign key (book_id) references books (id);
+create index idx_book_copies_book_status on book_copies (book_id, status);
+
+alter table transactions add column copy_id bigint;
+create index idx_transactions_copy_status on transactions (copy_id, status);
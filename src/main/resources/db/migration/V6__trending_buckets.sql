@@ -0,0 +1,10 @@
+-- Saved count-min sketch buckets of the trending leaderboard, reloaded on start
+
+create table trending_buckets (
+    bucket_index bigint not null,
+    bucket_minutes integer not null,
+    sketch mediumblob not null,
+    candidates mediumblob,
+    saved_at datetime(6) not null,
+    primary key (bucket_index)
+);
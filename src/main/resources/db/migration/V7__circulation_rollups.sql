@@ -0,0 +1,20 @@
+-- Daily circulation totals per category for the range reports, and how far they are complete
+
+create table circulation_daily (
+    id bigint not null auto_increment,
+    activity_date date not null,
+    category varchar(255) not null,
+    transaction_type enum ('BORROW','RETURN') not null,
+    transaction_count bigint not null,
+    fines float(53) not null,
+    primary key (id)
+);
+
+alter table circulation_daily add constraint uk_circulation_daily unique (activity_date, category, transaction_type);
+
+create table circulation_rollup_state (
+    id integer not null,
+    live_from date not null,
+    backfilled_at datetime(6),
+    primary key (id)
+);
@@ -0,0 +1,22 @@
+-- Deleted books and members are marked, then their rows are purged in the background
+
+alter table books add column deleted_at datetime(6);
+alter table users add column deleted_at datetime(6);
+
+create table purge_tasks (
+    id bigint not null auto_increment,
+    target_type enum ('BOOK','USER') not null,
+    target_id bigint not null,
+    phase enum ('COPIES','DONE','LOANS','NOTICES','STATS','TOMBSTONE') not null,
+    status enum ('DONE','FAILED','PENDING') not null,
+    chunks integer not null,
+    rows_purged bigint not null,
+    attempts integer not null,
+    last_error varchar(500),
+    created_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    finished_at datetime(6),
+    primary key (id)
+);
+
+create index idx_purge_tasks_status on purge_tasks (status, id);
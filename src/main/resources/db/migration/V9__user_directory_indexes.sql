@@ -0,0 +1,4 @@
+-- Keyset pages and prefix search of the user directory
+
+create index idx_users_full_name on users (full_name);
+create index idx_users_role_username on users (role, username);
@@ -0,0 +1,31 @@
+package com.library;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Builds the schema from db/migration the way the prod profile does, then has Hibernate
+// validate it: a failure here means an entity changed without a migration to match.
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false"
+})
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void migrationsMatchTheEntities() {
+        MigrationInfoService info = flyway.info();
+        assertEquals(0, info.pending().length);
+        assertEquals(info.all().length, info.applied().length);
+    }
+}
@@ -0,0 +1,232 @@
+package com.library.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.LibraryManagementSystemApplication;
+
+// Two instances of the application in their own JVMs, sharing one database the way nodes behind
+// a load balancer do, checking that a write on one reaches the other's caches and indexes.
+// Excluded from the normal build; run with
+//   mvn -Pcluster test
+// The database is an H2 server in the test JVM; node output goes to target/cluster-logs.
+@Tag("cluster")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CacheInvalidationClusterTest {
+
+    // Poll interval on the nodes, and how long a change may take to show up on the other one
+    private static final int POLL_INTERVAL_MS = 100;
+    private static final Duration PROPAGATION = Duration.ofSeconds(5);
+    private static final Duration STARTUP = Duration.ofMinutes(3);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<Process> nodes = new ArrayList<>();
+
+    private Server database;
+    private String nodeA;
+    private String nodeB;
+    private String librarianToken;
+
+    @BeforeAll
+    void startCluster() throws Exception {
+        database = Server.createTcpServer("-tcpPort", String.valueOf(freePort()), "-ifNotExists").start();
+        String jdbcUrl = "jdbc:h2:tcp://localhost:" + database.getPort() + "/mem:cluster;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+        // One at a time: the first creates the schema
+        nodeA = startNode("node-a", jdbcUrl, "create");
+        nodeB = startNode("node-b", jdbcUrl, "none");
+
+        send(nodeA, "POST", "/api/auth/register", null, "{\"username\": \"cluster-librarian\", \"password\": \"secret1\", "
+                + "\"fullName\": \"Cluster Librarian\", \"email\": \"cluster@example.test\", \"role\": \"LIBRARIAN\"}");
+        librarianToken = json(send(nodeA, "POST", "/api/auth/login", null,
+                "{\"username\": \"cluster-librarian\", \"password\": \"secret1\"}")).get("token").asText();
+    }
+
+    @AfterAll
+    void stopCluster() throws Exception {
+        for (Process node : nodes) {
+            node.destroy();
+        }
+        for (Process node : nodes) {
+            if (!node.waitFor(30, TimeUnit.SECONDS)) {
+                node.destroyForcibly();
+            }
+        }
+        if (database != null) {
+            database.stop();
+        }
+    }
+
+    // Edits on A reach B's cached copy in order: B never shows an older title after a newer one
+    @Test
+    void bookUpdatesReachTheOtherNodeInOrder() throws Exception {
+        long bookId = json(send(nodeA, "POST", "/api/books", librarianToken, book("9780000001001", "Edition 0")))
+                .get("id").asLong();
+        assertEquals("Edition 0", await(nodeB, "/api/books/" + bookId, body -> body.contains("Edition 0")).get("title").asText());
+
+        int lastSeen = 0;
+        for (int edition = 1; edition <= 5; edition++) {
+            send(nodeA, "PUT", "/api/books/" + bookId, librarianToken, book("9780000001001", "Edition " + edition));
+            int seen = edition(json(send(nodeB, "GET", "/api/books/" + bookId, null, null)));
+            assertTrue(seen >= lastSeen, "node B went back from edition " + lastSeen + " to " + seen);
+            lastSeen = seen;
+        }
+        long deadline = System.nanoTime() + PROPAGATION.toNanos();
+        while (lastSeen < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MS / 2);
+            int seen = edition(json(send(nodeB, "GET", "/api/books/" + bookId, null, null)));
+            assertTrue(seen >= lastSeen, "node B went back from edition " + lastSeen + " to " + seen);
+            lastSeen = seen;
+        }
+        assertEquals(5, lastSeen, "node B did not see the last edition within " + PROPAGATION);
+    }
+
+    // A title catalogued on A turns up in B's in-memory type-ahead index
+    @Test
+    void newBooksReachTheOtherNodesIndexes() throws Exception {
+        send(nodeA, "POST", "/api/books", librarianToken, book("9780000001002", "Zeppelin Quartet"));
+        await(nodeB, "/api/books/suggest?q=zeppelin", body -> body.contains("Zeppelin Quartet"));
+    }
+
+    // B caches the signed-in user; a role change on A takes their librarian rights away on B
+    @Test
+    void roleChangesReachTheOtherNodesPrincipals() throws Exception {
+        String token = json(send(nodeA, "POST", "/api/auth/register", null, "{\"username\": \"cluster-deputy\", "
+                + "\"password\": \"secret1\", \"fullName\": \"Cluster Deputy\", \"email\": \"deputy@example.test\", "
+                + "\"role\": \"LIBRARIAN\"}")).get("token").asText();
+        assertEquals(200, request(nodeB, "GET", "/api/users/search/cluster-deputy", token, null).statusCode());
+
+        long deputyId = json(send(nodeA, "GET", "/api/users/search/cluster-deputy", librarianToken, null)).get("id").asLong();
+        send(nodeA, "PUT", "/api/users/" + deputyId + "/role?role=MEMBER", librarianToken, null);
+
+        long deadline = System.nanoTime() + PROPAGATION.toNanos();
+        int status;
+        do {
+            status = request(nodeB, "GET", "/api/users/search/cluster-deputy", token, null).statusCode();
+        } while (status == 200 && System.nanoTime() < deadline && sleep());
+        // Refusals surface as 401 (the error page is rendered without the token), so check the
+        // token itself is still good for what a member may do
+        assertTrue(status == 401 || status == 403, "node B still treats the demoted user as a librarian: " + status);
+        assertEquals(200, request(nodeB, "GET", "/api/transactions/user/" + deputyId + "/loan-status", token, null).statusCode());
+    }
+
+    private String startNode(String name, String jdbcUrl, String ddl) throws Exception {
+        int port = freePort();
+        Path logs = Paths.get("target", "cluster-logs");
+        Files.createDirectories(logs);
+        String classpath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        List<String> command = List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx384m", "-cp", classpath, LibraryManagementSystemApplication.class.getName(),
+                "--spring.profiles.active=test",
+                "--server.port=" + port,
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--library.reactive-catalog.enabled=false",
+                "--library.notifications.enabled=false",
+                "--library.cache.poll-interval-ms=" + POLL_INTERVAL_MS);
+        File log = logs.resolve(name + ".log").toFile();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        nodes.add(process);
+
+        String base = "http://localhost:" + port;
+        long deadline = System.nanoTime() + STARTUP.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                fail(name + " exited with " + process.exitValue() + "; see " + log);
+            }
+            try {
+                if (request(base, "GET", "/api/auth/test", null, null).statusCode() == 200) {
+                    return base;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new AssertionError(name + " did not start within " + STARTUP + "; see " + log);
+    }
+
+    // Poll until the response body matches
+    private JsonNode await(String node, String path, Predicate<String> matches) throws Exception {
+        long deadline = System.nanoTime() + PROPAGATION.toNanos();
+        String body;
+        do {
+            body = send(node, "GET", path, null, null);
+            if (matches.test(body)) {
+                return json(body);
+            }
+        } while (System.nanoTime() < deadline && sleep());
+        throw new AssertionError(path + " on " + node + " did not change within " + PROPAGATION + ": " + body);
+    }
+
+    private String send(String node, String method, String path, String token, String body) throws Exception {
+        HttpResponse<String> response = request(node, method, path, token, body);
+        assertTrue(response.statusCode() < 300, method + " " + path + " -> " + response.statusCode() + " " + response.body());
+        return response.body();
+    }
+
+    private HttpResponse<String> request(String node, String method, String path, String token, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(String body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    private static int edition(JsonNode book) {
+        String title = book.get("title").asText();
+        return Integer.parseInt(title.substring(title.lastIndexOf(' ') + 1));
+    }
+
+    private static String book(String isbn, String title) {
+        return "{\"title\": \"" + title + "\", \"author\": \"Cluster Author\", \"isbn\": \"" + isbn + "\", "
+                + "\"category\": \"Testing\", \"publicationYear\": 2024, \"totalCopies\": 2}";
+    }
+
+    private static boolean sleep() throws InterruptedException {
+        Thread.sleep(POLL_INTERVAL_MS / 2);
+        return true;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+// Finished catalog JSON is replayed as bytes until a book changes; other formats are rendered
+class CatalogResponseCacheTest extends ApiTestSupport {
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @BeforeAll
+    void createData() {
+        book("9780000002001", "Response Caching");
+    }
+
+    @Test
+    void catalogResponseCache() throws Exception {
+        String rendered;
+        long generation;
+        do {
+            // A borrow from another test may still be flushing availability, which clears the cache
+            generation = catalogResponseCache.getGeneration();
+            rendered = mockMvc.perform(get("/api/books/category/Testing"))
+                    .andExpect(header().string(CatalogResponseCache.CACHE_HEADER, "MISS"))
+                    .andReturn().getResponse().getContentAsString();
+        } while (catalogResponseCache.getGeneration() != generation);
+        String replayed = mockMvc.perform(get("/api/books/category/Testing"))
+                .andExpect(header().string(CatalogResponseCache.CACHE_HEADER, "HIT"))
+                .andExpect(QueryCount.statements(0))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(rendered, replayed);
+        mockMvc.perform(get("/api/books/category/Testing").accept("application/cbor"))
+                .andExpect(header().doesNotExist(CatalogResponseCache.CACHE_HEADER))
+                .andExpect(QueryCount.statements(1));
+
+        book("9780000002002", "Generation Counters");
+        mockMvc.perform(get("/api/books/category/Testing"))
+                .andExpect(header().string(CatalogResponseCache.CACHE_HEADER, "MISS"))
+                .andExpect(jsonPath("$[?(@.title == 'Generation Counters')]").exists())
+                .andExpect(QueryCount.statements(1));
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class FrontendConfigTest extends ApiTestSupport {
+
+    // Pages link content-hashed scripts, which are served precompressed and cached for good
+    @Test
+    void frontendAssets() throws Exception {
+        String page = mockMvc.perform(get("/index.html").with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, must-revalidate, public"))
+                .andExpect(QueryCount.statements(0))
+                .andReturn().getResponse().getContentAsString();
+        Matcher script = Pattern.compile("src=\"(/js/api-[0-9a-f]{32}\\.js)\"").matcher(page);
+        assertTrue(script.find(), "index.html does not link the hashed api.js");
+
+        mockMvc.perform(get(script.group(1)).with(anonymous()).header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(QueryCount.statements(0));
+    }
+
+    // The plain URLs change content with each deploy, so they are never cached as immutable
+    @Test
+    void unhashedAssetsRevalidate() throws Exception {
+        mockMvc.perform(get("/js/api.js").with(anonymous()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, must-revalidate"));
+        MvcResult stylesheet = mockMvc.perform(get("/css/style.css").with(anonymous()).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Cache-Control", "no-cache, must-revalidate"))
+                .andReturn();
+
+        // A 304 adds no Cache-Control of its own, so the browser keeps the stored one
+        mockMvc.perform(get("/css/style.css").with(anonymous()).header("Accept-Encoding", "gzip")
+                        .header("If-Modified-Since", stylesheet.getResponse().getHeader("Last-Modified")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().doesNotExist("Cache-Control"));
+    }
+}
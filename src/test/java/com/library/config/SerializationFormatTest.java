@@ -0,0 +1,127 @@
+package com.library.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.library.model.Book;
+
+// Wire size of a 1,000 book catalog page in each format JacksonConfig offers, and (with
+// -Pbenchmark) serialization CPU, appended to target/benchmark-results/serialization.csv.
+class SerializationFormatTest {
+
+    private static final int BOOKS = 1_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 200;
+
+    private final List<Book> books = sampleBooks();
+    private final ObjectMapper reflectionJson = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper blackbirdJson = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory())
+            .modulesToInstall(new BlackbirdModule()).build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory())
+            .modulesToInstall(new BlackbirdModule()).build();
+
+    // The sample is seeded, so the sizes only move when the Book JSON shape does
+    @Test
+    void payloadSizesPerThousandBooks() throws IOException {
+        int json = reflectionJson.writeValueAsBytes(books).length;
+        assertEquals(json, blackbirdJson.writeValueAsBytes(books).length, "Blackbird changed the JSON");
+        assertTrue(cbor.writeValueAsBytes(books).length < json * 0.9, "CBOR is not 10% smaller than JSON");
+        assertTrue(smile.writeValueAsBytes(books).length < json * 0.6, "Smile is not 40% smaller than JSON");
+        assertTrue(gzip(reflectionJson.writeValueAsBytes(books)).length < json / 10, "gzip JSON is not 10x smaller");
+
+        // Binary payloads must round-trip to the same model
+        List<Book> decoded = cbor.readValue(cbor.writeValueAsBytes(books), new TypeReference<List<Book>>() {});
+        assertEquals(books.get(BOOKS - 1).getIsbn(), decoded.get(BOOKS - 1).getIsbn());
+        assertEquals(books.get(0).getCreatedAt(), decoded.get(0).getCreatedAt());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void serializationCpuPerThousandBooks() throws IOException {
+        Map<String, ObjectMapper> mappers = Map.of("json-reflection", reflectionJson, "json-blackbird", blackbirdJson,
+                "cbor-blackbird", cbor, "smile-blackbird", smile);
+        Path dir = Paths.get(System.getProperty("benchmark.results.dir", "target/benchmark-results"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("serialization.csv");
+        StringBuilder lines = new StringBuilder();
+        if (!Files.exists(file)) {
+            lines.append("timestamp,format,bytes,gzip_bytes,cpu_us_per_1k_books\n");
+        }
+        Instant now = Instant.now();
+        for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+            byte[] payload = mapper.getValue().writeValueAsBytes(books);
+            double cpuMicros = cpuMicros(mapper.getValue());
+            assertTrue(cpuMicros > 0, mapper.getKey() + " measured no CPU time");
+            lines.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%.1f%n", now, mapper.getKey(), payload.length,
+                    gzip(payload).length, cpuMicros));
+        }
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private double cpuMicros(ObjectMapper mapper) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.writeValueAsBytes(books);
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            mapper.writeValueAsBytes(books);
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1_000.0 / MEASURED_ROUNDS;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Book> sampleBooks() {
+        Random random = new Random(42);
+        String[] categories = {"Fiction", "Science", "History", "Technology", "Biography", "Poetry"};
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 9, 30);
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book("Title number " + i, "Author " + random.nextInt(300),
+                    String.format("978-%010d", i), "Publisher " + random.nextInt(40),
+                    1900 + random.nextInt(125), categories[random.nextInt(categories.length)],
+                    1 + random.nextInt(10));
+            book.setId((long) i + 1);
+            book.setDescription("A sample description for book " + i + " used to approximate real catalog rows.");
+            book.setCreatedAt(created.plusMinutes(i));
+            book.setUpdatedAt(created.plusMinutes(i));
+            books.add(book);
+        }
+        return books;
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.library.service.AuditLog;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class AuditControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    private Long readerId;
+    private Long bookId;
+
+    @BeforeAll
+    void createData() {
+        readerId = member("audit-reader");
+        bookId = book("9780000006001", "Audit Trails");
+    }
+
+    // The audit record is written by the audit writer, not by the request
+    @Test
+    void auditTrail() throws Exception {
+        mockMvc.perform(post("/api/transactions/borrow")
+                        .param("userId", readerId.toString()).param("bookId", bookId.toString()))
+                .andExpect(status().isCreated());
+        auditLog.flush(5000);
+        mockMvc.perform(get("/api/audit").param("action", "BOOK_BORROWED"))
+                .andExpect(jsonPath("$[?(@.userId == " + readerId + " && @.bookId == " + bookId + ")]").exists())
+                .andExpect(QueryCount.statements(1));
+    }
+}
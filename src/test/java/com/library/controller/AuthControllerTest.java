@@ -0,0 +1,81 @@
+package com.library.controller;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.jayway.jsonpath.JsonPath;
+import com.library.model.User;
+import com.library.repository.UserRepository;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class AuthControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Long userId;
+
+    @BeforeAll
+    void createData() {
+        User user = userRepository.findById(member("auth-session")).orElseThrow();
+        user.setPassword(passwordEncoder.encode("secret"));
+        userId = userRepository.save(user).getId();
+    }
+
+    // The bearer token is checked against the in-memory revocation list, so an authenticated
+    // request only adds the principal's lookup. Refresh tokens rotate; a reused one revokes its
+    // family, and logout revokes the access token.
+    @Test
+    void tokenRefreshAndRevocation() throws Exception {
+        String login = login("auth-session", "secret");
+        String firstRefresh = JsonPath.read(login, "$.refreshToken");
+        mockMvc.perform(get("/api/transactions/user/{id}/loan-status", userId).with(anonymous())
+                        .header("Authorization", "Bearer " + JsonPath.read(login, "$.token")))
+                .andExpect(status().isOk())
+                .andExpect(QueryCount.statements(3));
+
+        String refreshed = mockMvc.perform(refresh(firstRefresh))
+                .andExpect(status().isOk())
+                .andExpect(QueryCount.statements(4))
+                .andReturn().getResponse().getContentAsString();
+        String accessToken = JsonPath.read(refreshed, "$.token");
+        String secondRefresh = JsonPath.read(refreshed, "$.refreshToken");
+
+        // Replaying the first refresh token ends the whole family
+        mockMvc.perform(refresh(firstRefresh)).andExpect(status().isUnauthorized());
+        mockMvc.perform(refresh(secondRefresh)).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/api/auth/logout").with(anonymous()).header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/transactions/user/{id}/loan-status", userId).with(anonymous())
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login(String username, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login").with(anonymous())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"" + username + "\", \"password\": \"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private static MockHttpServletRequestBuilder refresh(String refreshToken) {
+        return post("/api/auth/refresh").with(anonymous())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\": \"" + refreshToken + "\"}");
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.config.CatalogResponseCache;
+import com.library.model.Book;
+import com.library.service.BookService;
+import com.library.service.RelatedBooksService;
+import com.library.service.TransactionService;
+import com.library.service.TrendingService;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+// Catalog, copy, related and trending reads: one query each, or none when served from memory
+class BookControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private RelatedBooksService relatedBooksService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    private Long bookId;
+    private Long fetchPlansId;
+
+    @BeforeAll
+    void createData() {
+        bookId = book("9780000001001", "Query Counting");
+
+        // Two titles borrowed by the same member are each other's neighbours
+        Long readerId = member("book-reader");
+        fetchPlansId = book("9780000001002", "Fetch Plans");
+        transactionService.borrowBook(readerId, fetchPlansId);
+        transactionService.borrowBook(readerId, book("9780000001003", "Entity Graphs"));
+    }
+
+    @Test
+    void catalogReads() throws Exception {
+        // Measure the rendering, not a response cached by another test
+        catalogResponseCache.clear();
+        mockMvc.perform(get("/api/books")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/isbn/9780000001001")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/title/Query")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/author/Author")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/category/Testing")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/available")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/browse")).andExpect(QueryCount.statements(1));
+        // Served from the in-memory prefix index
+        mockMvc.perform(get("/api/books/suggest").param("q", "que")).andExpect(QueryCount.statements(0));
+    }
+
+    // Single titles are cached; an update drops the cached copy after it commits and records the
+    // change for other instances (see CacheInvalidationBus)
+    @Test
+    void cachedBookReads() throws Exception {
+        Long cachedId = book("9780000001005", "Cache Coherence");
+        mockMvc.perform(get("/api/books/{id}", cachedId)).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/{id}", cachedId)).andExpect(QueryCount.statements(0));
+
+        mockMvc.perform(put("/api/books/{id}", cachedId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Cache Coherence, 2nd ed.\", \"author\": \"Test Author\", "
+                                + "\"isbn\": \"9780000001005\", \"publicationYear\": 2021, \"totalCopies\": 2}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/{id}", cachedId))
+                .andExpect(jsonPath("$.title").value("Cache Coherence, 2nd ed."))
+                .andExpect(QueryCount.statements(1));
+    }
+
+    @Test
+    void copyReads() throws Exception {
+        mockMvc.perform(get("/api/copies/book/{bookId}", bookId)).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/copies/{barcode}", String.format("LIB%07d001", bookId)))
+                .andExpect(QueryCount.statements(1));
+    }
+
+    // Neighbours come from the in-memory index; one lookup for their titles, none without any
+    @Test
+    void relatedBooks() throws Exception {
+        relatedBooksService.rebuild();
+        mockMvc.perform(get("/api/books/{id}/related", fetchPlansId))
+                .andExpect(jsonPath("$[0].title").value("Entity Graphs"))
+                .andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/books/{id}/related", bookId)).andExpect(QueryCount.statements(0));
+    }
+
+    // A decade filter takes the decade or any year in it
+    @Test
+    void browseByDecade() throws Exception {
+        Book book = new Book("Decade Buckets", "Test Author", "9780000001010", "Decade Press", 1995, "Testing", 1);
+        bookService.createBook(book);
+
+        for (String decade : new String[] {"1990s", "1990", "1995", " 1999 "}) {
+            mockMvc.perform(get("/api/books/browse").param("publisher", "Decade Press").param("decade", decade))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.books[0].isbn").value("9780000001010"));
+        }
+        for (String decade : new String[] {"1980s", "2000", "nineties"}) {
+            mockMvc.perform(get("/api/books/browse").param("publisher", "Decade Press").param("decade", decade))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(0));
+        }
+    }
+
+    // Scores come from the in-memory sketch; one lookup for the titles. The service is shared
+    // with every test class in this context, so it starts from an empty window.
+    @Test
+    void trendingBooks() throws Exception {
+        ReflectionTestUtils.invokeMethod(trendingService, "clear");
+        mockMvc.perform(get("/api/books/{id}", bookId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/trending"))
+                .andExpect(jsonPath("$[?(@.bookId == " + bookId + ")]").exists())
+                .andExpect(QueryCount.statements(1));
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import com.library.service.TransactionService;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class GraphQlControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @BeforeAll
+    void createData() {
+        Long readerId = member("graphql-reader");
+        transactionService.borrowBook(readerId, book("9780000007001", "Batched Loaders"));
+        transactionService.borrowBook(readerId, book("9780000007002", "Schema First"));
+    }
+
+    // Counts, the recent loans and every book and member they name: the loans' books and users
+    // are fetched with one IN query each, however many loans are listed
+    @Test
+    void graphqlDashboard() throws Exception {
+        String query = "{ bookCount userCount loanCounts { active overdue } "
+                + "transactions(limit: 10) { id book { title } user { fullName } } }";
+        mockMvc.perform(post("/api/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"" + query + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(QueryCount.statements(7));
+    }
+
+    // A limit above the cap is clamped rather than rejected; below 1 is an error
+    @Test
+    void transactionsLimit() throws Exception {
+        mockMvc.perform(post("/api/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"{ transactions(limit: 50000) { id } }\"}"))
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.transactions").isArray());
+        mockMvc.perform(post("/api/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"{ transactions(limit: 0) { id } }\"}"))
+                .andExpect(jsonPath("$.errors").isNotEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.controller;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import com.library.service.PurgeService;
+import com.library.service.TransactionService;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class PurgeTaskControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    // Deleting only tombstones the row, checks for loans, queues the purge and records the change
+    // for other instances; the purge job removes the member's loans and the book's copies afterwards
+    @Test
+    void deleteAndPurge() throws Exception {
+        Long leaverId = member("purge-leaver");
+        Long withdrawnId = book("9780000008001", "Withdrawn Title");
+        transactionService.borrowBook(leaverId, withdrawnId);
+        transactionService.returnBook(leaverId, withdrawnId);
+
+        String bookPurge = mockMvc.perform(delete("/api/books/{id}", withdrawnId))
+                .andExpect(status().isOk())
+                .andExpect(QueryCount.statements(5))
+                .andReturn().getResponse().getHeader("Location");
+        mockMvc.perform(get("/api/books/{id}", withdrawnId)).andExpect(status().isNotFound());
+        String memberPurge = mockMvc.perform(delete("/api/users/{id}", leaverId))
+                .andExpect(status().isNoContent())
+                .andExpect(QueryCount.statements(4))
+                .andReturn().getResponse().getHeader("Location");
+
+        // Refused while loans are out
+        Long readerId = member("purge-reader");
+        Long loanedId = book("9780000008002", "Still On Loan");
+        transactionService.borrowBook(readerId, loanedId);
+        mockMvc.perform(delete("/api/books/{id}", loanedId)).andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/users/{id}", readerId)).andExpect(status().isBadRequest());
+
+        purgeService.run();
+        mockMvc.perform(get(bookPurge)).andExpect(jsonPath("$.status").value("DONE"));
+        mockMvc.perform(get(memberPurge))
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.rowsPurged").value(4));
+    }
+
+    // A deleted book leaves the catalog but not its loans: the member's history still lists them,
+    // with the book, over REST and GraphQL, also after the purge has run
+    @Test
+    void historyKeepsDeletedBooks() throws Exception {
+        Long historyId = member("purge-history");
+        Long retiredId = book("9780000008003", "Retired Title");
+        transactionService.borrowBook(historyId, retiredId);
+        transactionService.returnBook(historyId, retiredId);
+
+        mockMvc.perform(delete("/api/books/{id}", retiredId)).andExpect(status().isOk());
+        purgeService.run();
+        mockMvc.perform(get("/api/books/{id}", retiredId)).andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/transactions/user/{userId}", historyId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].book.title").value(everyItem(is("Retired Title"))));
+        String query = "{ transactions(userId: " + historyId + ") { id book { title } } }";
+        mockMvc.perform(post("/api/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"query\": \"" + query + "\"}"))
+                .andExpect(jsonPath("$.errors").doesNotExist())
+                .andExpect(jsonPath("$.data.transactions.length()").value(2))
+                .andExpect(jsonPath("$.data.transactions[0].book.title").value("Retired Title"));
+    }
+}
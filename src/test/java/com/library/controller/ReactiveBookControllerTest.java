@@ -0,0 +1,84 @@
+package com.library.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.support.ApiTestSupport;
+
+// The reactive catalog (enabled in the test profile) returns Flux and Mono, so each request
+// starts asynchronously and its response is only complete after the async dispatch.
+class ReactiveBookControllerTest extends ApiTestSupport {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Long bookId;
+
+    @BeforeAll
+    void createData() {
+        bookId = book("9780000009001", "Reactive Streams");
+        book("9780000009002", "Reactive Backpressure");
+    }
+
+    @Test
+    void bookById() throws Exception {
+        mockMvc.perform(asyncDispatch(started(get("/api/books/reactive/{id}", bookId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Reactive Streams"))
+                .andExpect(jsonPath("$.availableCopies").value(2));
+        mockMvc.perform(asyncDispatch(started(get("/api/books/reactive/isbn/{isbn}", "9780000009001"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(bookId));
+    }
+
+    // Same 404 body as the blocking endpoint
+    @Test
+    void missingBook() throws Exception {
+        mockMvc.perform(asyncDispatch(started(get("/api/books/reactive/{id}", Long.MAX_VALUE))))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Book not found"));
+    }
+
+    // One JSON object per line, every matching title
+    @Test
+    void listsStreamAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(asyncDispatch(started(get("/api/books/reactive/title/{title}", "reactive")
+                        .accept(MediaType.APPLICATION_NDJSON))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        List<String> titles = result.getResponse().getContentAsString().lines()
+                .filter(line -> !line.isBlank())
+                .map(this::title)
+                .toList();
+        assertThat(titles).containsExactlyInAnyOrder("Reactive Streams", "Reactive Backpressure");
+    }
+
+    private MvcResult started(MockHttpServletRequestBuilder builder) throws Exception {
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private String title(String line) {
+        try {
+            JsonNode book = objectMapper.readTree(line);
+            return book.get("title").asText();
+        } catch (Exception e) {
+            throw new AssertionError("Not a JSON object: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.library.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.library.service.CirculationRollupService;
+import com.library.service.TransactionService;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class ReportControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CirculationRollupService circulationRollupService;
+
+    @BeforeAll
+    void createData() {
+        transactionService.borrowBook(member("report-reader"), book("9780000005001", "Daily Rollups"));
+    }
+
+    // Two grouped sums over the daily rollups, by category and by day, whatever the range
+    @Test
+    void circulationReport() throws Exception {
+        circulationRollupService.backfill();
+        String today = LocalDate.now().toString();
+        mockMvc.perform(get("/api/reports/circulation").param("from", "2000-01-01").param("to", today))
+                .andExpect(jsonPath("$.byDay[?(@.label == '" + today + "')].borrows").exists())
+                .andExpect(QueryCount.statements(2));
+    }
+}
@@ -0,0 +1,152 @@
+package com.library.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.library.model.BookCopy;
+import com.library.model.CopyStatus;
+import com.library.model.Transaction;
+import com.library.repository.BookCopyRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.MemberLoanStatsRepository;
+import com.library.repository.TransactionRepository;
+import com.library.service.CopyInventoryService;
+import com.library.service.TransactionService;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class TransactionControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MemberLoanStatsRepository memberLoanStatsRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private CopyInventoryService copyInventoryService;
+
+    private Long borrowerId;
+    private Long readerId;
+    private Long bookId;
+
+    @BeforeAll
+    void createData() {
+        borrowerId = member("loan-borrower");
+        readerId = member("loan-reader");
+        bookId = book("9780000004001", "Circulation Desk");
+
+        // Loans to list, so listings show whether rows trigger extra loads
+        transactionService.borrowBook(readerId, book("9780000004002", "Lazy Loading"));
+        transactionService.borrowBook(readerId, book("9780000004003", "Join Fetching"));
+    }
+
+    // One query each however many loans are listed: user and book come in the same select
+    @Test
+    void transactionListings() throws Exception {
+        mockMvc.perform(get("/api/transactions")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/transactions/user/{userId}", readerId)).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/transactions/book/{bookId}", bookId)).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/transactions/active")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/transactions/overdue")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/transactions/user/{userId}/loan-status", readerId))
+                .andExpect(QueryCount.statements(2));
+    }
+
+    // Borrow: user, book, duplicate-loan check, counter update, copy lock, copy update, loan
+    // insert, outbox insert. Return: user and book checks, the loan, counter release, copy
+    // release, loan update, return insert, outbox insert.
+    @Test
+    void borrowAndReturn() throws Exception {
+        mockMvc.perform(post("/api/transactions/borrow")
+                        .param("userId", borrowerId.toString()).param("bookId", bookId.toString()))
+                .andExpect(status().isCreated())
+                .andExpect(QueryCount.statements(8));
+        mockMvc.perform(post("/api/transactions/return")
+                        .param("userId", borrowerId.toString()).param("bookId", bookId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(QueryCount.statements(8));
+    }
+
+    // A member from before the counters existed borrows twice at once: both borrows create the
+    // counter row if it is missing, and neither fails on the other's insert
+    @Test
+    void concurrentFirstBorrows() {
+        Long memberId = member("loan-first-borrows");
+        memberLoanStatsRepository.deleteById(memberId);
+        List<Long> bookIds = List.of(book("9780000004004", "First Borrow"), book("9780000004005", "Second Borrow"));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> borrows = bookIds.stream()
+                .map(id -> CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    transactionService.borrowBook(memberId, id);
+                }))
+                .toList();
+        start.countDown();
+        CompletableFuture.allOf(borrows.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(memberLoanStatsRepository.findById(memberId).orElseThrow().getActiveLoans()).isEqualTo(2);
+    }
+
+    // Returning a loan made before copy records puts back a lent copy no other loan names, never
+    // the copy another member still has
+    @Test
+    void legacyReturnLeavesOtherLoansCopies() throws Exception {
+        Long holderId = member("loan-copy-holder");
+        Long legacyId = member("loan-legacy");
+        Long legacyBookId = book("9780000004006", "Legacy Loans");
+        Long heldCopyId = transactionService.borrowBook(holderId, legacyBookId).getCopyId();
+        Transaction legacy = transactionService.borrowBook(legacyId, legacyBookId);
+        legacy.setCopyId(null);
+        transactionRepository.save(legacy);
+
+        mockMvc.perform(post("/api/transactions/return")
+                        .param("userId", legacyId.toString()).param("bookId", legacyBookId.toString()))
+                .andExpect(status().isOk());
+
+        List<BookCopy> copies = copyInventoryService.getCopies(legacyBookId);
+        assertThat(copies).filteredOn(copy -> copy.getId().equals(heldCopyId))
+                .extracting(BookCopy::getStatus).containsExactly(CopyStatus.ON_LOAN);
+        assertThat(copies).extracting(BookCopy::getStatus).containsOnlyOnce(CopyStatus.AVAILABLE);
+    }
+
+    // The flush recounts books.available_copies from the copy rows rather than writing this
+    // instance's count, which misses a copy marked lost by another instance
+    @Test
+    void availabilityFlushRecountsFromCopies() {
+        Long flushBookId = book("9780000004007", "Write Back");
+        List<BookCopy> copies = copyInventoryService.getCopies(flushBookId);
+        BookCopy lost = copies.get(copies.size() - 1);
+        lost.setStatus(CopyStatus.LOST);
+        bookCopyRepository.save(lost);
+        transactionService.borrowBook(member("loan-flush"), flushBookId);
+
+        copyInventoryService.flushAvailability();
+
+        assertThat(bookRepository.findById(flushBookId).orElseThrow().getAvailableCopies()).isZero();
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.library.service.TransactionService;
+import com.library.support.ApiTestSupport;
+import com.library.support.QueryCount;
+
+class UserControllerTest extends ApiTestSupport {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private Long readerId;
+
+    @BeforeAll
+    void createData() {
+        member("dir-borrower");
+        readerId = member("dir-reader");
+        transactionService.borrowBook(readerId, book("9780000003001", "Directory Listings"));
+        transactionService.borrowBook(readerId, book("9780000003002", "Keyset Cursors"));
+    }
+
+    @Test
+    void userReads() throws Exception {
+        mockMvc.perform(get("/api/users")).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/users/{id}", readerId)).andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/users/search/dir-reader")).andExpect(QueryCount.statements(1));
+    }
+
+    // One keyset query per page, loan counts joined in; the cursor carries on where the page ended
+    @Test
+    void userDirectory() throws Exception {
+        String next = mockMvc.perform(get("/api/users/directory").param("q", "dir-").param("sort", "USERNAME")
+                        .param("size", "1"))
+                .andExpect(jsonPath("$.users[0].username").value("dir-borrower"))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(QueryCount.statements(1))
+                .andReturn().getResponse().getContentAsString()
+                .replaceAll(".*\"nextCursor\":\"([^\"]+)\".*", "$1");
+        mockMvc.perform(get("/api/users/directory").param("q", "dir-").param("sort", "USERNAME")
+                        .param("size", "1").param("after", next))
+                .andExpect(jsonPath("$.users[0].username").value("dir-reader"))
+                .andExpect(jsonPath("$.users[0].activeLoans").value(2))
+                .andExpect(QueryCount.statements(1));
+        mockMvc.perform(get("/api/users/directory").param("q", "dir-").param("withLoans", "true")
+                        .param("role", "MEMBER"))
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(QueryCount.statements(1));
+    }
+}
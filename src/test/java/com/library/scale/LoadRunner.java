@@ -0,0 +1,117 @@
+package com.library.scale;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load: each worker thread runs one request after another for a fixed time and
+// records every latency. A warm-up period runs first and is discarded.
+public class LoadRunner {
+
+    // One request; returns the HTTP status (or -1 for an I/O failure)
+    @FunctionalInterface
+    public interface Step {
+        int run(SplittableRandom random) throws Exception;
+    }
+
+    public record Result(String scenario, int threads, long requests, long rejected, long failed,
+                         double seconds, double throughput, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+
+        @Override
+        public String toString() {
+            return String.format("%-22s threads=%d requests=%d rejected(4xx)=%d failed=%d  %.1f req/s  "
+                    + "p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                    scenario, threads, requests, rejected, failed, throughput, p50Ms, p95Ms, p99Ms, maxMs);
+        }
+    }
+
+    private final int threads;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final long seed;
+
+    public LoadRunner(int threads, int durationSeconds, int warmupSeconds, long seed) {
+        this.threads = threads;
+        this.durationSeconds = durationSeconds;
+        this.warmupSeconds = warmupSeconds;
+        this.seed = seed;
+    }
+
+    public Result run(String scenario, Step step) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<long[]> latencies = new ArrayList<>(threads);
+        int[] counts = new int[threads];
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            latencies.add(new long[1024]);
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed + worker);
+                try {
+                    while (true) {
+                        long started = System.nanoTime();
+                        if (started - end >= 0) {
+                            break;
+                        }
+                        int status;
+                        try {
+                            status = step.run(random);
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        long finished = System.nanoTime();
+                        if (started - warmupEnd < 0) {
+                            continue;
+                        }
+                        if (status < 0 || status >= 500) {
+                            failed.incrementAndGet();
+                        } else if (status >= 400) {
+                            rejected.incrementAndGet();
+                        }
+                        long[] own = latencies.get(worker);
+                        if (counts[worker] == own.length) {
+                            own = Arrays.copyOf(own, own.length * 2);
+                            latencies.set(worker, own);
+                        }
+                        own[counts[worker]++] = finished - started;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + scenario + "-" + t);
+            thread.start();
+        }
+        done.await();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(latencies.get(t), 0, all, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(all);
+        return new Result(scenario, threads, total, rejected.get(), failed.get(), durationSeconds,
+                total / (double) durationSeconds, percentile(all, 0.50), percentile(all, 0.95),
+                percentile(all, 0.99), total == 0 ? 0 : all[total - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
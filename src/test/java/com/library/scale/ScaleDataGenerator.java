@@ -0,0 +1,331 @@
+package com.library.scale;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import javax.sql.DataSource;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// Deterministic catalog, member and circulation data written straight through batched JDBC.
+//
+// The same seed and sizes always produce the same rows (ids included), dated relative to the
+// day of the run, so results from different commits are comparable. Borrowing follows a Zipf
+// distribution over titles so a few books are very hot, like a real catalog. Copies, member
+// loan counters and active/overdue loans are generated consistently with each other, so the
+// application's startup reconciliation finds nothing to repair.
+//
+// Works against H2 (the test profile) or a local MySQL: run with
+// -Dspring.datasource.url=jdbc:mysql://localhost:3306/library_scale?rewriteBatchedStatements=true
+public class ScaleDataGenerator {
+
+    public static final String PASSWORD = "password";
+    public static final int LIBRARIANS = 20;
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int LOAN_DAYS = 14;
+    private static final int HISTORY_DAYS = 3 * 365;
+    private static final int MEMBER_LIMIT = 5;
+
+    private static final String[] ADJECTIVES = {"Silent", "Hidden", "Last", "Golden", "Broken", "Distant", "Secret",
+            "Burning", "Frozen", "Lost", "Crimson", "Endless", "Quiet", "Wild", "Fallen", "Bright", "Dark", "Ancient"};
+    private static final String[] NOUNS = {"River", "Garden", "Kingdom", "Mirror", "Storm", "Harbor", "Forest", "City",
+            "Empire", "Winter", "Voyage", "Orchard", "Tower", "Shadow", "Letter", "Island", "Machine", "Song"};
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Wei", "Amara", "Lucas", "Sofia", "Arjun", "Yuki",
+            "Olga", "Kwame", "Elena", "Omar", "Hana", "Diego", "Priya", "Liam", "Fatima", "Noah", "Ingrid", "Mateo"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Chen", "Okafor", "Muller", "Rossi", "Sharma",
+            "Tanaka", "Ivanova", "Mensah", "Novak", "Haddad", "Kim", "Lopez", "Patel", "Brown", "Ali", "Nilsson",
+            "Silva", "Dubois", "Kowalski", "Nakamura", "Costa", "Jensen", "Moreau"};
+    private static final String[] CATEGORIES = {"Fiction", "Science", "History", "Biography", "Fantasy", "Mystery",
+            "Romance", "Children", "Poetry", "Philosophy", "Technology", "Travel", "Art", "Cooking", "Health",
+            "Business", "Religion", "Horror", "Science Fiction", "Reference"};
+
+    private final DataSource dataSource;
+    private final ScaleSettings settings;
+    private final SplittableRandom random;
+    private final LocalDateTime today;
+
+    public ScaleDataGenerator(DataSource dataSource, ScaleSettings settings) {
+        this.dataSource = dataSource;
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed());
+        this.today = LocalDate.now().atStartOfDay();
+    }
+
+    public void generate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            int[] copiesPerBook = insertBooks(connection);
+            insertUsers(connection);
+            insertCirculation(connection, copiesPerBook);
+            restartIdentities(connection);
+            connection.commit();
+        }
+    }
+
+    private int[] insertBooks(Connection connection) throws SQLException {
+        int books = settings.books();
+        int[] copiesPerBook = new int[books + 1];
+        String sql = "insert into books (id, title, author, isbn, publisher, publication_year, category, "
+                + "total_copies, available_copies, description, created_at, updated_at) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Timestamp created = Timestamp.valueOf(today.minusDays(HISTORY_DAYS));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int id = 1; id <= books; id++) {
+                int copies = 1 + random.nextInt(4);
+                copiesPerBook[id] = copies;
+                statement.setLong(1, id);
+                statement.setString(2, "The " + pick(ADJECTIVES) + " " + pick(NOUNS) + " " + id);
+                statement.setString(3, authorName(zipfIndex(books / 20 + 1)));
+                statement.setString(4, String.format("978%010d", id));
+                statement.setString(5, pick(LAST_NAMES) + " " + (random.nextBoolean() ? "Press" : "Books"));
+                statement.setInt(6, 2024 - (int) Math.min(120, Math.abs(random.nextGaussian() * 25)));
+                statement.setString(7, CATEGORIES[zipfIndex(CATEGORIES.length) - 1]);
+                statement.setInt(8, copies);
+                statement.setInt(9, copies);
+                statement.setString(10, null);
+                statement.setTimestamp(11, created);
+                statement.setTimestamp(12, created);
+                statement.addBatch();
+                flushEvery(statement, connection, id);
+            }
+            statement.executeBatch();
+        }
+
+        sql = "insert into book_copies (id, book_id, barcode, status, location, created_at) values (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            long copyId = 0;
+            for (int bookId = 1; bookId <= books; bookId++) {
+                for (int n = 1; n <= copiesPerBook[bookId]; n++) {
+                    statement.setLong(1, ++copyId);
+                    statement.setLong(2, bookId);
+                    statement.setString(3, barcode(bookId, n));
+                    statement.setString(4, "AVAILABLE");
+                    statement.setString(5, "Shelf " + (char) ('A' + bookId % 26) + (bookId % 40));
+                    statement.setTimestamp(6, created);
+                    statement.addBatch();
+                    flushEvery(statement, connection, copyId);
+                }
+            }
+            statement.executeBatch();
+        }
+        return copiesPerBook;
+    }
+
+    private void insertUsers(Connection connection) throws SQLException {
+        // One hash for everyone: BCrypt per row would dominate generation time
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        String sql = "insert into users (id, username, password, full_name, email, phone_number, role, "
+                + "account_non_expired, account_non_locked, credentials_non_expired, enabled) "
+                + "values (?, ?, ?, ?, ?, ?, ?, true, true, true, true)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int id = 1; id <= settings.users(); id++) {
+                statement.setLong(1, id);
+                statement.setString(2, username(id));
+                statement.setString(3, hash);
+                statement.setString(4, pick(FIRST_NAMES) + " " + pick(LAST_NAMES));
+                statement.setString(5, username(id) + "@example.test");
+                statement.setString(6, String.format("+1555%07d", id));
+                statement.setString(7, id <= LIBRARIANS ? "LIBRARIAN" : "MEMBER");
+                statement.addBatch();
+                flushEvery(statement, connection, id);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // Loans spread over the last three years, most returned (some late, with fines), the most
+    // recent ones still active and a few of those overdue
+    private void insertCirculation(Connection connection, int[] copiesPerBook) throws SQLException {
+        int books = settings.books();
+        int users = settings.users();
+        long loans = settings.transactions() / 2;
+        int[] onLoan = new int[books + 1];
+        int[] activeByUser = new int[users + 1];
+        int[] overdueByUser = new int[users + 1];
+        double[] finesByUser = new double[users + 1];
+        long activeWindowStart = loans - Math.max(1, loans / 50);
+
+        String transactionSql = "insert into transactions (id, user_id, book_id, copy_id, transaction_type, "
+                + "transaction_date, due_date, return_date, fine, status, overdue_flagged) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String copySql = "update book_copies set status = 'ON_LOAN' where id = ?";
+        Set<Long> activePairs = new HashSet<>();
+        long[] firstCopyId = new long[books + 2];
+        firstCopyId[1] = 1;
+        for (int bookId = 1; bookId <= books; bookId++) {
+            firstCopyId[bookId + 1] = firstCopyId[bookId] + copiesPerBook[bookId];
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(transactionSql);
+             PreparedStatement copyStatement = connection.prepareStatement(copySql)) {
+            long transactionId = 0;
+            for (long loan = 0; loan < loans; loan++) {
+                int bookId = popularBook(books);
+                int userId = LIBRARIANS + 1 + random.nextInt(Math.max(1, users - LIBRARIANS));
+                userId = Math.min(userId, users);
+                // Loans are laid out oldest first across the history window
+                LocalDateTime borrowed = today.minusDays(HISTORY_DAYS)
+                        .plusSeconds((long) ((double) loan / loans * HISTORY_DAYS * 86_400L));
+                LocalDateTime due = borrowed.plusDays(LOAN_DAYS);
+
+                boolean active = loan >= activeWindowStart && onLoan[bookId] < copiesPerBook[bookId]
+                        && activeByUser[userId] < MEMBER_LIMIT && activePairs.add((long) userId * (books + 1) + bookId);
+                long copyId;
+                if (active) {
+                    copyId = firstCopyId[bookId] + onLoan[bookId]++;
+                    copyStatement.setLong(1, copyId);
+                    copyStatement.addBatch();
+                    activeByUser[userId]++;
+                } else {
+                    copyId = firstCopyId[bookId] + random.nextInt(copiesPerBook[bookId]);
+                }
+
+                boolean overdue = active && due.isBefore(today);
+                if (overdue) {
+                    overdueByUser[userId]++;
+                }
+                LocalDateTime returned = null;
+                Double fine = null;
+                if (!active) {
+                    int lateDays = random.nextInt(100) < 8 ? 1 + random.nextInt(20) : 0;
+                    returned = borrowed.plusDays(lateDays > 0 ? LOAN_DAYS + lateDays : 1 + random.nextInt(LOAN_DAYS));
+                    if (returned.isAfter(today)) {
+                        returned = today;
+                    }
+                    if (lateDays > 0) {
+                        fine = (double) lateDays;
+                        finesByUser[userId] += fine;
+                    }
+                }
+
+                addTransaction(statement, ++transactionId, userId, bookId, copyId, "BORROW", borrowed, due, returned,
+                        fine, active ? "ACTIVE" : "RETURNED", overdue);
+                if (!active) {
+                    addTransaction(statement, ++transactionId, userId, bookId, copyId, "RETURN", returned, null,
+                            returned, null, "RETURNED", false);
+                }
+                if ((loan + 1) % (BATCH_SIZE / 2) == 0) {
+                    statement.executeBatch();
+                    copyStatement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            copyStatement.executeBatch();
+        }
+
+        for (int bookId = 1; bookId <= books; bookId++) {
+            onLoan[bookId] = copiesPerBook[bookId] - onLoan[bookId];
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "update books set available_copies = ? where id = ?")) {
+            for (int bookId = 1; bookId <= books; bookId++) {
+                if (onLoan[bookId] != copiesPerBook[bookId]) {
+                    statement.setInt(1, onLoan[bookId]);
+                    statement.setLong(2, bookId);
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+
+        // Most members have paid their fines; one in ten still owes
+        try (PreparedStatement statement = connection.prepareStatement("insert into member_loan_stats "
+                + "(user_id, active_loans, overdue_loans, total_fines, fines_paid) values (?, ?, ?, ?, ?)")) {
+            for (int userId = 1; userId <= users; userId++) {
+                statement.setLong(1, userId);
+                statement.setInt(2, activeByUser[userId]);
+                statement.setInt(3, overdueByUser[userId]);
+                statement.setDouble(4, finesByUser[userId]);
+                statement.setDouble(5, userId % 10 == 0 ? 0.0 : finesByUser[userId]);
+                statement.addBatch();
+                flushEvery(statement, connection, userId);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void addTransaction(PreparedStatement statement, long id, int userId, int bookId, long copyId, String type,
+                                LocalDateTime date, LocalDateTime due, LocalDateTime returned, Double fine,
+                                String status, boolean overdueFlagged) throws SQLException {
+        statement.setLong(1, id);
+        statement.setLong(2, userId);
+        statement.setLong(3, bookId);
+        statement.setLong(4, copyId);
+        statement.setString(5, type);
+        statement.setTimestamp(6, Timestamp.valueOf(date));
+        statement.setTimestamp(7, due != null ? Timestamp.valueOf(due) : null);
+        statement.setTimestamp(8, returned != null ? Timestamp.valueOf(returned) : null);
+        if (fine != null) {
+            statement.setDouble(9, fine);
+        } else {
+            statement.setNull(9, java.sql.Types.DOUBLE);
+        }
+        statement.setString(10, status);
+        statement.setBoolean(11, overdueFlagged);
+        statement.addBatch();
+    }
+
+    // Explicit ids don't advance H2 identity columns; MySQL moves AUTO_INCREMENT past them itself
+    private void restartIdentities(Connection connection) throws SQLException {
+        if (!connection.getMetaData().getDatabaseProductName().toLowerCase().contains("h2")) {
+            return;
+        }
+        for (String table : new String[] {"books", "book_copies", "users", "transactions"}) {
+            long next;
+            try (var statement = connection.createStatement();
+                 var result = statement.executeQuery("select coalesce(max(id), 0) + 1 from " + table)) {
+                result.next();
+                next = result.getLong(1);
+            }
+            try (var statement = connection.createStatement()) {
+                statement.execute("alter table " + table + " alter column id restart with " + next);
+            }
+        }
+    }
+
+    private void flushEvery(PreparedStatement statement, Connection connection, long count) throws SQLException {
+        if (count % BATCH_SIZE == 0) {
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+
+    // Book ids ranked by popularity are a fixed permutation, so hot titles are spread over the id range
+    private int popularBook(int books) {
+        long rank = zipfIndex(books) - 1;
+        return (int) ((rank * 2_654_435_761L) % books) + 1;
+    }
+
+    // Zipf(s=1) sample in 1..n by inverting the continuous approximation of the harmonic CDF
+    private int zipfIndex(int n) {
+        double u = random.nextDouble();
+        double value = Math.exp(u * Math.log(n + 1.0));
+        return (int) Math.max(1, Math.min(n, Math.floor(value)));
+    }
+
+    private String authorName(int index) {
+        return FIRST_NAMES[index % FIRST_NAMES.length] + " " + LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length]
+                + (index >= FIRST_NAMES.length * LAST_NAMES.length ? " " + index : "");
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    public static String username(int id) {
+        return id <= LIBRARIANS ? "librarian" + id : "member" + id;
+    }
+
+    public static String barcode(long bookId, int copyNumber) {
+        return String.format("LIB%07d%03d", bookId, copyNumber);
+    }
+}
@@ -0,0 +1,251 @@
+package com.library.scale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.service.BookSuggestService;
+import com.library.service.CatalogFacetService;
+import com.library.service.CopyInventoryService;
+import com.library.service.MemberLoanService;
+import com.library.service.RelatedBooksService;
+
+// Load scenarios against a generated dataset. Excluded from the normal build; run with
+//   mvn -Pscale test [-Dscale.factor=0.05] [-Dscale.threads=16] [-Dscale.connections=256]
+//                    [-Dscale.duration-seconds=60]
+// Each scenario appends a line to target/scale-results/results.csv (or -Dscale.results.dir)
+// together with the commit, so runs from different commits can be compared.
+@Tag("scale")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "scale"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ScaleLoadTest {
+
+    private static final String[] CATEGORIES = {"Fiction", "Science", "History", "Mystery", "Fantasy", "Technology"};
+    private static final String[] PREFIXES = {"si", "the", "gol", "lost", "da", "fr", "an", "wi", "se", "bro"};
+    private static final String[] TITLES = {"Silent River", "Golden Tower", "Lost City", "Dark Forest", "Frozen Harbor",
+            "Quiet Garden", "Secret Letter", "Wild Island"};
+
+    private final ScaleSettings settings = ScaleSettings.fromSystemProperties();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CatalogFacetService catalogFacetService;
+
+    @Autowired
+    private BookSuggestService bookSuggestService;
+
+    @Autowired
+    private CopyInventoryService copyInventoryService;
+
+    @Autowired
+    private MemberLoanService memberLoanService;
+
+    @Autowired
+    private RelatedBooksService relatedBooksService;
+
+    private String librarianToken;
+
+    @BeforeAll
+    void generateDataset() throws Exception {
+        long started = System.nanoTime();
+        new ScaleDataGenerator(dataSource, settings).generate();
+        System.out.printf("Generated %s in %d s%n", settings.describe(),
+                Duration.ofNanos(System.nanoTime() - started).toSeconds());
+
+        // The startup loaders ran against the empty schema
+        catalogFacetService.rebuild();
+        bookSuggestService.rebuild();
+        copyInventoryService.refresh();
+        memberLoanService.reconcile();
+        relatedBooksService.rebuild();
+
+        HttpResponse<InputStream> login = login(ScaleDataGenerator.username(1));
+        assertEquals(200, login.statusCode());
+        librarianToken = objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    @Test
+    @Order(1)
+    void catalogBrowse() throws Exception {
+        LoadRunner.Result result = runner().run("catalog-browse", random -> {
+            int choice = random.nextInt(10);
+            String path;
+            if (choice < 5) {
+                path = "/api/books/browse?page=" + random.nextInt(5) + "&size=20"
+                        + (random.nextBoolean() ? "&category=" + CATEGORIES[random.nextInt(CATEGORIES.length)] : "")
+                        + (random.nextInt(4) == 0 ? "&available=true" : "");
+            } else if (choice < 8) {
+                path = "/api/books/suggest?q=" + PREFIXES[random.nextInt(PREFIXES.length)];
+            } else {
+                path = "/api/books/" + (1 + random.nextInt(settings.books()));
+            }
+            return send(HttpRequest.newBuilder(uri(path)).GET().build());
+        });
+        record(result);
+        assertEquals(0, result.failed(), result::toString);
+    }
+
+    @Test
+    @Order(2)
+    void loginStorm() throws Exception {
+        LoadRunner.Result result = runner().run("login-storm", random ->
+                discard(login(ScaleDataGenerator.username(1 + random.nextInt(settings.users())))));
+        record(result);
+        assertEquals(0, result.failed(), result::toString);
+        assertEquals(0, result.rejected(), result::toString);
+    }
+
+    // Members borrow and return hot titles; refusals (limit reached, no copy left) count as rejected
+    @Test
+    @Order(3)
+    void borrowReturnBurst() throws Exception {
+        int members = settings.users() - ScaleDataGenerator.LIBRARIANS;
+        LoadRunner.Result result = runner().run("borrow-return-burst", random -> {
+            int userId = ScaleDataGenerator.LIBRARIANS + 1 + random.nextInt(members);
+            int bookId = 1 + (int) Math.floor(Math.exp(random.nextDouble() * Math.log(settings.books())) - 1);
+            String query = "?userId=" + userId + "&bookId=" + bookId;
+            int status = send(authorized("/api/transactions/borrow" + query));
+            if (status != 201) {
+                return status;
+            }
+            return send(authorized("/api/transactions/return" + query));
+        });
+        record(result);
+        assertEquals(0, result.failed(), result::toString);
+        assertTrue(result.requests() > 0, result::toString);
+    }
+
+    // The same catalog reads over the servlet/JDBC path and the reactive/R2DBC path, each with
+    // scale.connections clients at once (default 128); compare throughput and latency per core
+    @Test
+    @Order(4)
+    void catalogConnectionsMvc() throws Exception {
+        catalogConnections("catalog-connections-mvc", "/api/books");
+    }
+
+    @Test
+    @Order(5)
+    void catalogConnectionsReactive() throws Exception {
+        catalogConnections("catalog-connections-reactive", "/api/books/reactive");
+    }
+
+    private void catalogConnections(String scenario, String base) throws Exception {
+        LoadRunner runner = new LoadRunner(settings.connections(), settings.durationSeconds(),
+                settings.warmupSeconds(), settings.seed());
+        LoadRunner.Result result = runner.run(scenario, random -> {
+            String path = random.nextInt(10) < 7
+                    ? base + "/" + (1 + random.nextInt(settings.books()))
+                    : base + "/title/" + TITLES[random.nextInt(TITLES.length)].replace(" ", "%20");
+            return send(HttpRequest.newBuilder(uri(path)).GET().build());
+        });
+        record(result);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf(Locale.ROOT, "%s: %d cores, %.0f connections/core, %.1f req/s per core%n",
+                scenario, cores, settings.connections() / (double) cores, result.throughput() / cores);
+        assertEquals(0, result.failed(), result::toString);
+    }
+
+    private LoadRunner runner() {
+        return new LoadRunner(settings.threads(), settings.durationSeconds(), settings.warmupSeconds(), settings.seed());
+    }
+
+    private HttpResponse<InputStream> login(String username) throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(
+                Map.of("username", username, "password", ScaleDataGenerator.PASSWORD));
+        return client.send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    private HttpRequest authorized(String path) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + librarianToken)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        return discard(client.send(request, HttpResponse.BodyHandlers.ofInputStream()));
+    }
+
+    // Read the whole body so the connection goes back to the pool
+    private int discard(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        return response.statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void record(LoadRunner.Result result) throws IOException {
+        System.out.println(result);
+        Path dir = Paths.get(System.getProperty("scale.results.dir", "target/scale-results"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("results.csv");
+        StringBuilder line = new StringBuilder();
+        if (!Files.exists(file)) {
+            line.append("timestamp,commit,scenario,books,users,transactions,seed,threads,duration_s,"
+                    + "requests,rejected,failed,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms\n");
+        }
+        line.append(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%d,%d,%.0f,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f%n",
+                Instant.now(), gitCommit(), result.scenario(), settings.books(), settings.users(),
+                settings.transactions(), settings.seed(), result.threads(), result.seconds(), result.requests(),
+                result.rejected(), result.failed(), result.throughput(), result.p50Ms(), result.p95Ms(),
+                result.p99Ms(), result.maxMs()));
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 && !output.isEmpty() ? output : "unknown";
+        } catch (IOException | InterruptedException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.scale;
+
+// Dataset and load sizes, from system properties.
+//
+// scale.factor multiplies the nominal dataset (1M books, 200k users, 20M transactions); the
+// default of 0.01 fits the in-memory H2 database. Use -Dscale.factor=1 against a local MySQL.
+public record ScaleSettings(int books, int users, long transactions, long seed,
+                            int threads, int connections, int durationSeconds, int warmupSeconds) {
+
+    public static ScaleSettings fromSystemProperties() {
+        double factor = Double.parseDouble(System.getProperty("scale.factor", "0.01"));
+        return new ScaleSettings(
+                Integer.getInteger("scale.books", (int) (1_000_000 * factor)),
+                Integer.getInteger("scale.users", (int) Math.max(ScaleDataGenerator.LIBRARIANS + 10, 200_000 * factor)),
+                Long.getLong("scale.transactions", (long) (20_000_000 * factor)),
+                Long.getLong("scale.seed", 20240601L),
+                Integer.getInteger("scale.threads", 8),
+                Integer.getInteger("scale.connections", 128),
+                Integer.getInteger("scale.duration-seconds", 20),
+                Integer.getInteger("scale.warmup-seconds", 5));
+    }
+
+    public String describe() {
+        return books + " books, " + users + " users, " + transactions + " transactions, seed " + seed;
+    }
+}
@@ -0,0 +1,100 @@
+package com.library.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.config.RateLimitProperties;
+import com.library.model.Role;
+import com.library.model.User;
+
+import jakarta.servlet.Filter;
+
+class RateLimitFilterTest {
+
+    private final RateLimiter rateLimiter = new RateLimiter();
+    private final RateLimitProperties properties = new RateLimitProperties();
+    private final RateLimitFilter ipFilter = new RateLimitFilter();
+    private final UserRateLimitFilter userFilter = new UserRateLimitFilter();
+
+    @BeforeEach
+    void configure() {
+        properties.getGroups().put("auth", RateLimiterTest.policy(2, 1));
+        properties.getRoles().put("MEMBER", RateLimiterTest.policy(1, 1));
+        for (Object filter : new Object[] {ipFilter, userFilter}) {
+            ReflectionTestUtils.setField(filter, "rateLimiter", rateLimiter);
+            ReflectionTestUtils.setField(filter, "properties", properties);
+        }
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Per address and route group; the rejected request goes no further down the chain
+    @Test
+    void limitsEachAddressPerRouteGroup() throws Exception {
+        assertEquals(200, send(ipFilter, "POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send(ipFilter, "POST", "/api/auth/login", "10.0.0.1").getStatus());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        ipFilter.doFilter(request("POST", "/api/auth/login", "10.0.0.1"), rejected, chain);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+
+        assertEquals(200, send(ipFilter, "POST", "/api/auth/login", "10.0.0.2").getStatus());
+        // No policy for the group, and preflights are never limited
+        assertEquals(200, send(ipFilter, "GET", "/api/books", "10.0.0.1").getStatus());
+        assertEquals(200, send(ipFilter, "OPTIONS", "/api/auth/login", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void limitsEachSignedInUserByRole() throws Exception {
+        User member = new User();
+        member.setUsername("limited-member");
+        member.setRole(Role.MEMBER);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(member, null, null));
+
+        assertEquals(200, send(userFilter, "GET", "/api/transactions/active", "10.0.0.3").getStatus());
+        MockHttpServletResponse rejected = send(userFilter, "GET", "/api/transactions/active", "10.0.0.4");
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+
+        SecurityContextHolder.clearContext();
+        assertEquals(200, send(userFilter, "GET", "/api/transactions/active", "10.0.0.3").getStatus());
+    }
+
+    @Test
+    void disabledLetsEverythingThrough() throws Exception {
+        properties.setEnabled(false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send(ipFilter, "POST", "/api/auth/login", "10.0.0.5").getStatus());
+        }
+    }
+
+    private static MockHttpServletResponse send(Filter filter, String method, String path,
+                                                String address) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path, address), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.library.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.library.config.RateLimitProperties;
+
+class RateLimiterTest {
+
+    private final RateLimiter rateLimiter = new RateLimiter();
+
+    // A full bucket admits capacity requests at once, then asks for one emission interval
+    @Test
+    void burstUpToCapacity() {
+        RateLimitProperties.Policy policy = policy(3, 60);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("burst", policy));
+        }
+        long wait = rateLimiter.tryAcquire("burst", policy);
+        assertTrue(wait > 0 && wait <= policy.emissionIntervalNanos(), "wait " + wait);
+        // Keys are independent
+        assertEquals(0, rateLimiter.tryAcquire("other", policy));
+    }
+
+    // Tokens come back at the sustained rate: 60,000 per minute is one a millisecond
+    @Test
+    void refillsAtTheSustainedRate() throws InterruptedException {
+        RateLimitProperties.Policy policy = policy(2, 60_000);
+        while (rateLimiter.tryAcquire("refill", policy) == 0) {
+            // drain
+        }
+        Thread.sleep(5);
+        assertEquals(0, rateLimiter.tryAcquire("refill", policy));
+    }
+
+    @Test
+    void rejectionCarriesRetryAfterInWholeSeconds() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimiter.reject(response, 1_500_000_000L);
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("Too Many Requests"));
+
+        MockHttpServletResponse soon = new MockHttpServletResponse();
+        rateLimiter.reject(soon, 1_000L);
+        assertEquals("1", soon.getHeader("Retry-After"));
+    }
+
+    // Refilled buckets are dropped; one still paying off a burst is kept
+    @Test
+    void evictsOnlyIdleBuckets() throws InterruptedException {
+        rateLimiter.tryAcquire("idle", policy(2, 60_000));
+        rateLimiter.tryAcquire("busy", policy(2, 1));
+        Thread.sleep(5);
+        rateLimiter.evictIdleBuckets();
+        assertEquals(1, rateLimiter.size());
+        assertTrue(rateLimiter.tryAcquire("busy", policy(1, 1)) > 0, "the busy bucket lost its state");
+    }
+
+    static RateLimitProperties.Policy policy(int capacity, int requestsPerMinute) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setCapacity(capacity);
+        policy.setRequestsPerMinute(requestsPerMinute);
+        return policy;
+    }
+}
@@ -0,0 +1,132 @@
+package com.library.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.repository.RevokedTokenRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void configure() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = new TokenRevocationList(meterRegistry);
+        ReflectionTestUtils.setField(revocationList, "revokedTokenRepository", revokedTokenRepository);
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 10_000);
+        revocationList.allocate();
+    }
+
+    // A local revocation applies at once; ids the filter has never seen don't reach the database
+    @Test
+    void addedIdIsRevokedAtOnce() {
+        revocationList.add("revoked-1", LocalDateTime.now().plusMinutes(15));
+
+        assertTrue(revocationList.isRevoked("revoked-1"));
+        assertFalse(revocationList.isRevoked("live-1"));
+        assertFalse(revocationList.isRevoked(null));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    // Rows from other instances arrive by polling; later polls look back over the overlap only
+    @Test
+    void pollLoadsOtherInstancesRevocations() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(15);
+        when(revokedTokenRepository.findRevokedSince(any(), any()))
+                .thenReturn(rows("remote-1", expiresAt))
+                .thenReturn(rows("remote-1", expiresAt, "remote-2", expiresAt));
+
+        revocationList.poll();
+        assertTrue(revocationList.isRevoked("remote-1"));
+        assertFalse(revocationList.isRevoked("remote-2"));
+
+        revocationList.poll();
+        assertTrue(revocationList.isRevoked("remote-2"));
+        assertEquals(2.0, meterRegistry.get("auth.revoked.tokens").gauge().value());
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(revokedTokenRepository, times(2)).findRevokedSince(since.capture(), now.capture());
+        assertEquals(1970, since.getAllValues().get(0).getYear());
+        assertEquals(now.getAllValues().get(0).minusSeconds(60), since.getAllValues().get(1));
+    }
+
+    // Rebuilding drops expired ids from the set and from the filter
+    @Test
+    void rebuildDropsExpiredIds() {
+        revocationList.add("expired-1", LocalDateTime.now().minusSeconds(1));
+        revocationList.add("revoked-1", LocalDateTime.now().plusMinutes(15));
+        assertTrue(revocationList.isRevoked("expired-1"));
+
+        revocationList.rebuild();
+        assertFalse(revocationList.isRevoked("expired-1"));
+        assertTrue(revocationList.isRevoked("revoked-1"));
+        assertEquals(1.0, meterRegistry.get("auth.revoked.tokens").gauge().value());
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    // An overfull filter hits for nearly every id; the exact set settles each hit, never the database
+    @Test
+    void filterFalsePositiveIsSettledInMemory() {
+        // Sized for one entry (64 bits), then given 200 without a rebuild to resize it
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 1);
+        revocationList.rebuild();
+        for (int i = 0; i < 200; i++) {
+            revocationList.add("revoked-" + i, LocalDateTime.now().plusMinutes(15));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(revocationList.isRevoked("revoked-" + i));
+            assertFalse(revocationList.isRevoked("live-" + i));
+        }
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    // Before the first poll the filter already exists, empty: nothing is revoked and nothing is queried
+    @Test
+    void readyBeforeTheFirstPoll() {
+        TokenRevocationList fresh = new TokenRevocationList(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(fresh, "revokedTokenRepository", revokedTokenRepository);
+        ReflectionTestUtils.setField(fresh, "expectedEntries", 10_000);
+        fresh.allocate();
+
+        assertFalse(fresh.isRevoked("live-1"));
+        fresh.add("revoked-1", LocalDateTime.now().plusMinutes(15));
+        assertTrue(fresh.isRevoked("revoked-1"));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    private static List<Object[]> rows(Object... values) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < values.length; i += 2) {
+            rows.add(new Object[] {values[i], values[i + 1]});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,217 @@
+package com.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.model.AuditAction;
+import com.library.model.AuditOverflowPolicy;
+import com.library.model.AuditRecord;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditLogTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatedSink sink;
+    private AuditLog auditLog;
+
+    @BeforeEach
+    void configure() {
+        meterRegistry = new SimpleMeterRegistry();
+        sink = new GatedSink();
+        auditLog = new AuditLog(meterRegistry);
+        ReflectionTestUtils.setField(auditLog, "sink", sink);
+        ReflectionTestUtils.setField(auditLog, "capacity", 4);
+        ReflectionTestUtils.setField(auditLog, "batchSize", 10);
+        ReflectionTestUtils.setField(auditLog, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(auditLog, "overflowPolicy", AuditOverflowPolicy.DROP);
+        ReflectionTestUtils.setField(auditLog, "blockTimeoutMs", 50L);
+        ReflectionTestUtils.setField(auditLog, "shutdownTimeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void stop() {
+        sink.open();
+        auditLog.stop();
+    }
+
+    // The writer takes at most batch-size records per write, however many are waiting
+    @Test
+    void writesInBatchesOfAtMostBatchSize() throws Exception {
+        ReflectionTestUtils.setField(auditLog, "capacity", 64);
+        auditLog.start();
+        holdWriter();
+
+        record(25);
+        sink.open();
+        assertTrue(auditLog.flush(5000));
+        assertEquals(List.of(1, 10, 10, 5), sink.batchSizes());
+        assertEquals(26.0, meterRegistry.counter("audit.records.written").count());
+        assertEquals(0.0, gauge("audit.queue.depth"));
+    }
+
+    // DROP: with the writer stuck and the buffer full, a record is counted and discarded at once
+    @Test
+    void dropPolicyCountsOverflow() throws Exception {
+        auditLog.start();
+        holdWriter();
+        record(4);
+
+        long started = System.nanoTime();
+        record(1);
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1.0, dropped("overflow"));
+
+        sink.open();
+        assertTrue(auditLog.flush(5000));
+        assertEquals(5, sink.written().size());
+    }
+
+    // BLOCK: the caller waits for the writer to make room and its record is kept
+    @Test
+    void blockPolicyWaitsForRoom() throws Exception {
+        ReflectionTestUtils.setField(auditLog, "overflowPolicy", AuditOverflowPolicy.BLOCK);
+        ReflectionTestUtils.setField(auditLog, "blockTimeoutMs", 5000L);
+        auditLog.start();
+        holdWriter();
+        record(4);
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> record(1));
+        Thread.sleep(100);
+        assertFalse(blocked.isDone());
+
+        sink.open();
+        blocked.get(5, TimeUnit.SECONDS);
+        assertTrue(auditLog.flush(5000));
+        assertEquals(6, sink.written().size());
+        assertEquals(0.0, dropped("overflow"));
+    }
+
+    // BLOCK: past the timeout the record is dropped and counted like DROP
+    @Test
+    void blockPolicyDropsAfterTimeout() throws Exception {
+        ReflectionTestUtils.setField(auditLog, "overflowPolicy", AuditOverflowPolicy.BLOCK);
+        auditLog.start();
+        holdWriter();
+        record(4);
+
+        long started = System.nanoTime();
+        record(1);
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1.0, dropped("overflow"));
+    }
+
+    // A failed write drops its batch (the held record here), counts it and the writer carries on
+    @Test
+    void failedWriteIsCounted() throws Exception {
+        ReflectionTestUtils.setField(auditLog, "capacity", 64);
+        auditLog.start();
+        holdWriter();
+        sink.failNext();
+        record(3);
+
+        sink.open();
+        assertTrue(auditLog.flush(5000));
+        assertEquals(1.0, dropped("write-failed"));
+        assertEquals(3, sink.written().size());
+
+        record(2);
+        assertTrue(auditLog.flush(5000));
+        assertEquals(5, sink.written().size());
+        assertEquals(5.0, meterRegistry.counter("audit.records.written").count());
+    }
+
+    // Shutdown hands everything still buffered to the sink, even before the writer's next wake-up
+    @Test
+    void stopFlushesTheBuffer() {
+        ReflectionTestUtils.setField(auditLog, "capacity", 128);
+        ReflectionTestUtils.setField(auditLog, "flushIntervalMs", 60_000L);
+        auditLog.start();
+        sink.open();
+
+        record(100);
+        auditLog.stop();
+        assertEquals(100, sink.written().size());
+        assertEquals(100.0, meterRegistry.counter("audit.records.written").count());
+        assertFalse(((Thread) ReflectionTestUtils.getField(auditLog, "writer")).isAlive());
+    }
+
+    // Lets one record through to the writer and keeps the writer inside the sink with it
+    private void holdWriter() throws InterruptedException {
+        auditLog.record(AuditAction.LOGIN, "held", null, null, null);
+        assertTrue(sink.entered.await(5, TimeUnit.SECONDS));
+    }
+
+    private void record(int count) {
+        for (int i = 0; i < count; i++) {
+            auditLog.record(AuditAction.LOGIN, "member" + i, null, null, null);
+        }
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.counter("audit.records.dropped", "reason", reason).count();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    // Records every batch; write blocks until open() is called
+    private static class GatedSink implements AuditSink {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final List<List<AuditRecord>> batches = new ArrayList<>();
+        private volatile boolean failNext;
+
+        @Override
+        public void write(List<AuditRecord> records) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("disk full");
+            }
+            synchronized (batches) {
+                // The writer reuses its batch list, so keep a copy
+                batches.add(new ArrayList<>(records));
+            }
+        }
+
+        void open() {
+            gate.countDown();
+        }
+
+        void failNext() {
+            failNext = true;
+        }
+
+        List<Integer> batchSizes() {
+            synchronized (batches) {
+                return batches.stream().map(List::size).toList();
+            }
+        }
+
+        List<AuditRecord> written() {
+            synchronized (batches) {
+                return batches.stream().flatMap(List::stream).toList();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.dto.AuthResponse;
+import com.library.exception.InvalidTokenException;
+import com.library.model.AuditAction;
+import com.library.model.RefreshToken;
+import com.library.model.Role;
+import com.library.model.User;
+import com.library.repository.RefreshTokenRepository;
+import com.library.repository.UserRepository;
+import com.library.security.JwtUtil;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String RAW_TOKEN = "first-refresh-token";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private AuditLog auditLog;
+
+    private AuthService authService;
+    private User user;
+    private RefreshToken stored;
+
+    @BeforeEach
+    void configure() throws Exception {
+        authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authService, "refreshTokenRepository", refreshTokenRepository);
+        ReflectionTestUtils.setField(authService, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(authService, "auditLog", auditLog);
+        ReflectionTestUtils.setField(authService, "refreshExpirationSeconds", 3600L);
+
+        user = new User("refresh-member", "secret", "Refresh Member", "refresh@example.test", Role.MEMBER);
+        user.setId(7L);
+        stored = new RefreshToken(sha256(RAW_TOKEN), 7L, "family-1", LocalDateTime.now().plusHours(1));
+        lenient().when(refreshTokenRepository.findByHashForUpdate(anyString())).thenReturn(Optional.empty());
+        lenient().when(refreshTokenRepository.findByHashForUpdate(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+        lenient().when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        lenient().when(jwtUtil.generateToken(user)).thenReturn("access-token");
+    }
+
+    // The presented token is marked used and a new one of the same family replaces it; only hashes are stored
+    @Test
+    void refreshRotatesWithinTheFamily() throws Exception {
+        AuthResponse response = authService.refresh(RAW_TOKEN);
+
+        assertEquals("access-token", response.getToken());
+        assertNotNull(stored.getUsedAt());
+        assertNotEquals(RAW_TOKEN, response.getRefreshToken());
+
+        ArgumentCaptor<RefreshToken> issued = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(issued.capture());
+        assertEquals("family-1", issued.getValue().getFamilyId());
+        assertEquals(7L, issued.getValue().getUserId());
+        assertEquals(sha256(response.getRefreshToken()), issued.getValue().getTokenHash());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    // A token presented after it was rotated is a stolen copy or a replay: the whole family ends
+    @Test
+    void reusedTokenRevokesItsFamily() {
+        LocalDateTime usedAt = LocalDateTime.now().minusMinutes(5);
+        stored.setUsedAt(usedAt);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(RAW_TOKEN));
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(auditLog).record(eq(AuditAction.REFRESH_TOKEN_REUSED), isNull(), eq(7L), isNull(), eq("family family-1"));
+        verify(refreshTokenRepository, never()).save(any());
+        assertEquals(usedAt, stored.getUsedAt());
+    }
+
+    // Revoked, expired and unknown tokens are refused without touching the family
+    @Test
+    void deadTokensAreRefused() {
+        stored.setRevokedAt(LocalDateTime.now().minusMinutes(1));
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(RAW_TOKEN));
+
+        stored.setRevokedAt(null);
+        stored.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(RAW_TOKEN));
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh("never-issued"));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    // A disabled member can't keep a session going by refreshing
+    @Test
+    void disabledMemberCannotRefresh() {
+        user.setEnabled(false);
+
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(RAW_TOKEN));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    private static String sha256(String value) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
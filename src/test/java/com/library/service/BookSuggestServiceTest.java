@@ -0,0 +1,90 @@
+package com.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.dto.BookSuggestView;
+import com.library.dto.BookSuggestion;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggestServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private BookSuggestService bookSuggestService;
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(bookSuggestService, "maxKeyLength", 64);
+        ReflectionTestUtils.setField(bookSuggestService, "maxScan", 20000);
+        ReflectionTestUtils.setField(bookSuggestService, "overlayThreshold", 5000);
+        when(bookRepository.findAllSuggestViews()).thenReturn(List.of(new BookSuggestView(1L, "Rust Basics", "Ann Lee")));
+    }
+
+    // Bumps from before the reload are in the new counts; one relayed during it is not, and stays
+    @Test
+    void rebuildKeepsBumpsRecordedWhileReloading() {
+        bookSuggestService.recordBorrow(1L);
+        bookSuggestService.recordBorrow(1L);
+        when(transactionRepository.countBorrowsByBook()).thenAnswer(invocation -> {
+            bookSuggestService.recordBorrow(1L);
+            return List.<Object[]>of(new Object[] {1L, 2L});
+        });
+
+        bookSuggestService.rebuild();
+
+        assertEquals(3, bookSuggestService.suggest("rust", 5).get(0).getPopularity());
+    }
+
+    @Test
+    void rebuildFoldsInEarlierBumps() {
+        bookSuggestService.recordBorrow(1L);
+        when(transactionRepository.countBorrowsByBook()).thenReturn(List.<Object[]>of(new Object[] {1L, 1L}));
+
+        bookSuggestService.rebuild();
+
+        assertEquals(1, bookSuggestService.suggest("rust", 5).get(0).getPopularity());
+    }
+
+    // A one-letter prefix whose most popular entries are many copies of one title still fills
+    // the largest limit: the precomputed candidates over-select as much as longer prefixes do
+    @Test
+    void shortPrefixFillsTheLargestLimit() {
+        List<BookSuggestView> views = new ArrayList<>();
+        List<Object[]> borrows = new ArrayList<>();
+        for (long id = 1; id <= 45; id++) {
+            views.add(new BookSuggestView(id, "Rook", "Ann Lee"));
+            borrows.add(new Object[] {id, 2L});
+        }
+        for (long id = 46; id <= 75; id++) {
+            views.add(new BookSuggestView(id, "Ruby " + id, "Ann Lee"));
+            borrows.add(new Object[] {id, 1L});
+        }
+        when(bookRepository.findAllSuggestViews()).thenReturn(views);
+        when(transactionRepository.countBorrowsByBook()).thenReturn(borrows);
+
+        bookSuggestService.rebuild();
+
+        List<BookSuggestion> suggestions = bookSuggestService.suggest("r", BookSuggestService.MAX_LIMIT);
+        assertEquals(BookSuggestService.MAX_LIMIT, suggestions.size());
+        assertEquals("Rook", suggestions.get(0).getText());
+    }
+}
@@ -0,0 +1,124 @@
+package com.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.library.dto.LoanDueView;
+import com.library.dto.NotificationMessage;
+import com.library.model.LoanNotice;
+import com.library.repository.LoanNoticeRepository;
+import com.library.repository.TransactionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class DueDateNotifierTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 8, 0);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LoanNoticeRepository loanNoticeRepository;
+
+    @Mock
+    private NotificationTransport transport;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DueDateNotifier notifier;
+
+    @BeforeEach
+    void configure() {
+        meterRegistry = new SimpleMeterRegistry();
+        notifier = new DueDateNotifier(transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(notifier, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(notifier, "loanNoticeRepository", loanNoticeRepository);
+        ReflectionTestUtils.setField(notifier, "transport", transport);
+        ReflectionTestUtils.setField(notifier, "daysBefore", 2);
+        ReflectionTestUtils.setField(notifier, "overdueRepeatDays", 7);
+        ReflectionTestUtils.setField(notifier, "pageSize", 500);
+        ReflectionTestUtils.setField(notifier, "sendBatchSize", 50);
+        ReflectionTestUtils.setField(notifier, "concurrency", 1);
+        notifier.startExecutor();
+
+        List<LoanDueView> due = List.of(
+                new LoanDueView(1L, NOW.plusDays(1), 10L, "ann@example.test", "Ann", "Due Soon"),
+                new LoanDueView(2L, NOW.minusDays(3), 20L, "bob@example.test", "Bob", "Overdue"));
+        when(transactionRepository.findDueBefore(any(), any(), anyLong(), any())).thenReturn(due);
+        when(loanNoticeRepository.findSentKeys(anyCollection())).thenReturn(List.of());
+        when(loanNoticeRepository.saveAll(anyList())).thenAnswer(call -> new ArrayList<>(call.<List<LoanNotice>>getArgument(0)));
+    }
+
+    @AfterEach
+    void stop() {
+        notifier.stopExecutor();
+    }
+
+    // Messages the transport reports as unsent give their claims back; the rest keep them
+    @Test
+    void rejectedMessagesReleaseTheirClaims() {
+        when(transport.send(anyList())).thenAnswer(call -> {
+            List<NotificationMessage> messages = call.getArgument(0);
+            return messages.subList(1, 2);
+        });
+
+        assertEquals(1, notifier.sendNotices(NOW));
+        verify(loanNoticeRepository).deleteAll(noticesFor(2L));
+        assertEquals(1.0, meterRegistry.counter("notifications.sent").count());
+        assertEquals(1.0, meterRegistry.counter("notifications.failed").count());
+    }
+
+    // A transport that throws sent nothing we know of: every claim in the batch is released
+    @Test
+    void transportFailureReleasesEveryClaim() {
+        when(transport.send(anyList())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertEquals(0, notifier.sendNotices(NOW));
+        verify(loanNoticeRepository).deleteAll(noticesFor(1L));
+        verify(loanNoticeRepository).deleteAll(noticesFor(2L));
+        assertEquals(0.0, meterRegistry.counter("notifications.sent").count());
+        assertEquals(2.0, meterRegistry.counter("notifications.failed").count());
+    }
+
+    // Everything sent: the claims stay as the record of what went out
+    @Test
+    void sentMessagesKeepTheirClaims() {
+        when(transport.send(anyList())).thenReturn(List.of());
+
+        assertEquals(2, notifier.sendNotices(NOW));
+        verify(loanNoticeRepository, never()).deleteAll(anyList());
+    }
+
+    // The claimed rows of one member's message, each member here having a single loan
+    private static Iterable<LoanNotice> noticesFor(long transactionId) {
+        return argThat(notices -> {
+            Iterator<LoanNotice> iterator = notices.iterator();
+            return iterator.hasNext() && iterator.next().getTransactionId() == transactionId && !iterator.hasNext();
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.library.dto.BookSuggestView;
+import com.library.dto.RelatedBook;
+import com.library.model.OutboxEvent;
+import com.library.model.OutboxEventType;
+import com.library.repository.BookRepository;
+import com.library.repository.TransactionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RelatedBooksServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private RelatedBooksService relatedBooksService;
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(relatedBooksService, "historyPerMember", 30);
+        ReflectionTestUtils.setField(relatedBooksService, "topK", 10);
+        ReflectionTestUtils.setField(relatedBooksService, "candidates", 10);
+        ReflectionTestUtils.setField(relatedBooksService, "buildThreads", 2);
+        ReflectionTestUtils.setField(relatedBooksService, "membersPerChunk", 1);
+    }
+
+    // A full list admits a new neighbour in place of the weakest, starting from that one's count
+    @Test
+    void neighboursEvictTheWeakestWhenFull() {
+        RelatedBooksService.Neighbours neighbours = new RelatedBooksService.Neighbours(2);
+        neighbours.increment(1);
+        neighbours.increment(1);
+        neighbours.increment(1);
+        neighbours.increment(2);
+        neighbours.increment(3);
+        assertTop(neighbours, new int[] {1, 3}, new int[] {3, 2});
+
+        // The newcomer now outranks the old entry it can overtake
+        neighbours.increment(3);
+        neighbours.increment(3);
+        assertTop(neighbours, new int[] {3, 1}, new int[] {4, 3});
+    }
+
+    // The build keeps the strongest slots, ties going to the lower book id, strongest first
+    @Test
+    void neighboursFromTheBuildKeepTheStrongest() {
+        int[] bookIds = {10, 20, 30, 40};
+        int[] counter = {1, 5, 3, 3};
+        int[] touched = {3, 0, 2, 1};
+        RelatedBooksService.Neighbours neighbours = RelatedBooksService.Neighbours.strongest(touched, 4, counter, bookIds, 3);
+        assertTop(neighbours, new int[] {20, 30, 40}, new int[] {5, 3, 3});
+    }
+
+    // Histories are merged into sorted distinct title slots, each listing the members who have it
+    @Test
+    void postingsMergeMemberHistories() {
+        RelatedBooksService.Postings postings = RelatedBooksService.Postings.of(List.of(new int[] {5, 3}, new int[] {3, 9}));
+        assertArrayEquals(new int[] {3, 5, 9}, postings.bookIds);
+        assertArrayEquals(new int[] {1, 0}, postings.memberSlots[0]);
+        assertArrayEquals(new int[] {0, 2}, postings.memberSlots[1]);
+        assertArrayEquals(new int[] {0, 2, 3, 4}, postings.offsets);
+        assertArrayEquals(new int[] {0, 1, 0, 1}, postings.members);
+    }
+
+    // Borrows relayed during a rebuild are replayed onto the new index when they are newer than
+    // its cut-off; older ones are already in the loaded history
+    @Test
+    void rebuildReplaysBorrowsRelayedWhileBuilding() {
+        when(transactionRepository.findMaxId()).thenReturn(10L);
+        when(transactionRepository.findUserIdRange()).thenReturn(List.<Object[]>of(new Object[] {1L, 2L}));
+        when(transactionRepository.findBorrowHistory(1L, 1L, 10L)).thenAnswer(invocation -> {
+            relatedBooksService.onEvents(List.of(
+                    new OutboxEvent(OutboxEventType.BOOK_BORROWED, 300L, 2L, 11L, null),
+                    new OutboxEvent(OutboxEventType.BOOK_BORROWED, 400L, 1L, 9L, null)));
+            return List.<Object[]>of(new Object[] {1L, 200L}, new Object[] {1L, 100L});
+        });
+        when(transactionRepository.findBorrowHistory(2L, 2L, 10L))
+                .thenReturn(List.<Object[]>of(new Object[] {2L, 100L}));
+        when(bookRepository.findSuggestViewsByIds(anyCollection())).thenAnswer(invocation -> {
+            List<BookSuggestView> views = new ArrayList<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                views.add(new BookSuggestView((Long) id, "Title " + id, "Author"));
+            }
+            return views;
+        });
+
+        relatedBooksService.rebuild();
+
+        assertEquals(List.of(200L, 300L), ids(relatedBooksService.related(100L, 10)));
+        assertEquals(List.of(100L), ids(relatedBooksService.related(300L, 10)));
+        assertTrue(relatedBooksService.related(400L, 10).isEmpty());
+    }
+
+    private static void assertTop(RelatedBooksService.Neighbours neighbours, int[] ids, int[] counts) {
+        int[] topIds = new int[ids.length + 1];
+        int[] topCounts = new int[ids.length + 1];
+        assertEquals(ids.length, neighbours.top(ids.length + 1, topIds, topCounts));
+        assertArrayEquals(ids, Arrays.copyOf(topIds, ids.length));
+        assertArrayEquals(counts, Arrays.copyOf(topCounts, ids.length));
+    }
+
+    private static List<Long> ids(List<RelatedBook> related) {
+        return related.stream().map(RelatedBook::getBookId).toList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.library.service;
+
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import com.library.model.TransactionStatus;
+import com.library.repository.TransactionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    // No limit and limits above the cap both read at most MAX_SEARCH_RESULTS rows
+    @Test
+    void searchIsBounded() {
+        transactionService.searchTransactions(null, null, null);
+        transactionService.searchTransactions(7L, TransactionStatus.ACTIVE, 50_000);
+        transactionService.searchTransactions(null, null, 25);
+
+        verify(transactionRepository).search(null, null, Limit.of(TransactionService.MAX_SEARCH_RESULTS));
+        verify(transactionRepository).search(7L, TransactionStatus.ACTIVE, Limit.of(TransactionService.MAX_SEARCH_RESULTS));
+        verify(transactionRepository).search(null, null, Limit.of(25));
+    }
+}
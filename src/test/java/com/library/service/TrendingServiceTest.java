@@ -0,0 +1,209 @@
+package com.library.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.library.dto.BookSuggestView;
+import com.library.dto.TrendingBook;
+import com.library.model.TrendingBucket;
+import com.library.repository.BookRepository;
+import com.library.repository.TrendingBucketRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+
+    // Start of an hour, so each step below enters the next bucket
+    private static final Instant START = Instant.parse("2026-03-02T08:00:00Z");
+
+    @Mock
+    private TrendingBucketRepository trendingBucketRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Instant now = START;
+
+    @BeforeEach
+    void titles() {
+        lenient().when(bookRepository.findSuggestViewsByIds(anyCollection())).thenAnswer(call -> {
+            List<BookSuggestView> views = new ArrayList<>();
+            for (Long id : call.<Collection<Long>>getArgument(0)) {
+                views.add(new BookSuggestView(id, "Title " + id, "Author"));
+            }
+            return views;
+        });
+    }
+
+    // Three one-hour buckets: a bucket's hits count until it is three hours old
+    @Test
+    void oldBucketsAgeOutOfTheWindow() {
+        TrendingService trending = trending(10);
+        view(trending, 1L, 3);
+        advanceHours(trending, 1);
+        view(trending, 2L, 1);
+        assertEquals(List.of("1:3", "2:1"), scores(trending));
+
+        advanceHours(trending, 2);
+        assertEquals(List.of("2:1"), scores(trending));
+
+        advanceHours(trending, 1);
+        assertEquals(List.of(), scores(trending));
+    }
+
+    // A gap longer than the window clears every bucket, not just one
+    @Test
+    void longIdleGapClearsTheWindow() {
+        TrendingService trending = trending(10);
+        view(trending, 1L, 2);
+        advanceHours(trending, 1);
+        view(trending, 2L, 2);
+
+        advanceHours(trending, 30);
+        assertEquals(List.of(), scores(trending));
+        view(trending, 3L, 1);
+        assertEquals(List.of("3:1"), scores(trending));
+    }
+
+    // Once the candidates are full a title has to beat the weakest one to get in
+    @Test
+    void fullCandidateSetAdmitsOnlyStrongerTitles() {
+        TrendingService trending = trending(2);
+        view(trending, 1L, 3);
+        view(trending, 2L, 2);
+        // Admitted and at once evicted as the weakest; the bar rises to 2
+        view(trending, 3L, 1);
+        assertEquals(List.of("1:3", "2:2"), scores(trending));
+
+        view(trending, 4L, 2);
+        assertEquals(List.of("1:3", "2:2"), scores(trending));
+
+        // The third view beats the bar and displaces title 2
+        view(trending, 4L, 1);
+        assertEquals(List.of("1:3", "4:3"), scores(trending));
+    }
+
+    // Clearing forgets every score and candidate; counting starts again from zero
+    @Test
+    void clearEmptiesTheWindow() {
+        TrendingService trending = trending(2);
+        view(trending, 1L, 3);
+        view(trending, 2L, 2);
+        assertEquals(List.of("1:3", "2:2"), scores(trending));
+
+        trending.clear();
+        assertEquals(List.of(), scores(trending));
+        // The admission bar is gone too
+        view(trending, 3L, 1);
+        assertEquals(List.of("3:1"), scores(trending));
+    }
+
+    // Saved buckets and candidates come back into a new instance with the same scores
+    @Test
+    void snapshotRestoresIntoANewInstance() {
+        TrendingService trending = trending(10);
+        view(trending, 1L, 4);
+        advanceHours(trending, 1);
+        view(trending, 2L, 2);
+        view(trending, 1L, 1);
+
+        trending.snapshot();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TrendingBucket>> saved = ArgumentCaptor.forClass(List.class);
+        verify(trendingBucketRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+
+        // Unchanged buckets are not written again
+        trending.snapshot();
+        verify(trendingBucketRepository).saveAll(List.of());
+
+        when(trendingBucketRepository.findByBucketIndexBetweenOrderByBucketIndex(anyLong(), anyLong()))
+                .thenReturn(saved.getValue());
+        TrendingService restarted = trending(10);
+        restarted.restore();
+        assertEquals(List.of("1:5", "2:2"), scores(restarted));
+
+        // Restored buckets still age out on schedule
+        advanceHours(restarted, 2);
+        assertEquals(List.of("2:2", "1:1"), scores(restarted));
+    }
+
+    // Buckets saved with another bucket length can't be placed in this window
+    @Test
+    void restoreSkipsBucketsOfAnotherLength() {
+        TrendingService trending = trending(10);
+        view(trending, 1L, 2);
+        trending.snapshot();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TrendingBucket>> saved = ArgumentCaptor.forClass(List.class);
+        verify(trendingBucketRepository).saveAll(saved.capture());
+        saved.getValue().forEach(bucket -> bucket.setBucketMinutes(30));
+
+        when(trendingBucketRepository.findByBucketIndexBetweenOrderByBucketIndex(anyLong(), anyLong()))
+                .thenReturn(saved.getValue());
+        TrendingService restarted = trending(10);
+        restarted.restore();
+        assertTrue(scores(restarted).isEmpty());
+    }
+
+    private TrendingService trending(int candidates) {
+        TrendingService trending = new TrendingService(transactionManager);
+        ReflectionTestUtils.setField(trending, "trendingBucketRepository", trendingBucketRepository);
+        ReflectionTestUtils.setField(trending, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(trending, "bucketMinutes", 60);
+        ReflectionTestUtils.setField(trending, "windowBuckets", 3);
+        ReflectionTestUtils.setField(trending, "depth", 4);
+        ReflectionTestUtils.setField(trending, "width", 256);
+        ReflectionTestUtils.setField(trending, "capacity", candidates);
+        ReflectionTestUtils.setField(trending, "borrowWeight", 5);
+        ReflectionTestUtils.setField(trending, "viewWeight", 1);
+        ReflectionTestUtils.setField(trending, "cacheMs", 0L);
+        ReflectionTestUtils.setField(trending, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        trending.allocate();
+        return trending;
+    }
+
+    private void advanceHours(TrendingService trending, int hours) {
+        now = now.plus(Duration.ofHours(hours));
+        ReflectionTestUtils.setField(trending, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static void view(TrendingService trending, Long bookId, int times) {
+        for (int i = 0; i < times; i++) {
+            trending.recordView(bookId);
+        }
+    }
+
+    // "bookId:score", highest first
+    private static List<String> scores(TrendingService trending) {
+        List<String> scores = new ArrayList<>();
+        for (TrendingBook book : trending.leaderboard(100)) {
+            scores.add(book.getBookId() + ":" + book.getScore());
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,69 @@
+package com.library.support;
+
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.library.model.Book;
+import com.library.model.MemberLoanStats;
+import com.library.model.Role;
+import com.library.model.User;
+import com.library.repository.MemberLoanStatsRepository;
+import com.library.repository.UserRepository;
+import com.library.service.BookService;
+
+// Base for endpoint tests: the whole application behind MockMvc, signed in as a librarian.
+//
+// Subclasses share one application context and so one database. Each one creates its own books
+// and members (own ISBNs and usernames) and asserts only on those. The expectations on
+// QueryCount.statements are exact: a failure means a change added queries to a request, most
+// often an association loaded one row at a time. Update the number only when the extra
+// statements are intended.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WithMockUser(roles = "LIBRARIAN")
+public abstract class ApiTestSupport {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MemberLoanStatsRepository memberLoanStatsRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    protected Long member(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("not-used");
+        user.setFullName(username);
+        user.setEmail(username + "@example.test");
+        user.setRole(Role.MEMBER);
+        Long id = userRepository.save(user).getId();
+        memberLoanStatsRepository.save(new MemberLoanStats(id));
+        return id;
+    }
+
+    // Two copies, category Testing
+    protected Long book(String isbn, String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Test Author");
+        book.setIsbn(isbn);
+        book.setCategory("Testing");
+        book.setPublicationYear(2020);
+        book.setTotalCopies(2);
+        book.setAvailableCopies(2);
+        return bookService.createBook(book).getId();
+    }
+}
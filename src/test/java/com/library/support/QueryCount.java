@@ -0,0 +1,30 @@
+package com.library.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.library.config.RequestDbStatsFilter;
+
+// MockMvc expectations on the SQL statements a request ran, read from the X-DB-Statements
+// header that RequestDbStatsFilter adds. Use with @AutoConfigureMockMvc so the filter runs:
+//   mockMvc.perform(get("/api/transactions")).andExpect(QueryCount.statements(2));
+public final class QueryCount {
+
+    private QueryCount() {
+    }
+
+    public static ResultMatcher statements(int expected) {
+        return result -> assertEquals(expected, count(result),
+                () -> result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                        + " ran an unexpected number of SQL statements");
+    }
+
+    public static int count(MvcResult result) {
+        String header = result.getResponse().getHeader(RequestDbStatsFilter.STATEMENTS_HEADER);
+        assertNotNull(header, "No " + RequestDbStatsFilter.STATEMENTS_HEADER + " header; is library.db-stats.enabled on?");
+        return Integer.parseInt(header);
+    }
+}
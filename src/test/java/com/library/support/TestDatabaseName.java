@@ -0,0 +1,24 @@
+package com.library.support;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+// Gives every test application context its own in-memory database (library.test-db.name, used
+// by application-test.properties for both the JDBC and the R2DBC URL). Contexts cached by the
+// test framework stay alive, with their schedulers; on a shared database they would see each
+// other's rows and, after a create-drop, poll tables that are gone.
+public class TestDatabaseName implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.containsProperty("library.test-db.name")) {
+            environment.getPropertySources().addLast(new MapPropertySource("testDatabaseName",
+                    Map.of("library.test-db.name", "library_test_" + UUID.randomUUID().toString().replace("-", ""))));
+        }
+    }
+}